@@ -2,5 +2,5 @@ package yadic;
 
 public enum ConstructionPolicy
 {
-    CONSTRUCTION, SINGLETON
+    CONSTRUCTION, SINGLETON, EXPIRING
 }
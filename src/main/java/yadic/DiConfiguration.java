@@ -0,0 +1,123 @@
+package yadic;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import yadic.listener.ResolutionListener;
+
+/** Options of dependency injection container, set before the container is created. */
+public final class DiConfiguration
+{
+    private boolean detailedExceptions = true;
+    private boolean collectMetrics = false;
+    private Executor executor = ForkJoinPool.commonPool();
+    private ResolutionListener listener = ResolutionListener.NONE;
+    private ClassLoader classLoader = defaultClassLoader();
+
+    /**
+     * @return {@code true} if exceptions are created with stack traces, otherwise {@code false}
+     */
+    public boolean detailedExceptions()
+    {
+        return detailedExceptions;
+    }
+
+    /**
+     * Set whether exceptions thrown by container have stack traces. Stackless exceptions make
+     * workloads with many failed resolutions cheaper, detailed ones help debugging.
+     * @param detailedExceptions {@code true} to fill in stack traces, {@code false} otherwise
+     * @return {@code this} for method chaining
+     */
+    public DiConfiguration detailedExceptions(boolean detailedExceptions)
+    {
+        this.detailedExceptions = detailedExceptions;
+        return this;
+    }
+
+    /**
+     * @return {@code true} if resolution metrics are collected, otherwise {@code false}
+     */
+    public boolean collectMetrics()
+    {
+        return collectMetrics;
+    }
+
+    /**
+     * Set whether container collects per-type resolution counts and construction times.
+     * Disabled metrics cost nothing on resolution.
+     * @param collectMetrics {@code true} to collect metrics, {@code false} otherwise
+     * @return {@code this} for method chaining
+     */
+    public DiConfiguration collectMetrics(boolean collectMetrics)
+    {
+        this.collectMetrics = collectMetrics;
+        return this;
+    }
+
+    /**
+     * @return listener of resolution events, {@link ResolutionListener#NONE} if none was added
+     */
+    public ResolutionListener listener()
+    {
+        return listener;
+    }
+
+    /**
+     * Add listener of resolution events. Listeners are notified in order of adding.
+     * @param listener the listener
+     * @return {@code this} for method chaining
+     */
+    public DiConfiguration addListener(ResolutionListener listener)
+    {
+        this.listener = ResolutionListener.compose(this.listener, listener);
+        return this;
+    }
+
+    /**
+     * @return executor running asynchronous resolutions
+     */
+    public Executor executor()
+    {
+        return executor;
+    }
+
+    /**
+     * Set executor that runs asynchronous resolutions and builds independent dependencies in
+     * parallel, for example a virtual threads executor. Default is the common fork-join pool.
+     * @param executor the executor
+     * @return {@code this} for method chaining
+     */
+    public DiConfiguration executor(Executor executor)
+    {
+        this.executor = Objects.requireNonNull(executor);
+        return this;
+    }
+
+    /**
+     * @return class loader of types referenced by name
+     */
+    public ClassLoader classLoader()
+    {
+        return classLoader;
+    }
+
+    /**
+     * Set class loader that loads types referenced by name, for example in resolution profiles.
+     * Default is the context class loader of the thread that created the configuration.
+     * @param classLoader the class loader
+     * @return {@code this} for method chaining
+     */
+    public DiConfiguration classLoader(ClassLoader classLoader)
+    {
+        this.classLoader = Objects.requireNonNull(classLoader);
+        return this;
+    }
+
+    private static ClassLoader defaultClassLoader()
+    {
+        ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+
+        return contextLoader != null ? contextLoader : DiConfiguration.class.getClassLoader();
+    }
+}
@@ -1,19 +1,44 @@
 package yadic;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import yadic.annotation.Dependency;
+import yadic.explain.ResolutionPlan;
+import yadic.graph.GraphFormat;
+import yadic.graph.GraphWriter;
+import yadic.index.BindingIndexProcessor;
+import yadic.metrics.TypeMetrics;
+import yadic.profile.ProfileRecorder;
+import yadic.profile.ResolutionProfile;
 import yadic.registry.DependencyRegistry;
 import yadic.resolver.TypesResolver;
 
 public final class DiContainer
-        implements DiResolver
+        implements DiResolver, AutoCloseable
 {
     private final DependencyRegistry registry;
     private final TypesResolver resolver;
+    private final ClassLoader classLoader;
 
     public DiContainer()
     {
-        registry = new DependencyRegistry();
-        resolver = new TypesResolver(registry);
+        this(new DiConfiguration());
+    }
+
+    /**
+     * Create container with given options.
+     * @param configuration container options
+     */
+    public DiContainer(DiConfiguration configuration)
+    {
+        registry = new DependencyRegistry(configuration);
+        resolver = new TypesResolver(registry, configuration);
+        classLoader = configuration.classLoader();
     }
 
     /**
@@ -42,6 +67,122 @@ public final class DiContainer
         return this;
     }
 
+    /**
+     * Register concrete type class in the container with {@link ConstructionPolicy#EXPIRING}
+     * policy. Its instance is shared like a singleton and rebuilt in background once it is
+     * older than given time; the old instance is returned until the rebuilt one is ready.
+     * @param type type class
+     * @param timeToLive time after which instance is rebuilt
+     * @return {@code this} for method chaining
+     */
+    public <T> DiContainer registerType(Class<T> type, Duration timeToLive)
+    {
+        registry.addType(type, timeToLive);
+        return this;
+    }
+
+    /**
+     * Register subtype class for its supertype with {@link ConstructionPolicy#EXPIRING} policy.
+     * Its instance is shared like a singleton and rebuilt in background once it is older than
+     * given time; the old instance is returned until the rebuilt one is ready.
+     * @param supertype supertype class
+     * @param subtype subtype class
+     * @param timeToLive time after which instance is rebuilt
+     * @return {@code this} for method chaining
+     */
+    public <T> DiContainer registerType(
+            Class<T> supertype, Class<? extends T> subtype, Duration timeToLive)
+    {
+        registry.addType(supertype, subtype, timeToLive);
+        return this;
+    }
+
+    /**
+     * Register concrete type class in the container with {@link ConstructionPolicy#SINGLETON}
+     * policy and given retention. A soft or weak singleton may be cleared by garbage collector
+     * and is then rebuilt on next resolution, at most once at a time. Such singletons are not
+     * closed with the container.
+     * @param type type class
+     * @param retention retention of singleton
+     * @return {@code this} for method chaining
+     */
+    public <T> DiContainer registerType(Class<T> type, SingletonRetention retention)
+    {
+        registry.addType(type, retention);
+        return this;
+    }
+
+    /**
+     * Register subtype class for its supertype with {@link ConstructionPolicy#SINGLETON} policy
+     * and given retention. A soft or weak singleton may be cleared by garbage collector and is
+     * then rebuilt on next resolution, at most once at a time. Such singletons are not closed
+     * with the container.
+     * @param supertype supertype class
+     * @param subtype subtype class
+     * @param retention retention of singleton
+     * @return {@code this} for method chaining
+     */
+    public <T> DiContainer registerType(
+            Class<T> supertype, Class<? extends T> subtype, SingletonRetention retention)
+    {
+        registry.addType(supertype, subtype, retention);
+        return this;
+    }
+
+    /**
+     * Register subtype class as one more element of its supertype. All elements are injected
+     * together in order of registration into constructor parameters of type {@code List},
+     * {@code Set} or {@code Collection} of the supertype, or array of the supertype. When all
+     * elements are singletons, the same immutable collection is injected every time. The subtype
+     * itself is registered with given policy too.
+     * @param supertype element type class
+     * @param subtype subtype class
+     * @param policy construction policy of subtype instances
+     * @return {@code this} for method chaining
+     */
+    public <T> DiContainer registerElement(
+            Class<T> supertype, Class<? extends T> subtype, ConstructionPolicy policy)
+    {
+        registry.addElement(supertype, subtype, policy);
+        return this;
+    }
+
+    /**
+     * Register subtype class under given key as one more entry of its supertype. All entries are
+     * injected together into constructor parameters of type {@code Map} from keys to the
+     * supertype, when all keys are instances of the key type. The map is immutable, built once
+     * for each change of entries, and looks keys up without allocating. Its values are resolved
+     * on access according to their policy, so singletons are shared and other values are
+     * constructed for each access. The subtype itself is registered with given policy too.
+     * @param supertype value type class
+     * @param key key of entry, replacing any entry with equal key
+     * @param subtype subtype class
+     * @param policy construction policy of subtype instances
+     * @return {@code this} for method chaining
+     */
+    public <T> DiContainer registerEntry(
+            Class<T> supertype, Object key, Class<? extends T> subtype, ConstructionPolicy policy)
+    {
+        registry.addEntry(supertype, key, subtype, policy);
+        return this;
+    }
+
+    /**
+     * Register subtype for its supertype by their binary names. No class is loaded until the
+     * supertype is first resolved, then the subtype is loaded by the class loader set with
+     * {@link DiConfiguration#classLoader(ClassLoader)}.
+     * @param supertypeName binary name of supertype
+     * @param subtypeName binary name of subtype
+     * @param policy construction policy of instances
+     * @return {@code this} for method chaining
+     */
+    public DiContainer registerType(
+            String supertypeName, String subtypeName, ConstructionPolicy policy)
+    {
+        registry.addType(supertypeName, subtypeName, policy);
+        return this;
+    }
+
     /**
      * Register concrete instance of its type.
      * @param type type class
@@ -54,6 +195,164 @@ public final class DiContainer
         return this;
     }
 
+    /**
+     * Register concrete instance of its type, which the container owns and closes in
+     * {@link #close()} if it is {@link AutoCloseable}.
+     * @param type type class
+     * @param instance concrete instance
+     * @return {@code this} for method chaining
+     */
+    public <T> DiContainer registerOwnedInstance(Class<T> type, T instance)
+    {
+        registry.addOwnedInstance(type, instance);
+        return this;
+    }
+
+    /**
+     * Install registrations of given modules at once. All bindings are staged first and
+     * validated in one pass, so either all of them are registered or none is.
+     * @param modules modules to install
+     * @return {@code this} for method chaining
+     * @throws DiException if any binding is incorrect
+     */
+    public DiContainer install(DiModule... modules)
+    {
+        ModuleBindings bindings = new ModuleBindings();
+
+        for(DiModule module : modules)
+            module.configure(bindings);
+
+        registry.install(bindings.staged());
+        return this;
+    }
+
+    /**
+     * Register all types listed in binding indices generated at compile time by
+     * {@link BindingIndexProcessor}, found by the configured class loader. Types are registered
+     * without scanning the classpath or reflecting over their annotations.
+     * @return {@code this} for method chaining
+     * @throws DiException if any index cannot be read or lists classes that cannot be loaded
+     */
+    public DiContainer loadIndex()
+    {
+        registry.loadIndex();
+        return this;
+    }
+
+    /**
+     * Register all types annotated with {@link yadic.annotation.Register} or
+     * {@link yadic.annotation.SelfRegister} in given packages and their subpackages. Class files
+     * are read in parallel from directories and jars of the configured class loader, and only
+     * annotated classes are loaded. Prefer {@link #loadIndex()} if the index was generated.
+     * @param packages names of packages
+     * @return {@code this} for method chaining
+     * @throws DiException if class files cannot be read or annotated classes cannot be loaded
+     */
+    public DiContainer scan(String... packages)
+    {
+        registry.scan(packages);
+        return this;
+    }
+
+    /**
+     * Prepare types from a profile recorded by {@link ProfileRecorder} in an earlier run. Types are
+     * started in background on the configured executor in order of the profile, which is the
+     * order of their first construction. Each type waits only for profiled types before it that
+     * it depends on, so independent types are prepared concurrently. Singletons are built and
+     * construction plans compiled before first requests. Call after all types are registered.
+     * @param profile resolution profile
+     * @return future completed when all types are prepared
+     */
+    public CompletableFuture<Void> warmUp(ResolutionProfile profile)
+    {
+        return resolver.warmUp(profile.loadTypes(classLoader));
+    }
+
+    /**
+     * Explain what resolving given type would do now, without constructing anything: the
+     * followed registrations, the constructors rejected before the chosen one with their reasons,
+     * the chosen constructor with its fallbacks, the source of each argument and the invoked
+     * setters.
+     * @param type type class
+     * @return plan of resolution, also for types that cannot be resolved
+     */
+    public ResolutionPlan explain(Class<?> type)
+    {
+        return resolver.explain(type);
+    }
+
+    /**
+     * Find all cycles in dependencies of registered types without constructing anything.
+     * Dependencies are taken from constructor parameters and {@code @Dependency} setters, so
+     * cycles broken at runtime by singletons are reported too.
+     * @return members of each cycle, empty if dependencies are acyclic
+     */
+    public List<List<Class<?>>> findCycles()
+    {
+        return resolver.findCycles();
+    }
+
+    /**
+     * Write static dependency graph of registered types, with their concrete types, policies and
+     * constructor and setter dependencies. When metrics are enabled with
+     * {@link DiConfiguration#collectMetrics(boolean)}, nodes show construction counts and times.
+     * @param writer output, flushed but not closed
+     * @param format output format
+     * @throws IOException if output cannot be written
+     */
+    public void exportGraph(Writer writer, GraphFormat format)
+            throws IOException
+    {
+        GraphWriter.write(resolver.dependencyGraph(), resolver.metrics(), writer, format);
+    }
+
+    /**
+     * Take snapshot of resolution metrics, if enabled with
+     * {@link DiConfiguration#collectMetrics(boolean)}.
+     * @return metrics of all resolved types, empty if metrics are disabled
+     */
+    public Map<Class<?>, TypeMetrics> metrics()
+    {
+        return resolver.metrics();
+    }
+
+    /**
+     * Count singletons registered with soft or weak {@link SingletonRetention} that have been
+     * cleared by garbage collector.
+     * @return numbers of cleared singletons of each type that has been cleared at least once
+     */
+    public Map<Class<?>, Long> evictions()
+    {
+        return registry.evictions();
+    }
+
+    /**
+     * Release all registrations, singletons, instances and resolution state of classes loaded by
+     * given class loader or its descendants, so that the class loader can be unloaded. Other
+     * singletons depending on released instances are constructed again on next resolution.
+     * Released instances are not closed.
+     * @param loader class loader of unloaded classes
+     * @return {@code this} for method chaining
+     */
+    public DiContainer evict(ClassLoader loader)
+    {
+        registry.evict(loader);
+        resolver.evict(loader);
+        return this;
+    }
+
+    /**
+     * Close all {@link AutoCloseable} singletons created by the container and all owned instances.
+     * Each instance is closed after all singletons depending on it, and independent ones are
+     * closed in parallel on the configured executor.
+     * @throws DiException if any instance failed to close, with other failures suppressed
+     */
+    @Override
+    public void close()
+    {
+        registry.close();
+    }
+
     /**
      * Resolve all depencencies and construct a new instance of given type using {@link Dependency}.
      * @param type type class
@@ -65,4 +364,53 @@ public final class DiContainer
     {
         return resolver.resolve(type);
     }
+
+    /**
+     * Resolve all dependencies and construct a new instance of given type using {@link Dependency}.
+     * Types known to be unresolvable are answered without throwing any exceptions.
+     * @param type type class
+     * @return new instance, or {@code null} if type cannot be resolved.
+     */
+    @Override
+    public <T> T resolveOrNull(Class<T> type)
+    {
+        return resolver.resolveOrNull(type);
+    }
+
+    /**
+     * Resolve all dependencies and construct a new instance of given type asynchronously on the
+     * configured executor. Independent constructor dependencies are built in parallel.
+     * @param type type class
+     * @return future of new instance, completed exceptionally if type cannot be resolved
+     */
+    @Override
+    public <T> CompletableFuture<T> resolveAsync(Class<T> type)
+    {
+        return resolver.resolveAsync(type);
+    }
+
+    /**
+     * Resolve all dependencies and construct new instances of all given types in one batch.
+     * @param types types classes
+     * @return resolved instances
+     * @throws DiException if any type cannot be resolved
+     */
+    @Override
+    public ResolvedInstances resolveAll(Class<?>... types)
+    {
+        return resolver.resolveAll(types);
+    }
+
+    /**
+     * Resolve all dependencies and construct given number of instances of given type.
+     * @param type type class
+     * @param count number of instances
+     * @return list of new instances
+     * @throws DiException if type cannot be resolved
+     */
+    @Override
+    public <T> List<T> resolveMany(Class<T> type, int count)
+    {
+        return resolver.resolveMany(type, count);
+    }
 }
@@ -1,19 +1,63 @@
 package yadic;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serial;
 
 public class DiException
         extends RuntimeException
 {
     @Serial private static final long serialVersionUID = -3019200382390630637L;
+    private String message;
+    private final transient Object[] arguments;
 
     public DiException(String message)
     {
         super(message);
+        this.message = message;
+        arguments = null;
     }
 
     public DiException(String message, Throwable cause)
     {
         super(message, cause);
+        this.message = message;
+        arguments = null;
+    }
+
+    /**
+     * Create exception with message formatted only when it is requested.
+     * @param stackTrace whether stack trace should be filled in
+     * @param cause cause of exception, may be {@code null}
+     * @param format message format
+     * @param arguments message format arguments
+     */
+    protected DiException(
+            boolean stackTrace, Throwable cause, String format, Object... arguments)
+    {
+        super(format, cause, true, stackTrace);
+        this.arguments = arguments;
+    }
+
+    @Override
+    public String getMessage()
+    {
+        if(message == null)
+        {
+            String format = super.getMessage();
+
+            message = arguments == null || format == null ? format
+                                                          : String.format(format, arguments);
+        }
+
+        return message;
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream output)
+            throws IOException
+    {
+        getMessage();
+        output.defaultWriteObject();
     }
 }
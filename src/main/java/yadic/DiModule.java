@@ -0,0 +1,14 @@
+package yadic;
+
+/**
+ * Group of registrations installed in container at once with {@link DiContainer#install}.
+ */
+@FunctionalInterface
+public interface DiModule
+{
+    /**
+     * Stage registrations of this module.
+     * @param bindings staged bindings of installation
+     */
+    void configure(ModuleBindings bindings);
+}
@@ -1,5 +1,9 @@
 package yadic;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import yadic.annotation.Dependency;
 
 public interface DiResolver
@@ -28,4 +32,47 @@ public interface DiResolver
             return null;
         }
     }
+
+    /**
+     * Resolve all dependencies and construct a new instance of given type asynchronously.
+     * @param type type class
+     * @return future of new instance, completed exceptionally if type cannot be resolved
+     */
+    default <T> CompletableFuture<T> resolveAsync(Class<T> type)
+    {
+        return CompletableFuture.supplyAsync(() -> resolve(type));
+    }
+
+    /**
+     * Resolve all dependencies and construct new instances of all given types.
+     * @param types types classes
+     * @return resolved instances
+     * @throws DiException if any type cannot be resolved
+     */
+    default ResolvedInstances resolveAll(Class<?>... types)
+    {
+        Object[] instances = new Object[types.length];
+
+        for(int i = 0; i < types.length; ++i)
+            instances[i] = resolve(types[i]);
+
+        return new ResolvedInstances(types.clone(), instances);
+    }
+
+    /**
+     * Resolve all dependencies and construct given number of instances of given type.
+     * @param type type class
+     * @param count number of instances
+     * @return list of new instances
+     * @throws DiException if type cannot be resolved
+     */
+    default <T> List<T> resolveMany(Class<T> type, int count)
+    {
+        List<T> instances = new ArrayList<>(count);
+
+        for(int i = 0; i < count; ++i)
+            instances.add(resolve(type));
+
+        return instances;
+    }
 }
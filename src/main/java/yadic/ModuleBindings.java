@@ -0,0 +1,63 @@
+package yadic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import yadic.registry.valuetypes.StagedBinding;
+
+/**
+ * Registrations staged by modules. Nothing is validated or registered until all modules of the
+ * installation are configured.
+ */
+public final class ModuleBindings
+{
+    private final List<StagedBinding> staged = new ArrayList<>();
+
+    ModuleBindings()
+    {
+    }
+
+    /**
+     * Stage concrete type class with construction policy.
+     * @param type type class
+     * @param policy construction policy of instances
+     * @return {@code this} for method chaining
+     */
+    public <T> ModuleBindings registerType(Class<T> type, ConstructionPolicy policy)
+    {
+        staged.add(StagedBinding.ofType(type, policy));
+        return this;
+    }
+
+    /**
+     * Stage subtype class for its supertype.
+     * @param supertype supertype class
+     * @param subtype subtype class
+     * @param policy construction policy of instances
+     * @return {@code this} for method chaining
+     */
+    public <T> ModuleBindings registerType(
+            Class<T> supertype, Class<? extends T> subtype, ConstructionPolicy policy)
+    {
+        staged.add(StagedBinding.ofType(supertype, subtype, policy));
+        return this;
+    }
+
+    /**
+     * Stage concrete instance of its type.
+     * @param type type class
+     * @param instance concrete instance
+     * @return {@code this} for method chaining
+     */
+    public <T> ModuleBindings registerInstance(Class<T> type, T instance)
+    {
+        staged.add(StagedBinding.ofInstance(type, Objects.requireNonNull(instance)));
+        return this;
+    }
+
+    List<StagedBinding> staged()
+    {
+        return staged;
+    }
+}
@@ -0,0 +1,58 @@
+package yadic;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** Instances resolved together in one batch, available by their requested types. */
+public final class ResolvedInstances
+{
+    private final Class<?>[] types;
+    private final Object[] instances;
+
+    public ResolvedInstances(Class<?>[] types, Object[] instances)
+    {
+        if(types.length != instances.length)
+            throw new IllegalArgumentException("Types and instances differ in length");
+
+        this.types = types;
+        this.instances = instances;
+    }
+
+    /**
+     * Get instance resolved for given type.
+     * @param type type class
+     * @return resolved instance
+     * @throws NoSuchElementException if type was not requested
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Class<T> type)
+    {
+        for(int i = 0; i < types.length; ++i)
+            if(types[i] == type)
+                return (T)instances[i];
+
+        throw new NoSuchElementException(
+                String.format("Type %s was not resolved in this batch", type.getName()));
+    }
+
+    /**
+     * Get instance resolved at given position of requested types.
+     * @param index position of type
+     * @return resolved instance
+     */
+    public Object get(int index)
+    {
+        return instances[index];
+    }
+
+    public int size()
+    {
+        return instances.length;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("ResolvedInstances%s", Arrays.toString(types));
+    }
+}
@@ -0,0 +1,12 @@
+package yadic;
+
+/** How strongly the container holds singleton instances. */
+public enum SingletonRetention
+{
+    /** Singleton is kept until it is replaced or the container is closed. */
+    STRONG,
+    /** Singleton may be cleared under memory pressure and is rebuilt when resolved again. */
+    SOFT,
+    /** Singleton is cleared once nothing else uses it and is rebuilt when resolved again. */
+    WEAK
+}
@@ -0,0 +1,12 @@
+package yadic.explain;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Constructor tried by resolution before the chosen one and rejected.
+ * @param constructor rejected constructor
+ * @param reason why the constructor cannot be invoked
+ */
+public record RejectedConstructor(Constructor<?> constructor, String reason)
+{
+}
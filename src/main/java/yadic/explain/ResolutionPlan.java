@@ -0,0 +1,139 @@
+package yadic.explain;
+
+import java.lang.reflect.Constructor;
+import java.util.List;
+
+import yadic.ConstructionPolicy;
+
+/**
+ * Plan of resolving a single type, computed without constructing anything.
+ * @param type requested type
+ * @param chain registered types followed from requested type to concrete type
+ * @param policy construction policy of instances, or {@code null} if type cannot be resolved
+ * or is a collection of elements or a map of entries
+ * @param source where the instance comes from
+ * @param constructor constructor to be invoked, or {@code null} if nothing is constructed
+ * @param rejected constructors tried before the chosen one and rejected, in order of trying
+ * @param fallbacks remaining constructors tried in order if the chosen one fails
+ * @param arguments plans of constructor arguments, or of elements of a collection
+ * @param setters plans of {@code @Dependency} setters invoked after construction
+ * @param failure reason why type cannot be resolved, or {@code null} if it can
+ */
+public record ResolutionPlan(Class<?> type, List<Class<?>> chain, ConstructionPolicy policy,
+                             Source source, Constructor<?> constructor,
+                             List<RejectedConstructor> rejected, List<Constructor<?>> fallbacks, List<ResolutionPlan> arguments,
+                             List<SetterPlan> setters, String failure)
+{
+    /**
+     * Create plan of type whose instance is taken as it is, without constructing anything.
+     * @param type requested type
+     * @param chain registered types followed from requested type to concrete type
+     * @param policy construction policy of instances
+     * @param source where the instance comes from
+     * @return plan of type
+     */
+    public static ResolutionPlan ofExisting(Class<?> type, List<Class<?>> chain,
+                                            ConstructionPolicy policy, Source source)
+    {
+        return new ResolutionPlan(type, chain, policy, source, null, List.of(), List.of(),
+                                  List.of(), List.of(), null);
+    }
+
+    /**
+     * Create plan of collection or array filled with all elements registered for its element
+     * type.
+     * @param type parameter type of collection or array
+     * @param elements plans of elements in order of registration
+     * @return plan of collection
+     */
+    public static ResolutionPlan ofElements(Class<?> type, List<ResolutionPlan> elements)
+    {
+        return new ResolutionPlan(type, List.of(type), null, Source.ELEMENTS, null, List.of(),
+                                  List.of(), elements, List.of(), null);
+    }
+
+    /**
+     * Create plan of map filled with all entries registered for its value type. Values are
+     * resolved on access, so they are not planned.
+     * @param type parameter type of map
+     * @return plan of map
+     */
+    public static ResolutionPlan ofEntries(Class<?> type)
+    {
+        return new ResolutionPlan(type, List.of(type), null, Source.ENTRIES, null, List.of(),
+                                  List.of(), List.of(), List.of(), null);
+    }
+
+    /**
+     * Create plan of type that cannot be resolved.
+     * @param type requested type
+     * @param chain registered types followed from requested type
+     * @param failure reason of failure
+     * @return plan of type
+     */
+    public static ResolutionPlan ofFailure(Class<?> type, List<Class<?>> chain, String failure)
+    {
+        return ofFailure(type, chain, failure, List.of());
+    }
+
+    /**
+     * Create plan of type that cannot be resolved because all its constructors were rejected.
+     * @param type requested type
+     * @param chain registered types followed from requested type
+     * @param failure reason of failure
+     * @param rejected rejected constructors in order of trying
+     * @return plan of type
+     */
+    public static ResolutionPlan ofFailure(Class<?> type, List<Class<?>> chain, String failure,
+                                           List<RejectedConstructor> rejected)
+    {
+        return new ResolutionPlan(type, chain, null, Source.UNRESOLVABLE, null, rejected,
+                                  List.of(), List.of(), List.of(), failure);
+    }
+
+    /**
+     * @return concrete type of instance, the last type of chain
+     */
+    public Class<?> concreteType()
+    {
+        return chain.get(chain.size() - 1);
+    }
+
+    /**
+     * Estimate number of instances constructed by resolution following this plan, including
+     * all dependencies. Registered instances and existing singletons are not counted, and each
+     * new singleton is counted once. Collections of elements count only their elements.
+     * @return estimated number of constructed instances
+     */
+    public long estimatedAllocations()
+    {
+        if(source == Source.ELEMENTS)
+            return arguments.stream().mapToLong(ResolutionPlan::estimatedAllocations).sum();
+
+        if(source != Source.CONSTRUCTION && source != Source.NEW_SINGLETON)
+            return 0L;
+
+        return 1L + arguments.stream().mapToLong(ResolutionPlan::estimatedAllocations).sum()
+                + setters.stream().mapToLong(setter -> setter.argument().estimatedAllocations())
+                         .sum();
+    }
+
+    /** Source of resolved instance. */
+    public enum Source
+    {
+        /** Instance registered in container. */
+        INSTANCE,
+        /** Singleton already created, or created earlier in the same resolution. */
+        SINGLETON,
+        /** Singleton constructed by this resolution. */
+        NEW_SINGLETON,
+        /** New instance constructed on each resolution. */
+        CONSTRUCTION,
+        /** Collection or array of all registered elements, planned in arguments. */
+        ELEMENTS,
+        /** Map of all registered entries, whose values are resolved on access. */
+        ENTRIES,
+        /** Type cannot be resolved. */
+        UNRESOLVABLE
+    }
+}
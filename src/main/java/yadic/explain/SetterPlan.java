@@ -0,0 +1,12 @@
+package yadic.explain;
+
+import java.lang.reflect.Method;
+
+/**
+ * Plan of invoking a single {@code @Dependency} setter.
+ * @param setter setter method
+ * @param argument plan of setter argument
+ */
+public record SetterPlan(Method setter, ResolutionPlan argument)
+{
+}
@@ -0,0 +1,19 @@
+package yadic.graph;
+
+import java.util.List;
+
+import yadic.ConstructionPolicy;
+
+/**
+ * Node of static dependency graph of the container.
+ * @param type requested type
+ * @param concreteType type of constructed instances, or {@code null} if type cannot be resolved
+ * @param policy construction policy of instances, or {@code null} if type cannot be resolved
+ * @param constructorDependencies types of constructor parameters resolved by the container
+ * @param setterDependencies types of {@code @Dependency} setter parameters
+ */
+public record DependencyNode(Class<?> type, Class<?> concreteType, ConstructionPolicy policy,
+                             List<Class<?>> constructorDependencies,
+                             List<Class<?>> setterDependencies)
+{
+}
@@ -0,0 +1,10 @@
+package yadic.graph;
+
+/** Output format of exported dependency graph. */
+public enum GraphFormat
+{
+    /** Graphviz directed graph. */
+    DOT,
+    /** JSON object with arrays of nodes and edges. */
+    JSON
+}
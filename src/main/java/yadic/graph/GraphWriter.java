@@ -0,0 +1,165 @@
+package yadic.graph;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+import yadic.metrics.TypeMetrics;
+
+/**
+ * Writer of dependency graph in DOT or JSON format. Nodes are annotated with construction
+ * counts and times when metrics are available.
+ */
+public final class GraphWriter
+{
+    private static final String CONSTRUCTOR = "constructor";
+    private static final String SETTER = "setter";
+
+    private GraphWriter()
+    {
+    }
+
+    /**
+     * Write given dependency graph.
+     * @param nodes nodes of graph
+     * @param metrics metrics of resolved types, may be empty
+     * @param writer output
+     * @param format output format
+     * @throws IOException if output cannot be written
+     */
+    public static void write(List<DependencyNode> nodes, Map<Class<?>, TypeMetrics> metrics,
+                             Writer writer, GraphFormat format)
+            throws IOException
+    {
+        switch(format)
+        {
+            case DOT -> writeDot(nodes, metrics, writer);
+            case JSON -> writeJson(nodes, metrics, writer);
+        }
+
+        writer.flush();
+    }
+
+    private static void writeDot(List<DependencyNode> nodes, Map<Class<?>, TypeMetrics> metrics,
+                                 Writer writer)
+            throws IOException
+    {
+        writer.write("digraph yadic {\n");
+
+        for(DependencyNode node : nodes)
+        {
+            StringBuilder label = new StringBuilder(node.type().getSimpleName());
+
+            if(node.concreteType() == null)
+                label.append("\\nunresolvable");
+            else
+            {
+                if(node.concreteType() != node.type())
+                    label.append("\\n-> ").append(node.concreteType().getSimpleName());
+
+                label.append("\\n").append(node.policy());
+            }
+
+            TypeMetrics typeMetrics = metrics.get(node.type());
+
+            if(typeMetrics != null)
+                label.append(String.format("\\nconstructions: %d, time: %d ns",
+                                           typeMetrics.constructionCount(),
+                                           constructionNanos(typeMetrics)));
+
+            writer.write(String.format("  \"%s\" [label=\"%s\"];\n",
+                                       escape(node.type().getName()), label));
+        }
+
+        for(DependencyNode node : nodes)
+        {
+            for(Class<?> dependency : node.constructorDependencies())
+                writer.write(String.format("  \"%s\" -> \"%s\" [label=\"%s\"];\n",
+                                           escape(node.type().getName()),
+                                           escape(dependency.getName()), CONSTRUCTOR));
+
+            for(Class<?> dependency : node.setterDependencies())
+                writer.write(String.format("  \"%s\" -> \"%s\" [label=\"%s\", style=dashed];\n",
+                                           escape(node.type().getName()),
+                                           escape(dependency.getName()), SETTER));
+        }
+
+        writer.write("}\n");
+    }
+
+    private static void writeJson(List<DependencyNode> nodes, Map<Class<?>, TypeMetrics> metrics,
+                                  Writer writer)
+            throws IOException
+    {
+        writer.write("{\"nodes\":[");
+
+        for(int i = 0; i < nodes.size(); ++i)
+        {
+            DependencyNode node = nodes.get(i);
+            TypeMetrics typeMetrics = metrics.get(node.type());
+
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write(String.format("{\"type\":%s,\"concreteType\":%s,\"policy\":%s",
+                                       quoted(node.type().getName()),
+                                       quoted(node.concreteType() == null
+                                              ? null : node.concreteType().getName()),
+                                       quoted(node.policy())));
+
+            if(typeMetrics != null)
+                writer.write(String.format(
+                        ",\"resolves\":%d,\"constructions\":%d,\"singletonHits\":%d"
+                                + ",\"constructionNanos\":%d", typeMetrics.resolveCount(),
+                        typeMetrics.constructionCount(), typeMetrics.singletonHits(),
+                        constructionNanos(typeMetrics)));
+
+            writer.write("}");
+        }
+
+        writer.write("\n],\"edges\":[");
+
+        boolean first = true;
+
+        for(DependencyNode node : nodes)
+        {
+            for(Class<?> dependency : node.constructorDependencies())
+            {
+                writeJsonEdge(node.type(), dependency, CONSTRUCTOR, first, writer);
+                first = false;
+            }
+
+            for(Class<?> dependency : node.setterDependencies())
+            {
+                writeJsonEdge(node.type(), dependency, SETTER, first, writer);
+                first = false;
+            }
+        }
+
+        writer.write("\n]}\n");
+    }
+
+    private static void writeJsonEdge(Class<?> from, Class<?> to, String kind, boolean first,
+                                      Writer writer)
+            throws IOException
+    {
+        writer.write(first ? "\n" : ",\n");
+        writer.write(String.format("{\"from\":\"%s\",\"to\":\"%s\",\"kind\":\"%s\"}",
+                                   escape(from.getName()), escape(to.getName()), kind));
+    }
+
+    private static long constructionNanos(TypeMetrics typeMetrics)
+    {
+        return typeMetrics.constructorTime().totalNanos()
+                + typeMetrics.overheadTime().totalNanos();
+    }
+
+    private static String quoted(Object value)
+    {
+        return value == null ? "null" : "\"" + escape(value.toString()) + "\"";
+    }
+
+    private static String escape(String text)
+    {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,88 @@
+package yadic.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+import yadic.ConstructionPolicy;
+
+/**
+ * Index of types annotated with {@code @Register} or {@code @SelfRegister}, generated at compile
+ * time by {@link BindingIndexProcessor}. Each line of the index holds the annotated type, its
+ * registered subtype and construction policy, separated by spaces.
+ */
+public final class BindingIndex
+{
+    /** Location of the index in class output and jars. */
+    public static final String RESOURCE = "META-INF/yadic/bindings.idx";
+    static final String HEADER = "# yadic binding index";
+
+    private BindingIndex()
+    {
+    }
+
+    /**
+     * Read all binding indices visible to given class loader.
+     * @param classLoader class loader of indices
+     * @return bindings from all indices
+     * @throws IOException if any index cannot be read
+     */
+    public static List<Binding> read(ClassLoader classLoader)
+            throws IOException
+    {
+        List<Binding> bindings = new ArrayList<>();
+        Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+
+        while(resources.hasMoreElements())
+            read(resources.nextElement(), bindings);
+
+        return bindings;
+    }
+
+    static String format(Binding binding)
+    {
+        return String.join(" ", binding.typename(), binding.subtypeName(),
+                           binding.policy().name());
+    }
+
+    private static void read(URL resource, List<Binding> bindings)
+            throws IOException
+    {
+        try(BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8)))
+        {
+            String line;
+
+            while((line = reader.readLine()) != null)
+            {
+                if(line.isBlank() || line.startsWith("#"))
+                    continue;
+
+                String[] parts = line.trim().split(" ");
+
+                if(parts.length != 3)
+                    throw new IOException(
+                            String.format("Incorrect line in binding index %s: %s", resource,
+                                          line));
+
+                bindings.add(new Binding(parts[0], parts[1], ConstructionPolicy.valueOf(parts[2])));
+            }
+        }
+    }
+
+    /**
+     * Binding of annotated type.
+     * @param typename binary name of annotated type
+     * @param subtypeName binary name of registered subtype, same as annotated type for
+     * {@code @SelfRegister}
+     * @param policy construction policy of instances
+     */
+    public record Binding(String typename, String subtypeName, ConstructionPolicy policy)
+    {
+    }
+}
@@ -0,0 +1,202 @@
+package yadic.index;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import yadic.ConstructionPolicy;
+import yadic.annotation.Register;
+import yadic.annotation.SelfRegister;
+
+/**
+ * Annotation processor that validates types annotated with {@link Register} or
+ * {@link SelfRegister} and writes them to {@link BindingIndex#RESOURCE}. Enable it with
+ * {@code -processor yadic.index.BindingIndexProcessor}.
+ */
+public final class BindingIndexProcessor
+        extends AbstractProcessor
+{
+    private static final String EXPIRING_MESSAGE =
+            "Policy EXPIRING of type %s requires time to live and cannot be set in annotation";
+    private final List<BindingIndex.Binding> bindings = new ArrayList<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes()
+    {
+        return Set.of(Register.class.getName(), SelfRegister.class.getName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+    {
+        if(roundEnv.processingOver())
+        {
+            writeIndex();
+            return false;
+        }
+
+        for(Element element : roundEnv.getElementsAnnotatedWith(Register.class))
+            addRegister((TypeElement)element);
+
+        for(Element element : roundEnv.getElementsAnnotatedWith(SelfRegister.class))
+            addSelfRegister((TypeElement)element);
+
+        return false;
+    }
+
+    private void addRegister(TypeElement type)
+    {
+        AnnotationMirror annotation = findAnnotation(type, Register.class);
+        TypeElement subtype = null;
+        ConstructionPolicy policy = ConstructionPolicy.CONSTRUCTION;
+
+        for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : annotation.getElementValues().entrySet())
+            switch(entry.getKey().getSimpleName().toString())
+            {
+                case "value" -> subtype = asTypeElement((TypeMirror)entry.getValue().getValue());
+                case "policy" -> policy = ConstructionPolicy.valueOf(
+                        entry.getValue().getValue().toString());
+                default ->
+                {
+                }
+            }
+
+        if(subtype == null)
+            return;
+
+        Types types = processingEnv.getTypeUtils();
+
+        if(!types.isAssignable(types.erasure(subtype.asType()), types.erasure(type.asType())))
+            error(type, "Type %s registered via @Register is not derived type of %s",
+                  subtype.getQualifiedName(), type.getQualifiedName());
+        else if(isAbstract(subtype))
+            error(type, "Type %s registered via @Register in %s is abstract",
+                  subtype.getQualifiedName(), type.getQualifiedName());
+        else if(policy == ConstructionPolicy.EXPIRING)
+            error(type, EXPIRING_MESSAGE, type.getQualifiedName());
+        else
+            bindings.add(new BindingIndex.Binding(binaryName(type), binaryName(subtype), policy));
+    }
+
+    private void addSelfRegister(TypeElement type)
+    {
+        if(isAbstract(type))
+        {
+            error(type, "Abstract type %s cannot be annotated with @SelfRegister",
+                  type.getQualifiedName());
+            return;
+        }
+
+        ConstructionPolicy policy = ConstructionPolicy.CONSTRUCTION;
+
+        for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : findAnnotation(type, SelfRegister.class).getElementValues().entrySet())
+            if(entry.getKey().getSimpleName().contentEquals("policy"))
+                policy = ConstructionPolicy.valueOf(entry.getValue().getValue().toString());
+
+        if(policy == ConstructionPolicy.EXPIRING)
+        {
+            error(type, EXPIRING_MESSAGE, type.getQualifiedName());
+            return;
+        }
+
+        String name = binaryName(type);
+
+        bindings.add(new BindingIndex.Binding(name, name, policy));
+    }
+
+    private void writeIndex()
+    {
+        if(bindings.isEmpty())
+            return;
+
+        try
+        {
+            FileObject resource = processingEnv.getFiler()
+                                               .createResource(StandardLocation.CLASS_OUTPUT, "",
+                                                               BindingIndex.RESOURCE);
+
+            try(Writer writer = resource.openWriter())
+            {
+                writer.write(BindingIndex.HEADER);
+                writer.write('\n');
+
+                for(BindingIndex.Binding binding : bindings)
+                {
+                    writer.write(BindingIndex.format(binding));
+                    writer.write('\n');
+                }
+            }
+        }
+        catch(IOException e)
+        {
+            processingEnv.getMessager()
+                         .printMessage(Diagnostic.Kind.ERROR,
+                                       "Could not write binding index: " + e.getMessage());
+        }
+    }
+
+    private AnnotationMirror findAnnotation(TypeElement type, Class<?> annotationClass)
+    {
+        for(AnnotationMirror annotation : type.getAnnotationMirrors())
+        {
+            Element annotationType = annotation.getAnnotationType().asElement();
+
+            if(((TypeElement)annotationType).getQualifiedName()
+                                            .contentEquals(annotationClass.getName()))
+                return annotation;
+        }
+
+        throw new IllegalStateException("No annotation " + annotationClass.getName());
+    }
+
+    private TypeElement asTypeElement(TypeMirror type)
+    {
+        return (TypeElement)((DeclaredType)type).asElement();
+    }
+
+    private boolean isAbstract(TypeElement type)
+    {
+        return type.getKind() == ElementKind.INTERFACE
+                || type.getKind() == ElementKind.ANNOTATION_TYPE
+                || type.getModifiers().contains(Modifier.ABSTRACT);
+    }
+
+    private String binaryName(TypeElement type)
+    {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private void error(Element element, String format, Object... arguments)
+    {
+        processingEnv.getMessager()
+                     .printMessage(Diagnostic.Kind.ERROR, String.format(format, arguments),
+                                   element);
+    }
+}
@@ -0,0 +1,262 @@
+package yadic.index;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import yadic.ConstructionPolicy;
+
+/**
+ * Minimal reader of class files that finds {@code @Register} or {@code @SelfRegister} in class
+ * attributes without loading the class. Class files without any of these annotation descriptors
+ * in their constant pool are rejected right after reading the pool.
+ */
+final class ClassFileReader
+{
+    static final String REGISTER_DESCRIPTOR = "Lyadic/annotation/Register;";
+    static final String SELF_REGISTER_DESCRIPTOR = "Lyadic/annotation/SelfRegister;";
+    private static final String POLICY_DESCRIPTOR = "Lyadic/ConstructionPolicy;";
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String ANNOTATIONS_ATTRIBUTE = "RuntimeVisibleAnnotations";
+
+    private final ByteBuffer buffer;
+    private String[] utf8s;
+    private int[] classNames;
+    private AnnotationValues register;
+    private AnnotationValues selfRegister;
+
+    private ClassFileReader(byte[] bytes)
+    {
+        buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Read binding of annotated type from class file.
+     * @param bytes content of class file
+     * @return binding of the class, or {@code null} if class is not annotated or not a class file
+     */
+    static BindingIndex.Binding read(byte[] bytes)
+    {
+        try
+        {
+            return new ClassFileReader(bytes).read();
+        }
+        catch(RuntimeException e)
+        {
+            // malformed class file
+            return null;
+        }
+    }
+
+    private BindingIndex.Binding read()
+    {
+        if(buffer.getInt() != MAGIC)
+            return null;
+
+        buffer.position(buffer.position() + 4);
+
+        if(!readConstantPool())
+            return null;
+
+        buffer.position(buffer.position() + 2);
+
+        String typename = className(buffer.getShort());
+
+        buffer.position(buffer.position() + 2);
+        skip(2 * unsignedShort());
+        skipMembers();
+        skipMembers();
+        readAnnotations();
+
+        if(register != null && register.subtypeName != null)
+            return new BindingIndex.Binding(typename, register.subtypeName, register.policy);
+
+        if(selfRegister != null)
+            return new BindingIndex.Binding(typename, typename, selfRegister.policy);
+
+        return null;
+    }
+
+    private boolean readConstantPool()
+    {
+        int count = unsignedShort();
+        boolean annotated = false;
+
+        utf8s = new String[count];
+        classNames = new int[count];
+
+        for(int i = 1; i < count; ++i)
+        {
+            int tag = buffer.get();
+
+            switch(tag)
+            {
+                case 1 ->
+                {
+                    int length = unsignedShort();
+
+                    utf8s[i] = new String(buffer.array(), buffer.position(), length,
+                                          StandardCharsets.UTF_8);
+                    skip(length);
+                    annotated |= utf8s[i].equals(REGISTER_DESCRIPTOR)
+                            || utf8s[i].equals(SELF_REGISTER_DESCRIPTOR);
+                }
+                case 7 -> classNames[i] = unsignedShort();
+                case 8, 16, 19, 20 -> skip(2);
+                case 15 -> skip(3);
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> skip(4);
+                case 5, 6 ->
+                {
+                    skip(8);
+                    ++i;
+                }
+                default -> throw new IllegalArgumentException("Unknown constant tag " + tag);
+            }
+        }
+
+        return annotated;
+    }
+
+    private void skipMembers()
+    {
+        int count = unsignedShort();
+
+        for(int i = 0; i < count; ++i)
+        {
+            skip(6);
+            skipAttributes();
+        }
+    }
+
+    private void skipAttributes()
+    {
+        int count = unsignedShort();
+
+        for(int i = 0; i < count; ++i)
+        {
+            skip(2);
+            skip(buffer.getInt());
+        }
+    }
+
+    private void readAnnotations()
+    {
+        int count = unsignedShort();
+
+        for(int i = 0; i < count; ++i)
+        {
+            String name = utf8s[unsignedShort()];
+            int length = buffer.getInt();
+
+            if(!ANNOTATIONS_ATTRIBUTE.equals(name))
+            {
+                skip(length);
+                continue;
+            }
+
+            int annotations = unsignedShort();
+
+            for(int j = 0; j < annotations; ++j)
+                readAnnotation();
+        }
+    }
+
+    private void readAnnotation()
+    {
+        String descriptor = utf8s[unsignedShort()];
+        int pairs = unsignedShort();
+
+        if(!REGISTER_DESCRIPTOR.equals(descriptor) && !SELF_REGISTER_DESCRIPTOR.equals(descriptor))
+        {
+            for(int i = 0; i < pairs; ++i)
+            {
+                skip(2);
+                skipElementValue(buffer.get());
+            }
+
+            return;
+        }
+
+        AnnotationValues values = new AnnotationValues();
+
+        for(int i = 0; i < pairs; ++i)
+        {
+            String name = utf8s[unsignedShort()];
+            int tag = buffer.get();
+
+            if(tag == 'c' && "value".equals(name))
+                values.subtypeName = typename(utf8s[unsignedShort()]);
+            else if(tag == 'e' && "policy".equals(name))
+                readPolicy(values);
+            else
+                skipElementValue(tag);
+        }
+
+        if(REGISTER_DESCRIPTOR.equals(descriptor))
+            register = values;
+        else
+            selfRegister = values;
+    }
+
+    private void readPolicy(AnnotationValues values)
+    {
+        String enumDescriptor = utf8s[unsignedShort()];
+        String constant = utf8s[unsignedShort()];
+
+        if(POLICY_DESCRIPTOR.equals(enumDescriptor))
+            values.policy = ConstructionPolicy.valueOf(constant);
+    }
+
+    private void skipElementValue(int tag)
+    {
+        switch(tag)
+        {
+            case 'e' -> skip(4);
+            case '@' ->
+            {
+                skip(2);
+
+                int pairs = unsignedShort();
+
+                for(int i = 0; i < pairs; ++i)
+                {
+                    skip(2);
+                    skipElementValue(buffer.get());
+                }
+            }
+            case '[' ->
+            {
+                int count = unsignedShort();
+
+                for(int i = 0; i < count; ++i)
+                    skipElementValue(buffer.get());
+            }
+            default -> skip(2);
+        }
+    }
+
+    private String className(int index)
+    {
+        return utf8s[classNames[index & 0xFFFF]].replace('/', '.');
+    }
+
+    private static String typename(String descriptor)
+    {
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private int unsignedShort()
+    {
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    private void skip(int length)
+    {
+        buffer.position(buffer.position() + length);
+    }
+
+    private static final class AnnotationValues
+    {
+        String subtypeName;
+        ConstructionPolicy policy = ConstructionPolicy.CONSTRUCTION;
+    }
+}
@@ -0,0 +1,126 @@
+package yadic.index;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Scanner finding types annotated with {@code @Register} or {@code @SelfRegister} in packages
+ * and their subpackages by reading class files from directories and jars. Class files are read
+ * in parallel and no class is loaded.
+ */
+public final class ClassPathScanner
+{
+    private static final String CLASS_SUFFIX = ".class";
+
+    private ClassPathScanner()
+    {
+    }
+
+    /**
+     * Scan given packages visible to given class loader.
+     * @param classLoader class loader of packages
+     * @param packages names of packages
+     * @return bindings of annotated types, each type once
+     * @throws IOException if any class file cannot be read
+     */
+    public static List<BindingIndex.Binding> scan(ClassLoader classLoader, String... packages)
+            throws IOException
+    {
+        Map<Path, FileSystem> jars = new HashMap<>();
+
+        try
+        {
+            List<Path> classFiles = new ArrayList<>();
+
+            for(String packageName : packages)
+            {
+                Enumeration<URL> roots = classLoader.getResources(packageName.replace('.', '/'));
+
+                while(roots.hasMoreElements())
+                    classFiles.addAll(listClassFiles(roots.nextElement(), jars));
+            }
+
+            Map<String, BindingIndex.Binding> bindings = new LinkedHashMap<>();
+
+            classFiles.parallelStream()
+                      .map(ClassPathScanner::readBinding)
+                      .filter(Objects::nonNull)
+                      .toList()
+                      .forEach(binding -> bindings.putIfAbsent(binding.typename(), binding));
+            return List.copyOf(bindings.values());
+        }
+        catch(UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+        finally
+        {
+            for(FileSystem jar : jars.values())
+                jar.close();
+        }
+    }
+
+    private static List<Path> listClassFiles(URL root, Map<Path, FileSystem> jars)
+            throws IOException
+    {
+        Path directory;
+
+        try
+        {
+            if("jar".equals(root.getProtocol()))
+            {
+                JarURLConnection connection = (JarURLConnection)root.openConnection();
+                Path jarFile = Path.of(connection.getJarFileURL().toURI());
+                FileSystem jar = jars.get(jarFile);
+
+                if(jar == null)
+                {
+                    jar = FileSystems.newFileSystem(jarFile);
+                    jars.put(jarFile, jar);
+                }
+
+                directory = jar.getPath(connection.getEntryName());
+            }
+            else if("file".equals(root.getProtocol()))
+                directory = Path.of(root.toURI());
+            else
+                return List.of();
+        }
+        catch(URISyntaxException e)
+        {
+            throw new IOException(e);
+        }
+
+        try(Stream<Path> files = Files.walk(directory))
+        {
+            return files.filter(file -> file.toString().endsWith(CLASS_SUFFIX)).toList();
+        }
+    }
+
+    private static BindingIndex.Binding readBinding(Path classFile)
+    {
+        try
+        {
+            return ClassFileReader.read(Files.readAllBytes(classFile));
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package yadic.listener;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import yadic.ConstructionPolicy;
+import yadic.DiException;
+
+final class CompositeListener
+        implements ResolutionListener
+{
+    private final ResolutionListener[] listeners;
+
+    private CompositeListener(ResolutionListener[] listeners)
+    {
+        this.listeners = listeners;
+    }
+
+    static ResolutionListener of(ResolutionListener... listeners)
+    {
+        List<ResolutionListener> active = new ArrayList<>();
+
+        for(ResolutionListener listener : listeners)
+            if(listener instanceof CompositeListener composite)
+                active.addAll(Arrays.asList(composite.listeners));
+            else if(listener != NONE)
+                active.add(Objects.requireNonNull(listener));
+
+        return switch(active.size())
+        {
+            case 0 -> NONE;
+            case 1 -> active.get(0);
+            default -> new CompositeListener(active.toArray(ResolutionListener[]::new));
+        };
+    }
+
+    @Override
+    public void beforeConstruct(Class<?> type, ConstructionPolicy policy, int depth)
+    {
+        for(ResolutionListener listener : listeners)
+            listener.beforeConstruct(type, policy, depth);
+    }
+
+    @Override
+    public void afterConstruct(
+            Class<?> type, ConstructionPolicy policy, int depth, long elapsedNanos)
+    {
+        for(ResolutionListener listener : listeners)
+            listener.afterConstruct(type, policy, depth, elapsedNanos);
+    }
+
+    @Override
+    public void singletonCreated(
+            Class<?> type, ConstructionPolicy policy, Object instance, int depth,
+            long elapsedNanos)
+    {
+        for(ResolutionListener listener : listeners)
+            listener.singletonCreated(type, policy, instance, depth, elapsedNanos);
+    }
+
+    @Override
+    public void setterInjected(
+            Class<?> type, ConstructionPolicy policy, Method setter, int depth, long elapsedNanos)
+    {
+        for(ResolutionListener listener : listeners)
+            listener.setterInjected(type, policy, setter, depth, elapsedNanos);
+    }
+
+    @Override
+    public void resolutionFailed(
+            Class<?> type, ConstructionPolicy policy, int depth, long elapsedNanos,
+            DiException exception)
+    {
+        for(ResolutionListener listener : listeners)
+            listener.resolutionFailed(type, policy, depth, elapsedNanos, exception);
+    }
+}
@@ -0,0 +1,93 @@
+package yadic.listener;
+
+import java.lang.reflect.Method;
+
+import yadic.ConstructionPolicy;
+import yadic.DiException;
+
+/**
+ * Receives events of resolving types. All methods do nothing by default. Depth is the position of
+ * type on the resolution path, which is 1 for the requested type. A container created without
+ * listeners and metrics measures no time, and only checks one flag of its own at each step.
+ */
+public interface ResolutionListener
+{
+    /** Listener that ignores all events, used when no listener is registered. */
+    ResolutionListener NONE = new ResolutionListener()
+    {
+    };
+
+    /**
+     * Combine listeners into one that notifies them in given order.
+     * @param listeners the listeners
+     * @return combined listener
+     */
+    static ResolutionListener compose(ResolutionListener... listeners)
+    {
+        return CompositeListener.of(listeners);
+    }
+
+    /**
+     * Called before constructing a new instance of type.
+     * @param type requested type
+     * @param policy construction policy
+     * @param depth depth on resolution path
+     */
+    default void beforeConstruct(Class<?> type, ConstructionPolicy policy, int depth)
+    {
+    }
+
+    /**
+     * Called after constructing a new instance of type, including resolving its constructor
+     * dependencies.
+     * @param type requested type
+     * @param policy construction policy
+     * @param depth depth on resolution path
+     * @param elapsedNanos construction time
+     */
+    default void afterConstruct(
+            Class<?> type, ConstructionPolicy policy, int depth, long elapsedNanos)
+    {
+    }
+
+    /**
+     * Called when a new singleton is stored.
+     * @param type requested type
+     * @param policy construction policy
+     * @param instance the singleton
+     * @param depth depth on resolution path
+     * @param elapsedNanos construction time
+     */
+    default void singletonCreated(
+            Class<?> type, ConstructionPolicy policy, Object instance, int depth,
+            long elapsedNanos)
+    {
+    }
+
+    /**
+     * Called after a dependency setter was invoked.
+     * @param type type of instance
+     * @param policy construction policy of resolved type, or {@code null} if unknown
+     * @param setter the setter
+     * @param depth depth on resolution path
+     * @param elapsedNanos time of resolving setter dependency and invoking setter
+     */
+    default void setterInjected(
+            Class<?> type, ConstructionPolicy policy, Method setter, int depth, long elapsedNanos)
+    {
+    }
+
+    /**
+     * Called when resolving type failed with an exception.
+     * @param type requested type
+     * @param policy construction policy, or {@code null} if type has no valid registration
+     * @param depth depth on resolution path
+     * @param elapsedNanos time until failure
+     * @param exception the failure
+     */
+    default void resolutionFailed(
+            Class<?> type, ConstructionPolicy policy, int depth, long elapsedNanos,
+            DiException exception)
+    {
+    }
+}
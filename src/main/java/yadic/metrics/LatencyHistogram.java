@@ -0,0 +1,71 @@
+package yadic.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of durations counted in fixed buckets. Bucket {@code i} counts durations shorter than
+ * {@link #upperBoundNanos(int)}, and the last bucket also counts all longer durations.
+ */
+public record LatencyHistogram(long[] counts, long totalNanos)
+{
+    public static final int BUCKETS = 24;
+    private static final int FIRST_BUCKET_SHIFT = 7;
+
+    public LatencyHistogram
+    {
+        counts = counts.clone();
+    }
+
+    /**
+     * @param bucket bucket index
+     * @return exclusive upper bound of durations counted in bucket, in nanoseconds
+     */
+    public static long upperBoundNanos(int bucket)
+    {
+        return 1L << (FIRST_BUCKET_SHIFT + bucket);
+    }
+
+    static int bucketOf(long nanos)
+    {
+        int bucket = 64 - Long.numberOfLeadingZeros(Math.max(nanos, 0) >>> FIRST_BUCKET_SHIFT);
+
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    @Override
+    public long[] counts()
+    {
+        return counts.clone();
+    }
+
+    public long count()
+    {
+        return Arrays.stream(counts).sum();
+    }
+
+    public double meanNanos()
+    {
+        long count = count();
+
+        return count == 0 ? 0.0 : (double)totalNanos / count;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        return obj instanceof LatencyHistogram other && totalNanos == other.totalNanos
+                && Arrays.equals(counts, other.counts);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * Arrays.hashCode(counts) + Long.hashCode(totalNanos);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("LatencyHistogram[count=%d, meanNanos=%.1f]", count(), meanNanos());
+    }
+}
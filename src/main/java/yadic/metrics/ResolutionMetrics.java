@@ -0,0 +1,119 @@
+package yadic.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/** Counters of resolutions per requested type, safe to update from many threads. */
+public final class ResolutionMetrics
+{
+    private final Map<Class<?>, TypeCounters> counters = new ConcurrentHashMap<>();
+
+    public void recordResolve(Class<?> type)
+    {
+        countersOf(type).resolves.increment();
+    }
+
+    public void recordSingletonHit(Class<?> type)
+    {
+        countersOf(type).singletonHits.increment();
+    }
+
+    /**
+     * Count construction of a new instance of given type.
+     * @param type requested type
+     * @param constructorNanos time spent inside user constructor
+     * @param overheadNanos time spent by container
+     */
+    public void recordConstruction(Class<?> type, long constructorNanos, long overheadNanos)
+    {
+        TypeCounters typeCounters = countersOf(type);
+
+        typeCounters.constructions.increment();
+        typeCounters.constructorTime.record(constructorNanos);
+        typeCounters.overheadTime.record(overheadNanos);
+    }
+
+    /**
+     * @return snapshot of metrics of all resolved types
+     */
+    public Map<Class<?>, TypeMetrics> snapshot()
+    {
+        Map<Class<?>, TypeMetrics> snapshot = new HashMap<>();
+
+        counters.forEach((type, typeCounters) -> snapshot.put(type, typeCounters.snapshot(type)));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * @param type requested type
+     * @return snapshot of metrics of given type
+     */
+    public TypeMetrics snapshot(Class<?> type)
+    {
+        return countersOf(type).snapshot(type);
+    }
+
+    /**
+     * Forget metrics of all types matching given predicate.
+     * @param predicate predicate of removed types
+     */
+    public void remove(Predicate<Class<?>> predicate)
+    {
+        counters.keySet().removeIf(predicate);
+    }
+
+    private TypeCounters countersOf(Class<?> type)
+    {
+        TypeCounters typeCounters = counters.get(type);
+
+        return typeCounters != null ? typeCounters
+                                    : counters.computeIfAbsent(type, t -> new TypeCounters());
+    }
+
+    private static final class TypeCounters
+    {
+        final LongAdder resolves = new LongAdder();
+        final LongAdder constructions = new LongAdder();
+        final LongAdder singletonHits = new LongAdder();
+        final HistogramCounters constructorTime = new HistogramCounters();
+        final HistogramCounters overheadTime = new HistogramCounters();
+
+        TypeMetrics snapshot(Class<?> type)
+        {
+            return new TypeMetrics(type, resolves.sum(), constructions.sum(), singletonHits.sum(),
+                                   constructorTime.snapshot(), overheadTime.snapshot());
+        }
+    }
+
+    private static final class HistogramCounters
+    {
+        final LongAdder[] buckets = new LongAdder[LatencyHistogram.BUCKETS];
+        final LongAdder totalNanos = new LongAdder();
+
+        HistogramCounters()
+        {
+            for(int i = 0; i < buckets.length; ++i)
+                buckets[i] = new LongAdder();
+        }
+
+        void record(long nanos)
+        {
+            buckets[LatencyHistogram.bucketOf(nanos)].increment();
+            totalNanos.add(nanos);
+        }
+
+        LatencyHistogram snapshot()
+        {
+            long[] counts = new long[buckets.length];
+
+            for(int i = 0; i < buckets.length; ++i)
+                counts[i] = buckets[i].sum();
+
+            return new LatencyHistogram(counts, totalNanos.sum());
+        }
+    }
+}
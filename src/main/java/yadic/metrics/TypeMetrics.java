@@ -0,0 +1,17 @@
+package yadic.metrics;
+
+/**
+ * Snapshot of resolution metrics of a single requested type.
+ * @param type requested type
+ * @param resolveCount number of resolutions of type, including resolutions as a dependency
+ * @param constructionCount number of new instances constructed
+ * @param singletonHits number of resolutions answered with a singleton or registered instance
+ * @param constructorTime time spent inside user constructors
+ * @param overheadTime time spent by container when constructing, excluding user constructors and
+ * resolving dependencies
+ */
+public record TypeMetrics(Class<?> type, long resolveCount, long constructionCount,
+                          long singletonHits, LatencyHistogram constructorTime,
+                          LatencyHistogram overheadTime)
+{
+}
@@ -0,0 +1,85 @@
+package yadic.profile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import yadic.ConstructionPolicy;
+import yadic.listener.ResolutionListener;
+
+/**
+ * Records which types are constructed, in what order and how often, during given time window
+ * since the recorder was created. Events after the window are ignored.
+ */
+public final class ProfileRecorder
+        implements ResolutionListener
+{
+    private final long deadlineNanos;
+    private final AtomicInteger nextOrder = new AtomicInteger();
+    private final Map<Class<?>, Record> records = new ConcurrentHashMap<>();
+    private volatile boolean recording = true;
+
+    public ProfileRecorder(Duration window)
+    {
+        deadlineNanos = System.nanoTime() + window.toNanos();
+    }
+
+    @Override
+    public void afterConstruct(
+            Class<?> type, ConstructionPolicy policy, int depth, long elapsedNanos)
+    {
+        if(!recording)
+            return;
+
+        if(System.nanoTime() - deadlineNanos > 0)
+        {
+            recording = false;
+            return;
+        }
+
+        records.computeIfAbsent(type, t -> new Record(nextOrder.getAndIncrement())).count
+                .increment();
+    }
+
+    /**
+     * @return profile of types recorded so far
+     */
+    public ResolutionProfile profile()
+    {
+        return new ResolutionProfile(records.entrySet()
+                                            .stream()
+                                            .sorted(Comparator.comparingInt(
+                                                    e -> e.getValue().order))
+                                            .map(e -> new ResolutionProfile.Entry(
+                                                    e.getKey().getName(),
+                                                    e.getValue().count.sum()))
+                                            .toList());
+    }
+
+    /**
+     * Write profile of types recorded so far to file.
+     * @param file profile file
+     * @throws IOException if file cannot be written
+     */
+    public void write(Path file)
+            throws IOException
+    {
+        profile().write(file);
+    }
+
+    private static final class Record
+    {
+        final int order;
+        final LongAdder count = new LongAdder();
+
+        Record(int order)
+        {
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package yadic.profile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Types resolved by a process in order of their first construction, with numbers of
+ * constructions. Profiles are stored in a compact binary file.
+ */
+public final class ResolutionProfile
+{
+    private static final int MAGIC = 0x59414450;
+    private static final int VERSION = 1;
+    private final List<Entry> entries;
+
+    public ResolutionProfile(List<Entry> entries)
+    {
+        this.entries = List.copyOf(entries);
+    }
+
+    /**
+     * Read profile from file.
+     * @param file profile file
+     * @return the profile
+     * @throws IOException if file cannot be read or is not a profile
+     */
+    public static ResolutionProfile read(Path file)
+            throws IOException
+    {
+        try(DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file))))
+        {
+            if(input.readInt() != MAGIC || input.readInt() != VERSION)
+                throw new IOException(String.format("File %s is not a resolution profile", file));
+
+            int size = input.readInt();
+            List<Entry> entries = new ArrayList<>(size);
+
+            for(int i = 0; i < size; ++i)
+                entries.add(new Entry(input.readUTF(), input.readLong()));
+
+            return new ResolutionProfile(entries);
+        }
+    }
+
+    public List<Entry> entries()
+    {
+        return entries;
+    }
+
+    /**
+     * Write profile to file.
+     * @param file profile file
+     * @throws IOException if file cannot be written
+     */
+    public void write(Path file)
+            throws IOException
+    {
+        try(DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file))))
+        {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(entries.size());
+
+            for(Entry entry : entries)
+            {
+                output.writeUTF(entry.typename());
+                output.writeLong(entry.count());
+            }
+        }
+    }
+
+    /**
+     * Load classes of profiled types, skipping types that no longer exist.
+     * @param classLoader class loader of types
+     * @return classes in profile order
+     */
+    public List<Class<?>> loadTypes(ClassLoader classLoader)
+    {
+        List<Class<?>> types = new ArrayList<>(entries.size());
+
+        for(Entry entry : entries)
+            try
+            {
+                types.add(Class.forName(entry.typename(), false, classLoader));
+            }
+            catch(ClassNotFoundException | LinkageError e)
+            {
+                // type removed since profile was recorded
+            }
+
+        return types;
+    }
+
+    /**
+     * Profiled type.
+     * @param typename name of requested type
+     * @param count number of constructions
+     */
+    public record Entry(String typename, long count)
+    {
+    }
+}
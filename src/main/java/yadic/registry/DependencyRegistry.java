@@ -1,31 +1,318 @@
 package yadic.registry;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
 import yadic.ConstructionPolicy;
+import yadic.DiConfiguration;
+import yadic.DiException;
+import yadic.SingletonRetention;
+import yadic.index.BindingIndex;
+import yadic.index.ClassPathScanner;
+import yadic.registry.exception.InstanceCloseException;
+import yadic.registry.exception.NotDerivedTypeException;
 import yadic.registry.exception.RegistrationException;
 import yadic.registry.valuetypes.Instance;
+import yadic.registry.valuetypes.StagedBinding;
 import yadic.registry.valuetypes.TypeConstruction;
 
 public class DependencyRegistry
+        implements AutoCloseable
 {
-    private final TypesDictionary typesDictionary = new TypesDictionary();
-    private final InstancesDictionary instancesDictionary = new InstancesDictionary();
+    private final TypeSlots slots = new TypeSlots();
+    private final TypesDictionary typesDictionary;
+    private final InstancesDictionary instancesDictionary = new InstancesDictionary(slots);
+    private final ElementsDictionary elementsDictionary = new ElementsDictionary();
+    private final EntriesDictionary entriesDictionary = new EntriesDictionary();
+    private final Set<Class<?>> unresolvableTypes = ConcurrentHashMap.newKeySet();
+    private final SingletonGraph singletonGraph = new SingletonGraph();
+    private final AtomicLong version = new AtomicLong();
+    private final boolean detailedExceptions;
+    private final ClassLoader classLoader;
+    private final Executor executor;
+
+    public DependencyRegistry()
+    {
+        this(new DiConfiguration());
+    }
+
+    public DependencyRegistry(DiConfiguration configuration)
+    {
+        detailedExceptions = configuration.detailedExceptions();
+        classLoader = configuration.classLoader();
+        executor = configuration.executor();
+        typesDictionary = new TypesDictionary(slots, detailedExceptions, classLoader,
+                                              type -> invalidate(List.of(type)));
+    }
 
     public <T> void addType(Class<T> type, ConstructionPolicy policy)
     {
         validateRegisteredType(type);
         typesDictionary.insert(type, policy);
+        invalidate(List.of(type));
+        RegistryMutationEvent.emit("addType", type, null, policy);
     }
 
     public <T> void addType(Class<T> type, Class<? extends T> subtype, ConstructionPolicy policy)
     {
         validateRegisteredType(type);
         typesDictionary.insert(type, subtype, policy);
+        invalidate(List.of(type));
+        RegistryMutationEvent.emit("addType", type, subtype, policy);
+    }
+
+    /**
+     * Register type with {@link ConstructionPolicy#EXPIRING} policy, so its instance is rebuilt
+     * after given time.
+     * @param type type class
+     * @param timeToLive time after which instance is rebuilt
+     */
+    public <T> void addType(Class<T> type, Duration timeToLive)
+    {
+        validateRegisteredType(type);
+        typesDictionary.insertExpiring(type, null, timeToLive);
+        invalidate(List.of(type));
+        RegistryMutationEvent.emit("addType", type, null, ConstructionPolicy.EXPIRING);
+    }
+
+    /**
+     * Register subtype for type with {@link ConstructionPolicy#EXPIRING} policy, so its instance
+     * is rebuilt after given time.
+     * @param type type class
+     * @param subtype subtype class
+     * @param timeToLive time after which instance is rebuilt
+     */
+    public <T> void addType(Class<T> type, Class<? extends T> subtype, Duration timeToLive)
+    {
+        validateRegisteredType(type);
+        typesDictionary.insertExpiring(type, subtype, timeToLive);
+        invalidate(List.of(type));
+        RegistryMutationEvent.emit("addType", type, subtype, ConstructionPolicy.EXPIRING);
+    }
+
+    /**
+     * Register type with {@link ConstructionPolicy#SINGLETON} policy and given retention of its
+     * instance. Soft or weak singletons are rebuilt after garbage collector has cleared them.
+     * @param type type class
+     * @param retention retention of singleton
+     */
+    public <T> void addType(Class<T> type, SingletonRetention retention)
+    {
+        validateRegisteredType(type);
+        typesDictionary.insertRetained(type, null, retention);
+        invalidate(List.of(type));
+        RegistryMutationEvent.emit("addType", type, null, ConstructionPolicy.SINGLETON);
+    }
+
+    /**
+     * Register subtype for type with {@link ConstructionPolicy#SINGLETON} policy and given
+     * retention of its instance. Soft or weak singletons are rebuilt after garbage collector has
+     * cleared them.
+     * @param type type class
+     * @param subtype subtype class
+     * @param retention retention of singleton
+     */
+    public <T> void addType(Class<T> type, Class<? extends T> subtype,
+                            SingletonRetention retention)
+    {
+        validateRegisteredType(type);
+        typesDictionary.insertRetained(type, subtype, retention);
+        invalidate(List.of(type));
+        RegistryMutationEvent.emit("addType", type, subtype, ConstructionPolicy.SINGLETON);
+    }
+
+    /**
+     * Register subtype with given policy and append it to elements of type, which are injected
+     * together as {@code List}, {@code Set} or array of type. Subtype registered again keeps its
+     * position among elements.
+     * @param type element type class
+     * @param subtype subtype class
+     * @param policy construction policy of subtype instances
+     */
+    public <T> void addElement(Class<T> type, Class<? extends T> subtype,
+                               ConstructionPolicy policy)
+    {
+        validateRegisteredType(subtype);
+
+        if(!type.isAssignableFrom(subtype))
+            throw new NotDerivedTypeException(detailedExceptions,
+                                              "Type %s registered for %s is not its derived type",
+                                              subtype.getName(), type.getName());
+
+        typesDictionary.insert(subtype, policy);
+        elementsDictionary.insert(type, subtype);
+        invalidate(List.of(type, subtype));
+        RegistryMutationEvent.emit("addElement", type, subtype, policy);
+    }
+
+    /**
+     * Register subtype with given policy and put it under given key into entries of type, which
+     * are injected together as {@code Map} with values of type. Subtype under an equal key is
+     * replaced.
+     * @param type value type class
+     * @param key key of entry
+     * @param subtype subtype class
+     * @param policy construction policy of subtype instances
+     */
+    public <T> void addEntry(Class<T> type, Object key, Class<? extends T> subtype,
+                             ConstructionPolicy policy)
+    {
+        Objects.requireNonNull(key);
+        validateRegisteredType(subtype);
+
+        if(!type.isAssignableFrom(subtype))
+            throw new NotDerivedTypeException(detailedExceptions,
+                                              "Type %s registered for %s is not its derived type",
+                                              subtype.getName(), type.getName());
+
+        typesDictionary.insert(subtype, policy);
+        entriesDictionary.insert(type, key, subtype);
+        invalidate(List.of(type, subtype));
+        RegistryMutationEvent.emit("addEntry", type, subtype, policy);
+    }
+
+    /**
+     * Register subtype for type by their binary names, without loading any class. Subtype is
+     * loaded by the configured class loader when type is first resolved. Singletons of type
+     * already resolved and singletons depending on them are constructed again. Only the class of
+     * that name loaded by the configured class loader takes the registration.
+     * @param typename binary name of type
+     * @param subtypeName binary name of subtype
+     * @param policy construction policy of instances
+     */
+    public void addType(String typename, String subtypeName, ConstructionPolicy policy)
+    {
+        if(instancesDictionary.containsName(typename))
+            throw new RegistrationException(detailedExceptions,
+                                            "Type %s was registered with an instance", typename);
+
+        Set<Class<?>> replaced = typesDictionary.insertDeferred(typename, subtypeName, policy);
+
+        invalidate(replaced);
+
+        for(Class<?> type : replaced)
+            RegistryMutationEvent.emit("addType", type, null, policy);
+    }
+
+    /**
+     * Register all staged bindings at once. Bindings are validated in one pass against current
+     * registrations and each other before anything is inserted, so either all bindings are
+     * registered or none is.
+     * @param bindings staged bindings in order of staging
+     * @throws DiException if any binding is incorrect
+     */
+    public void install(List<StagedBinding> bindings)
+    {
+        int capacity = (int)(bindings.size() / 0.75f) + 1;
+        Map<Class<?>, TypeConstruction<?>> mappings = new LinkedHashMap<>(capacity);
+        Map<Class<?>, Object> instances = new LinkedHashMap<>(capacity);
+
+        for(StagedBinding binding : bindings)
+        {
+            Class<?> type = binding.type();
+
+            if(binding.isInstance())
+            {
+                validateRegisteredInstance(type);
+
+                if(mappings.containsKey(type))
+                    throw new RegistrationException(detailedExceptions,
+                                                    "Type %s was registered with another type",
+                                                    type.getSimpleName());
+
+                instances.put(type, binding.instance());
+            }
+            else
+            {
+                validateRegisteredType(type);
+
+                if(instances.containsKey(type))
+                    throw new RegistrationException(detailedExceptions,
+                                                    "Type %s was registered with an instance",
+                                                    type.getSimpleName());
+
+                mappings.put(type, typesDictionary.createMapping(type, binding.subtype(),
+                                                                 binding.policy()));
+            }
+        }
+
+        typesDictionary.insertAll(mappings);
+        instancesDictionary.insertAll(instances);
+        invalidate(bindings.stream().<Class<?>>map(StagedBinding::type).toList());
+
+        for(StagedBinding binding : bindings)
+            RegistryMutationEvent.emit("install", binding.type(), binding.subtype(),
+                                       binding.policy());
+    }
+
+    /**
+     * Register bindings from all binding indices visible to the configured class loader.
+     * Classes are loaded without initialization and not inspected for annotations.
+     * @throws RegistrationException if any index cannot be read or any class cannot be loaded
+     */
+    public void loadIndex()
+    {
+        try
+        {
+            addBindings(BindingIndex.read(classLoader));
+        }
+        catch(IOException e)
+        {
+            throw new RegistrationException(detailedExceptions, e,
+                                            "Binding index cannot be read: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Register types annotated with {@code @Register} or {@code @SelfRegister} found in class
+     * files of given packages and their subpackages visible to the configured class loader.
+     * @param packages names of packages
+     * @throws RegistrationException if any class file cannot be read or any class cannot be
+     * loaded
+     */
+    public void scan(String... packages)
+    {
+        try
+        {
+            addBindings(ClassPathScanner.scan(classLoader, packages));
+        }
+        catch(IOException e)
+        {
+            throw new RegistrationException(detailedExceptions, e,
+                                            "Packages cannot be scanned: %s", e.getMessage());
+        }
     }
 
     public <T> void addInstance(Class<T> type, T instance)
     {
         validateRegisteredInstance(type);
         instancesDictionary.insert(type, instance);
+        invalidate(List.of(type));
+        RegistryMutationEvent.emit("addInstance", type, instance.getClass(), null);
+    }
+
+    /**
+     * Register concrete instance of its type, which is closed with the registry if it is
+     * {@link AutoCloseable}.
+     * @param type type class
+     * @param instance concrete instance
+     */
+    public <T> void addOwnedInstance(Class<T> type, T instance)
+    {
+        addInstance(type, instance);
+        singletonGraph.addNode(type, instance);
     }
 
     public <T> TypeConstruction<? extends T> findType(Class<T> type)
@@ -35,9 +322,63 @@ public class DependencyRegistry
                : typesDictionary.find(type);
     }
 
+    /**
+     * Follow registrations from given type to its concrete type.
+     * @param type type class
+     * @return all types on the way, starting with given type and ending with concrete type
+     */
+    public List<Class<?>> findChain(Class<?> type)
+    {
+        if(instancesDictionary.contains(type))
+            return List.of(type);
+
+        List<Class<?>> chain = new ArrayList<>();
+
+        typesDictionary.find(type, chain);
+        return chain;
+    }
+
+    /**
+     * @param type type class
+     * @return {@code true} if concrete instance is registered for type, otherwise {@code false}
+     */
+    public boolean isInstance(Class<?> type)
+    {
+        return instancesDictionary.contains(type);
+    }
+
     public <T> Instance<T> findInstance(Class<T> type)
     {
-        return instancesDictionary.get(type).or(() -> typesDictionary.getSingleton(type));
+        return Instance.of(getInstance(type));
+    }
+
+    /**
+     * Get registered instance or already created singleton of given type.
+     * @param type type class
+     * @return instance, or {@code null} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getInstance(Class<T> type)
+    {
+        return (T)slots.get(type);
+    }
+
+    /**
+     * @param type element type class
+     * @return subtypes registered as elements of type, in order of registration
+     */
+    public List<Class<?>> findElements(Class<?> type)
+    {
+        return elementsDictionary.get(type);
+    }
+
+    /**
+     * @param type value type class
+     * @return subtypes registered as entries of type by their keys, in order of registration
+     */
+    public Map<Object, Class<?>> findEntries(Class<?> type)
+    {
+        return entriesDictionary.get(type);
     }
 
     public boolean contains(Class<?> type)
@@ -45,31 +386,263 @@ public class DependencyRegistry
         return typesDictionary.contains(type) || instancesDictionary.contains(type);
     }
 
-    public <T> void addSingleton(Class<T> type, T instance)
+    /**
+     * Store created instance as singleton if type is registered with singleton policy.
+     * @param type type class
+     * @param instance created instance
+     * @return instance to be used, which is the previously stored singleton if present
+     */
+    public <T> T addSingleton(Class<T> type, T instance)
+    {
+        T singleton = typesDictionary.insertSingleton(type, instance);
+
+        if(singleton == instance && slots.get(type) == instance
+                && !typesDictionary.isReclaimable(type))
+            singletonGraph.addNode(type, instance);
+
+        return singleton;
+    }
+
+    /**
+     * Count singletons with soft or weak retention cleared by garbage collector so far. Each
+     * cleared singleton is counted once, no matter whether it has been rebuilt since.
+     * @return numbers of cleared singletons for each type
+     */
+    public Map<Class<?>, Long> evictions()
+    {
+        return typesDictionary.evictions();
+    }
+
+    /**
+     * Replace stored instance of type registered with {@link ConstructionPolicy#EXPIRING} policy
+     * by its rebuilt instance, unless registrations changed or the expired instance is no longer
+     * stored since the rebuild started. Singletons built using the expired instance are dropped,
+     * so they are constructed again with the rebuilt one. The replaced instance is closed with
+     * the registry, or when it is replaced again if it is {@link AutoCloseable}, since its users
+     * had a whole time to live to finish with it.
+     * @param type type class
+     * @param expired instance being replaced
+     * @param instance rebuilt instance
+     * @param expectedVersion version of registrations when the rebuild started
+     * @return {@code true} if instance was replaced, {@code false} if rebuilt one is discarded
+     * @throws InstanceCloseException if an instance replaced before failed to close
+     */
+    public <T> boolean replaceSingleton(Class<T> type, T expired, T instance,
+                                        long expectedVersion)
+    {
+        if(version.get() != expectedVersion
+                || !typesDictionary.replaceSingleton(type, expired, instance))
+            return false;
+
+        invalidate(List.of(type));
+
+        if(!(singletonGraph.replaceNode(type, instance) instanceof AutoCloseable closeable))
+            return true;
+
+        try
+        {
+            closeable.close();
+        }
+        catch(Exception e)
+        {
+            throw new InstanceCloseException(detailedExceptions, e,
+                                             "Instance could not be closed: %s", e.getMessage());
+        }
+
+        return true;
+    }
+
+    /**
+     * Record that singleton of given type depends on given instance type, so it is closed
+     * before that instance.
+     * @param type singleton type class
+     * @param dependency type class of dependency instance
+     */
+    public void addDependency(Class<?> type, Class<?> dependency)
+    {
+        singletonGraph.addDependency(type, dependency);
+    }
+
+    /**
+     * Close all {@link AutoCloseable} singletons and owned instances, each after all singletons
+     * depending on it. Independent instances are closed in parallel on the configured executor.
+     * @throws InstanceCloseException if any instance failed to close, with other failures
+     * suppressed
+     */
+    @Override
+    public void close()
+    {
+        List<Exception> exceptions = singletonGraph.close(executor);
+
+        if(exceptions.isEmpty())
+            return;
+
+        InstanceCloseException exception = new InstanceCloseException(detailedExceptions,
+                exceptions.get(0), "Instance could not be closed: %s",
+                exceptions.get(0).getMessage());
+
+        exceptions.stream().skip(1).forEach(exception::addSuppressed);
+        throw exception;
+    }
+
+    /**
+     * Remove all registrations, singletons and instances of classes loaded by given class loader
+     * or its descendants, also when registered for types of other class loaders. Singletons
+     * depending on removed instances are removed too and will be constructed again. Removed
+     * instances are not closed.
+     * @param loader class loader
+     */
+    public void evict(ClassLoader loader)
+    {
+        Predicate<Class<?>> evicted = type -> isLoadedBy(type, loader);
+        Set<Class<?>> released = new HashSet<>(instancesDictionary.evict(evicted));
+
+        released.addAll(typesDictionary.evict(evicted));
+        released.addAll(slots.evict(evicted));
+        released.addAll(elementsDictionary.evict(evicted));
+        released.addAll(entriesDictionary.evict(evicted));
+
+        for(Class<?> type : singletonGraph.evict(evicted.or(released::contains)))
+            if(!instancesDictionary.contains(type))
+                slots.clear(type);
+
+        version.incrementAndGet();
+        unresolvableTypes.removeIf(evicted);
+    }
+
+    /**
+     * @return number of changes of registrations so far, for detecting stale analyses
+     */
+    public long version()
+    {
+        return version.get();
+    }
+
+    /**
+     * @return all types registered with types, including annotated types already looked up
+     */
+    public Set<Class<?>> registeredTypes()
+    {
+        return typesDictionary.types();
+    }
+
+    /**
+     * Check whether given class was loaded by given class loader or any of its descendants.
+     * Arrays are checked by their element classes.
+     * @param type type class
+     * @param loader class loader
+     * @return {@code true} if class belongs to class loader, otherwise {@code false}
+     */
+    public static boolean isLoadedBy(Class<?> type, ClassLoader loader)
+    {
+        Class<?> elementType = type;
+
+        while(elementType.isArray())
+            elementType = elementType.getComponentType();
+
+        for(ClassLoader current = elementType.getClassLoader(); current != null;
+                current = current.getParent())
+            if(current == loader)
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Check whether given type is known to be unresolvable with current registrations. Checking
+     * does not throw any exceptions.
+     * @param type type class
+     * @return {@code true} if type certainly cannot be resolved, otherwise {@code false}
+     */
+    public boolean isUnresolvable(Class<?> type)
+    {
+        if(unresolvableTypes.contains(type))
+            return true;
+
+        if(!contains(type) && TypesUtils.isAbstractReferenceType(type))
+        {
+            unresolvableTypes.add(type);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Remember that given type cannot be resolved until the next registration.
+     * @param type type class
+     */
+    public void markUnresolvable(Class<?> type)
     {
-        typesDictionary.insertSingleton(type, instance);
+        unresolvableTypes.add(type);
+    }
+
+    private void addBindings(List<BindingIndex.Binding> bindings)
+    {
+        List<Class<?>> types = new ArrayList<>(bindings.size());
+
+        for(BindingIndex.Binding binding : bindings)
+        {
+            Class<?> type = typesDictionary.loadClass(binding.typename());
+            Class<?> subtype = binding.subtypeName().equals(binding.typename())
+                               ? type : typesDictionary.loadClass(binding.subtypeName());
+
+            validateRegisteredType(type);
+            typesDictionary.insertIndexed(type, subtype, binding.policy());
+            types.add(type);
+            RegistryMutationEvent.emit("addType", type, subtype, binding.policy());
+        }
+
+        invalidate(types);
+    }
+
+    /**
+     * Drop singletons built using previous registrations of given types, directly or
+     * transitively, so they are constructed again with current ones. Types registered with
+     * given types on their chains of registrations are changed too. Types known to be
+     * unresolvable are forgotten too.
+     * @param types changed types
+     */
+    private void invalidate(Collection<Class<?>> types)
+    {
+        Set<Class<?>> chained = typesDictionary.chainedTo(types);
+        Set<Class<?>> changed = new HashSet<>(types);
+
+        changed.addAll(chained);
+
+        for(Class<?> type : chained)
+            if(!instancesDictionary.contains(type))
+                slots.clear(type);
+
+        for(Class<?> dependent : singletonGraph.dependents(changed))
+            if(!instancesDictionary.contains(dependent))
+                slots.clear(dependent);
+
+        version.incrementAndGet();
+        unresolvableTypes.clear();
     }
 
     private <T> void validateRegisteredType(Class<T> type)
     {
         if(type.isPrimitive())
-            throw new RegistrationException("Cannot register a primitive type");
+            throw new RegistrationException(detailedExceptions, "Cannot register a primitive type");
 
         if(instancesDictionary.contains(type))
-            throw new RegistrationException(
-                    String.format("Type %s was registered with an instance", type.getSimpleName()));
+            throw new RegistrationException(detailedExceptions,
+                                            "Type %s was registered with an instance",
+                                            type.getSimpleName());
     }
 
     private <T> void validateRegisteredInstance(Class<T> type)
     {
         if(TypesUtils.isAnnotatedType(type))
-            throw new RegistrationException(
-                    String.format("Cannot register instance for annotated type %s",
-                                  type.getSimpleName()));
+            throw new RegistrationException(detailedExceptions,
+                                            "Cannot register instance for annotated type %s",
+                                            type.getSimpleName());
 
         if(typesDictionary.contains(type))
-            throw new RegistrationException(
-                    String.format("Type %s was registered with another type",
-                                  type.getSimpleName()));
+            throw new RegistrationException(detailedExceptions,
+                                            "Type %s was registered with another type",
+                                            type.getSimpleName());
     }
 }
@@ -0,0 +1,70 @@
+package yadic.registry;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/** Element types registered for types injected as collections, in order of registration. */
+class ElementsDictionary
+{
+    private final Map<Class<?>, List<Class<?>>> elementsMap = new ConcurrentHashMap<>();
+
+    /**
+     * Append subtype to elements of type, unless it is already there.
+     * @param type element type class
+     * @param subtype subtype class
+     */
+    void insert(Class<?> type, Class<?> subtype)
+    {
+        elementsMap.compute(type, (key, elements) -> {
+            if(elements == null)
+                return List.of(subtype);
+
+            if(elements.contains(subtype))
+                return elements;
+
+            List<Class<?>> appended = new ArrayList<>(elements);
+
+            appended.add(subtype);
+            return List.copyOf(appended);
+        });
+    }
+
+    List<Class<?>> get(Class<?> type)
+    {
+        if(elementsMap.isEmpty())
+            return List.of();
+
+        return elementsMap.getOrDefault(type, List.of());
+    }
+
+    /**
+     * Remove element types matching given predicate, and all elements of types matching it.
+     * @param evicted predicate of evicted classes
+     * @return types whose elements changed
+     */
+    Set<Class<?>> evict(Predicate<Class<?>> evicted)
+    {
+        Set<Class<?>> changed = new HashSet<>();
+
+        elementsMap.replaceAll((type, elements) -> {
+            if(evicted.test(type) || elements.stream().noneMatch(evicted))
+                return elements;
+
+            changed.add(type);
+            return elements.stream().filter(evicted.negate()).toList();
+        });
+        elementsMap.entrySet().removeIf(entry -> {
+            if(!evicted.test(entry.getKey()) && !entry.getValue().isEmpty())
+                return false;
+
+            changed.add(entry.getKey());
+            return true;
+        });
+        return changed;
+    }
+}
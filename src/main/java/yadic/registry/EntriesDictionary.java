@@ -0,0 +1,71 @@
+package yadic.registry;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/** Keyed subtypes registered for types injected as maps, in order of registration. */
+class EntriesDictionary
+{
+    private final Map<Class<?>, Map<Object, Class<?>>> entriesMap = new ConcurrentHashMap<>();
+
+    /**
+     * Put subtype under given key into entries of type, replacing any subtype with equal key.
+     * @param type value type class
+     * @param key key of entry
+     * @param subtype subtype class
+     */
+    void insert(Class<?> type, Object key, Class<?> subtype)
+    {
+        entriesMap.compute(type, (t, entries) -> {
+            Map<Object, Class<?>> updated =
+                    entries == null ? new LinkedHashMap<>() : new LinkedHashMap<>(entries);
+
+            updated.put(key, subtype);
+            return Collections.unmodifiableMap(updated);
+        });
+    }
+
+    Map<Object, Class<?>> get(Class<?> type)
+    {
+        if(entriesMap.isEmpty())
+            return Map.of();
+
+        return entriesMap.getOrDefault(type, Map.of());
+    }
+
+    /**
+     * Remove entries whose subtypes or keys have classes matching given predicate, and all
+     * entries of types matching it.
+     * @param evicted predicate of evicted classes
+     * @return types whose entries changed
+     */
+    Set<Class<?>> evict(Predicate<Class<?>> evicted)
+    {
+        Set<Class<?>> changed = new HashSet<>();
+
+        entriesMap.replaceAll((type, entries) -> {
+            Map<Object, Class<?>> retained = new LinkedHashMap<>(entries);
+
+            if(!retained.entrySet()
+                        .removeIf(entry -> evicted.test(entry.getValue())
+                                || evicted.test(entry.getKey().getClass())))
+                return entries;
+
+            changed.add(type);
+            return Collections.unmodifiableMap(retained);
+        });
+        entriesMap.entrySet().removeIf(entry -> {
+            if(!evicted.test(entry.getKey()) && !entry.getValue().isEmpty())
+                return false;
+
+            changed.add(entry.getKey());
+            return true;
+        });
+        return changed;
+    }
+}
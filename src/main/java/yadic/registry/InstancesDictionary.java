@@ -1,27 +1,73 @@
 package yadic.registry;
 
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
-
-import yadic.registry.valuetypes.Instance;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 class InstancesDictionary
 {
-    private final Map<Class<?>, Instance<?>> instancesMap = new HashMap<>();
+    private final Set<Class<?>> instanceTypes = ConcurrentHashMap.newKeySet();
+    private final TypeSlots slots;
+
+    InstancesDictionary(TypeSlots slots)
+    {
+        this.slots = slots;
+    }
 
     <T> void insert(Class<T> type, T instance)
     {
-        instancesMap.put(type, Instance.of(Objects.requireNonNull(instance)));
+        slots.set(type, Objects.requireNonNull(instance));
+        instanceTypes.add(type);
+    }
+
+    void insertAll(Map<Class<?>, Object> instances)
+    {
+        slots.setAll(instances);
+        instanceTypes.addAll(instances.keySet());
+    }
+
+    /**
+     * Remove registrations of types matching given predicate or of instances whose classes match
+     * it.
+     * @param evicted predicate of evicted classes
+     * @return types of removed instances
+     */
+    Set<Class<?>> evict(Predicate<Class<?>> evicted)
+    {
+        Set<Class<?>> removed = new HashSet<>();
+
+        instanceTypes.removeIf(type -> {
+            Object instance = slots.get(type);
+
+            if(!evicted.test(type) && (instance == null || !evicted.test(instance.getClass())))
+                return false;
+
+            slots.remove(type);
+            removed.add(type);
+            return true;
+        });
+        return removed;
     }
 
     boolean contains(Class<?> type)
     {
-        return instancesMap.containsKey(type);
+        return instanceTypes.contains(type);
     }
 
-    <T> Instance<T> get(Class<T> type)
+    /**
+     * @param typename binary name of type
+     * @return {@code true} if instance is registered for a type of given name, otherwise
+     * {@code false}
+     */
+    boolean containsName(String typename)
     {
-        return Instance.cast(instancesMap.get(type));
+        for(Class<?> type : instanceTypes)
+            if(type.getName().equals(typename))
+                return true;
+
+        return false;
     }
 }
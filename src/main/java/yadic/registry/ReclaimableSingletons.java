@@ -0,0 +1,118 @@
+package yadic.registry;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import yadic.SingletonRetention;
+
+/**
+ * Soft or weak references to singletons stored in type slots, with counts of singletons cleared
+ * by garbage collector.
+ */
+final class ReclaimableSingletons
+{
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private final Map<Class<?>, LongAdder> evictions = new ConcurrentHashMap<>();
+
+    /**
+     * Wrap singleton to be stored in slot according to retention.
+     * @param type type class
+     * @param instance singleton
+     * @param retention retention of singleton
+     * @return value to store in slot
+     */
+    Object wrap(Class<?> type, Object instance, SingletonRetention retention)
+    {
+        return switch(retention)
+        {
+            case STRONG -> instance;
+            case SOFT -> new SoftSlot(type, instance, queue);
+            case WEAK -> new WeakSlot(type, instance, queue);
+        };
+    }
+
+    /**
+     * @return numbers of singletons cleared by garbage collector for each type
+     */
+    Map<Class<?>, Long> evictions()
+    {
+        drain();
+        return evictions.entrySet()
+                        .stream()
+                        .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey,
+                                                              e -> e.getValue().sum()));
+    }
+
+    /**
+     * Forget eviction counts of all types matching given predicate.
+     * @param evicted predicate of evicted classes
+     */
+    void evict(Predicate<Class<?>> evicted)
+    {
+        drain();
+        evictions.keySet().removeIf(evicted);
+    }
+
+    /** Count all references cleared since the last drain. */
+    void drain()
+    {
+        Reference<?> reference;
+
+        while((reference = queue.poll()) != null)
+            evictions.computeIfAbsent(((Reclaimable)reference).type(), t -> new LongAdder())
+                     .increment();
+    }
+
+    /** Slot value holding singleton that may be cleared by garbage collector. */
+    interface Reclaimable
+    {
+        Object get();
+
+        Class<?> type();
+    }
+
+    private static final class SoftSlot
+            extends SoftReference<Object>
+            implements Reclaimable
+    {
+        private final Class<?> type;
+
+        SoftSlot(Class<?> type, Object instance, ReferenceQueue<Object> queue)
+        {
+            super(instance, queue);
+            this.type = type;
+        }
+
+        @Override
+        public Class<?> type()
+        {
+            return type;
+        }
+    }
+
+    private static final class WeakSlot
+            extends WeakReference<Object>
+            implements Reclaimable
+    {
+        private final Class<?> type;
+
+        WeakSlot(Class<?> type, Object instance, ReferenceQueue<Object> queue)
+        {
+            super(instance, queue);
+            this.type = type;
+        }
+
+        @Override
+        public Class<?> type()
+        {
+            return type;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package yadic.registry;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import yadic.ConstructionPolicy;
+
+@Name("yadic.RegistryMutation")
+@Label("Registry Mutation")
+@Category("YADIC")
+@Description("Registration of a type or an instance")
+class RegistryMutationEvent
+        extends jdk.jfr.Event
+{
+    @Label("Operation")
+    String operation;
+
+    @Label("Type")
+    Class<?> type;
+
+    @Label("Subtype")
+    Class<?> subtype;
+
+    @Label("Policy")
+    String policy;
+
+    static void emit(String operation, Class<?> type, Class<?> subtype, ConstructionPolicy policy)
+    {
+        RegistryMutationEvent event = new RegistryMutationEvent();
+
+        if(!event.isEnabled())
+            return;
+
+        event.operation = operation;
+        event.type = type;
+        event.subtype = subtype;
+        event.policy = policy == null ? null : policy.name();
+        event.commit();
+    }
+}
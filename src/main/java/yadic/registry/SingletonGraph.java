@@ -0,0 +1,221 @@
+package yadic.registry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+/**
+ * Singletons created by container and instances owned by it, in order of creation, with
+ * dependency edges recorded while singletons are constructed. Edges are indexed in both
+ * directions, so that singletons built from a changed binding can be found without scanning.
+ */
+final class SingletonGraph
+{
+    private final Map<Class<?>, Object> nodes = new LinkedHashMap<>();
+    private final Map<Class<?>, Object> retired = new HashMap<>();
+    private final Map<Class<?>, Set<Class<?>>> dependencies = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Set<Class<?>>> dependents = new ConcurrentHashMap<>();
+
+    synchronized void addNode(Class<?> type, Object instance)
+    {
+        nodes.remove(type);
+        nodes.put(type, instance);
+    }
+
+    /**
+     * Replace node of type by its rebuilt instance in the same position. The replaced instance
+     * is kept until the next replacement, so that users still holding it can finish with it, and
+     * is closed with the graph if it is still kept then.
+     * @param type type class
+     * @param instance rebuilt instance
+     * @return instance replaced before the replaced one, which is no longer kept, or
+     * {@code null}
+     */
+    synchronized Object replaceNode(Class<?> type, Object instance)
+    {
+        Object replaced = nodes.put(type, instance);
+
+        if(replaced == null || replaced == instance)
+            return null;
+
+        return retired.put(type, replaced);
+    }
+
+    void addDependency(Class<?> type, Class<?> dependency)
+    {
+        if(dependencies.computeIfAbsent(type, t -> ConcurrentHashMap.newKeySet())
+                       .add(dependency))
+            dependents.computeIfAbsent(dependency, t -> ConcurrentHashMap.newKeySet()).add(type);
+    }
+
+    /**
+     * Find all singletons built using given types, directly or transitively.
+     * @param types types classes
+     * @return types of dependent singletons, without given types unless they depend on each
+     * other
+     */
+    Set<Class<?>> dependents(Collection<Class<?>> types)
+    {
+        Set<Class<?>> found = new HashSet<>();
+        Deque<Class<?>> queue = new ArrayDeque<>(types);
+
+        while(!queue.isEmpty())
+            for(Class<?> dependent : dependents.getOrDefault(queue.poll(), Set.of()))
+                if(found.add(dependent))
+                    queue.add(dependent);
+
+        return found;
+    }
+
+    Set<Class<?>> dependencies(Class<?> type)
+    {
+        return dependencies.getOrDefault(type, Set.of());
+    }
+
+    /**
+     * Remove nodes of types matching given predicate or holding instances of classes matching it,
+     * together with all nodes depending on them directly or transitively. Removed nodes are not
+     * closed.
+     * @param evicted predicate of evicted classes
+     * @return types of removed nodes and of singletons depending on them
+     */
+    synchronized Set<Class<?>> evict(Predicate<Class<?>> evicted)
+    {
+        Set<Class<?>> removed = new HashSet<>();
+
+        nodes.forEach((type, instance) -> {
+            if(evicted.test(type) || evicted.test(instance.getClass()))
+                removed.add(type);
+        });
+        dependents.keySet().stream().filter(evicted).forEach(removed::add);
+        dependencies.keySet().stream().filter(evicted).forEach(removed::add);
+        removed.addAll(dependents(removed));
+
+        nodes.keySet().removeAll(removed);
+        retired.keySet().removeAll(removed);
+        dependencies.keySet().removeAll(removed);
+        dependents.keySet().removeAll(removed);
+        dependencies.values().forEach(typeDependencies -> typeDependencies.removeAll(removed));
+        dependents.values().forEach(typeDependents -> typeDependents.removeAll(removed));
+        return removed;
+    }
+
+    /**
+     * Close all closeable nodes, each after all nodes depending on it are closed. Independent
+     * nodes are closed in parallel on given executor. Graph is emptied.
+     * @param executor executor running closing
+     * @return exceptions thrown by closed instances
+     */
+    List<Exception> close(Executor executor)
+    {
+        Map<Class<?>, Object> closedNodes;
+        Map<Class<?>, Object> closedRetired;
+
+        synchronized(this)
+        {
+            closedNodes = new LinkedHashMap<>(nodes);
+            closedRetired = new HashMap<>(retired);
+            nodes.clear();
+            retired.clear();
+        }
+
+        Map<Class<?>, List<Class<?>>> closedDependents = new HashMap<>();
+
+        for(Class<?> type : closedNodes.keySet())
+            for(Class<?> dependency : dependencies(type))
+                if(closedNodes.containsKey(dependency))
+                    closedDependents.computeIfAbsent(dependency, t -> new ArrayList<>()).add(type);
+
+        dependencies.clear();
+        dependents.clear();
+
+        Closing closing = new Closing(closedNodes, closedRetired, closedDependents, executor);
+        List<Class<?>> order = new ArrayList<>(closedNodes.keySet());
+
+        Collections.reverse(order);
+        CompletableFuture.allOf(order.stream()
+                                     .map(closing::closeAfterDependents)
+                                     .toArray(CompletableFuture[]::new))
+                         .join();
+        return new ArrayList<>(closing.exceptions);
+    }
+
+    private static final class Closing
+    {
+        final Queue<Exception> exceptions = new ConcurrentLinkedQueue<>();
+        private final Map<Class<?>, Object> nodes;
+        private final Map<Class<?>, Object> retired;
+        private final Map<Class<?>, List<Class<?>>> dependents;
+        private final Executor executor;
+        private final Map<Class<?>, CompletableFuture<Void>> futures = new HashMap<>();
+        private final Set<Class<?>> visiting = new HashSet<>();
+        private final Set<Object> closed =
+                Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+        Closing(Map<Class<?>, Object> nodes, Map<Class<?>, Object> retired,
+                Map<Class<?>, List<Class<?>>> dependents, Executor executor)
+        {
+            this.nodes = nodes;
+            this.retired = retired;
+            this.dependents = dependents;
+            this.executor = executor;
+        }
+
+        CompletableFuture<Void> closeAfterDependents(Class<?> type)
+        {
+            CompletableFuture<Void> future = futures.get(type);
+
+            if(future != null)
+                return future;
+
+            if(!visiting.add(type))
+                return CompletableFuture.completedFuture(null);
+
+            CompletableFuture<?>[] before = dependents.getOrDefault(type, List.of())
+                                                      .stream()
+                                                      .map(this::closeAfterDependents)
+                                                      .toArray(CompletableFuture[]::new);
+            Object instance = nodes.get(type);
+            Object retiredInstance = retired.get(type);
+
+            future = instance instanceof AutoCloseable || retiredInstance instanceof AutoCloseable
+                     ? CompletableFuture.allOf(before).thenRunAsync(() -> {
+                         close(instance);
+                         close(retiredInstance);
+                     }, executor)
+                     : CompletableFuture.allOf(before);
+            futures.put(type, future);
+            return future;
+        }
+
+        private void close(Object instance)
+        {
+            if(!(instance instanceof AutoCloseable closeable) || !closed.add(closeable))
+                return;
+
+            try
+            {
+                closeable.close();
+            }
+            catch(Exception e)
+            {
+                exceptions.add(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package yadic.registry;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Flat table of object slots indexed by dense type identifiers. Slots are read with acquire
+ * semantics and written with release semantics, so reading a singleton is a single array load.
+ * Identifiers of removed types are given to types registered later, so the table stays as large
+ * as the most types registered at once.
+ */
+final class TypeSlots
+{
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int ABSENT = -1;
+
+    private final Map<Class<?>, Integer> typeIds = new ConcurrentHashMap<>();
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    private volatile Class<?>[] owners = new Class<?>[INITIAL_CAPACITY];
+    private volatile Object[] slots = new Object[INITIAL_CAPACITY];
+    private int nextId = 0;
+
+    /**
+     * Assign identifier to given type, or return the existing one.
+     * @param type type class
+     * @return dense identifier of type
+     */
+    synchronized int register(Class<?> type)
+    {
+        Integer id = typeIds.get(type);
+
+        if(id != null)
+            return id;
+
+        if(freeIds.isEmpty() && nextId == slots.length)
+            grow(2 * slots.length);
+
+        int newId = freeIds.isEmpty() ? nextId++ : freeIds.pop();
+
+        owners[newId] = type;
+        typeIds.put(type, newId);
+        return newId;
+    }
+
+    /**
+     * Assign identifiers to all given types, growing the table at most once.
+     * @param types types classes
+     * @return dense identifiers of types in iteration order
+     */
+    private synchronized int[] registerAll(Collection<Class<?>> types)
+    {
+        int required = nextId + Math.max(0, types.size() - freeIds.size());
+
+        if(required > slots.length)
+            grow(Math.max(required, 2 * slots.length));
+
+        return types.stream().mapToInt(this::register).toArray();
+    }
+
+    private void grow(int capacity)
+    {
+        owners = Arrays.copyOf(owners, capacity);
+        slots = Arrays.copyOf(slots, capacity);
+    }
+
+    /**
+     * @return number of slots in table
+     */
+    int capacity()
+    {
+        return slots.length;
+    }
+
+    int idOf(Class<?> type)
+    {
+        Integer id = typeIds.get(type);
+
+        return id == null ? ABSENT : id;
+    }
+
+    Object get(Class<?> type)
+    {
+        int id = idOf(type);
+
+        if(id == ABSENT)
+            return null;
+
+        Object value = SLOTS.getAcquire(slots, id);
+
+        // identifier may have been given to another type since it was read
+        return owners[id] == type ? unwrap(value) : null;
+    }
+
+    /**
+     * Store value in slot of given type, registering the type if needed.
+     * @param type type class
+     * @param value value to store
+     */
+    synchronized void set(Class<?> type, Object value)
+    {
+        SLOTS.setRelease(slots, register(type), value);
+    }
+
+    /**
+     * Store values in slots of their types, growing the table at most once.
+     * @param values values by types classes
+     */
+    synchronized void setAll(Map<Class<?>, ?> values)
+    {
+        int[] ids = registerAll(values.keySet());
+        int i = 0;
+
+        for(Object value : values.values())
+            SLOTS.setRelease(slots, ids[i++], value);
+    }
+
+    /**
+     * Register all given types and empty their slots, growing the table at most once.
+     * @param types types classes
+     */
+    synchronized void clearAll(Collection<Class<?>> types)
+    {
+        for(int id : registerAll(types))
+            SLOTS.setRelease(slots, id, null);
+    }
+
+    /**
+     * Store value in slot of given type if it is empty or holds a cleared reclaimable singleton,
+     * registering the type if needed.
+     * @param type type class
+     * @param value value to store
+     * @return the stored value, or the object already present in slot
+     */
+    synchronized Object putIfAbsent(Class<?> type, Object value)
+    {
+        int id = register(type);
+        Object current = unwrap(SLOTS.getAcquire(slots, id));
+
+        if(current != null)
+            return current;
+
+        SLOTS.setRelease(slots, id, value);
+        return value;
+    }
+
+    private static Object unwrap(Object value)
+    {
+        return value instanceof ReclaimableSingletons.Reclaimable reclaimable ? reclaimable.get()
+                                                                              : value;
+    }
+
+    /**
+     * Store value in slot of given type only if it still holds expected object.
+     * @param type type class
+     * @param expected object expected in slot
+     * @param value value to store
+     * @return {@code true} if value was stored
+     */
+    synchronized boolean replace(Class<?> type, Object expected, Object value)
+    {
+        int id = idOf(type);
+
+        if(id == ABSENT || unwrap(SLOTS.getAcquire(slots, id)) != expected)
+            return false;
+
+        SLOTS.setRelease(slots, id, value);
+        return true;
+    }
+
+    synchronized void clear(Class<?> type)
+    {
+        int id = idOf(type);
+
+        if(id != ABSENT)
+            SLOTS.setRelease(slots, id, null);
+    }
+
+    /**
+     * Forget identifier of given type and empty its slot. The identifier is given to the next
+     * registered type.
+     * @param type type class
+     */
+    synchronized void remove(Class<?> type)
+    {
+        Integer id = typeIds.remove(type);
+
+        if(id != null)
+            release(id);
+    }
+
+    private void release(int id)
+    {
+        SLOTS.setRelease(slots, id, null);
+        owners[id] = null;
+        freeIds.push(id);
+    }
+
+    /**
+     * Forget all types matching given predicate and empty slots of all types holding objects of
+     * classes matching it.
+     * @param evicted predicate of evicted classes
+     * @return types whose slots were emptied
+     */
+    synchronized Set<Class<?>> evict(Predicate<Class<?>> evicted)
+    {
+        Set<Class<?>> emptied = new HashSet<>();
+
+        typeIds.entrySet().removeIf(entry -> {
+            Object value = unwrap(SLOTS.getAcquire(slots, entry.getValue()));
+            boolean removed = evicted.test(entry.getKey());
+
+            if(removed)
+            {
+                release(entry.getValue());
+                emptied.add(entry.getKey());
+            }
+            else if(value != null && evicted.test(value.getClass()))
+            {
+                SLOTS.setRelease(slots, entry.getValue(), null);
+                emptied.add(entry.getKey());
+            }
+
+            return removed;
+        });
+        return emptied;
+    }
+}
@@ -1,116 +1,359 @@
 package yadic.registry;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import yadic.ConstructionPolicy;
+import yadic.SingletonRetention;
 import yadic.annotation.Register;
 import yadic.annotation.SelfRegister;
 import yadic.registry.exception.AbstractTypeException;
 import yadic.registry.exception.AnnotatedTypeRegistrationException;
 import yadic.registry.exception.MixingPoliciesException;
 import yadic.registry.exception.NotDerivedTypeException;
-import yadic.registry.valuetypes.Instance;
+import yadic.registry.exception.RegistrationException;
 import yadic.registry.valuetypes.TypeConstruction;
 import yadic.resolver.exception.MissingDependenciesException;
 
 class TypesDictionary
 {
-    private final Map<Class<?>, TypeConstruction<?>> typesMap = new HashMap<>();
-    private final Map<Class<?>, Instance<?>> singletonsMap = new HashMap<>();
+    private final Map<Class<?>, TypeConstruction<?>> typesMap = new ConcurrentHashMap<>();
+    private final Map<String, DeferredType> deferredTypes = new ConcurrentHashMap<>();
+    private final ReclaimableSingletons reclaimableSingletons = new ReclaimableSingletons();
+    private final TypeSlots slots;
+    private final boolean detailedExceptions;
+    private final ClassLoader classLoader;
+    private final Consumer<Class<?>> loadListener;
+
+    /**
+     * @param slots slots of singletons
+     * @param detailedExceptions whether exceptions have messages and stack traces
+     * @param classLoader class loader of types registered by names
+     * @param loadListener called with each type after its registration by names is loaded
+     */
+    TypesDictionary(TypeSlots slots, boolean detailedExceptions, ClassLoader classLoader,
+                    Consumer<Class<?>> loadListener)
+    {
+        this.slots = slots;
+        this.detailedExceptions = detailedExceptions;
+        this.classLoader = classLoader;
+        this.loadListener = loadListener;
+    }
 
-    @SuppressWarnings("unchecked")
     <T> void insert(Class<T> type, ConstructionPolicy policy)
     {
-        validateAnnotation(type);
+        doInsert(type, createMapping(type, policy));
+    }
 
-        if(type.isAnnotationPresent(Register.class))
-        {
-            Register annotation = type.getAnnotation(Register.class);
+    <T> void insert(Class<T> type, Class<? extends T> subtype, ConstructionPolicy policy)
+    {
+        doInsert(type, createMapping(type, subtype, policy));
+    }
 
-            doInsert(type, new TypeConstruction<>((Class<? extends T>)annotation.value(),
-                                                  annotation.policy()));
-        }
-        else if(type.isAnnotationPresent(SelfRegister.class))
-        {
-            SelfRegister annotation = type.getAnnotation(SelfRegister.class);
+    /**
+     * Validate binding and create its mapping without registering it.
+     * @param type type class
+     * @param subtype subtype class, or {@code null} to register type alone
+     * @param policy construction policy of instances
+     * @return mapping of type
+     */
+    TypeConstruction<?> createMapping(Class<?> type, Class<?> subtype, ConstructionPolicy policy)
+    {
+        if(subtype == null)
+            return createMapping(type, policy);
 
-            doInsert(type, new TypeConstruction<>(type, annotation.policy()));
-        }
-        else
-        {
-            if(TypesUtils.isAbstractReferenceType(type))
-                throw new AbstractTypeException(
-                        String.format("Cannot register abstract type %s", type.getName()));
+        if(TypesUtils.isAnnotatedType(type))
+            throw new AnnotatedTypeRegistrationException(
+                    detailedExceptions, "Cannot register type for annotated type %s",
+                    type.getName());
 
-            doInsert(type, new TypeConstruction<>(type, policy));
-        }
+        validatePolicy(type, policy);
+        return new TypeConstruction<>(subtype, policy);
     }
 
-    <T> void insert(Class<T> type, Class<? extends T> subtype, ConstructionPolicy policy)
+    /**
+     * Register type with instances expiring after given time and then rebuilt.
+     * @param type type class
+     * @param subtype subtype class, or {@code null} to register type alone
+     * @param timeToLive time after which instance is rebuilt
+     */
+    void insertExpiring(Class<?> type, Class<?> subtype, Duration timeToLive)
     {
-        if(TypesUtils.isAnnotatedType(type))
-            throw new AnnotatedTypeRegistrationException(
-                    String.format("Cannot register type for annotated type %s", type.getName()));
+        if(timeToLive.isNegative() || timeToLive.isZero())
+            throw new RegistrationException(detailedExceptions,
+                                            "Time to live of type %s must be positive",
+                                            type.getName());
+
+        TypeConstruction<?> mapping = createMapping(type, subtype, ConstructionPolicy.SINGLETON);
+
+        doInsert(type,
+                 new TypeConstruction<>(mapping.type(), ConstructionPolicy.EXPIRING, timeToLive));
+    }
+
+    /**
+     * Register type with singleton policy and given retention of its instance.
+     * @param type type class
+     * @param subtype subtype class, or {@code null} to register type alone
+     * @param retention retention of singleton
+     */
+    void insertRetained(Class<?> type, Class<?> subtype, SingletonRetention retention)
+    {
+        TypeConstruction<?> mapping = createMapping(type, subtype, ConstructionPolicy.SINGLETON);
+
+        doInsert(type, new TypeConstruction<>(mapping.type(), ConstructionPolicy.SINGLETON, null,
+                                              retention));
+    }
+
+    /**
+     * Insert all given mappings and empty slots of their types. Slots are assigned with at most
+     * one growth of their table, while the map of types grows as needed, since it is shared with
+     * concurrent resolutions and cannot be replaced without losing their insertions.
+     * @param mappings mappings by types classes
+     */
+    void insertAll(Map<Class<?>, TypeConstruction<?>> mappings)
+    {
+        typesMap.putAll(mappings);
+
+        if(!deferredTypes.isEmpty())
+            mappings.keySet().forEach(type -> deferredTypes.remove(type.getName()));
+
+        slots.clearAll(mappings.keySet());
+    }
+
+    void insertIndexed(Class<?> type, Class<?> subtype, ConstructionPolicy policy)
+    {
+        validatePolicy(type, policy);
+
+        if(!type.isAssignableFrom(subtype))
+            throw new NotDerivedTypeException(detailedExceptions,
+                                              "Type %s registered for %s is not its derived type",
+                                              subtype.getName(), type.getName());
+
+        if(TypesUtils.isAbstractReferenceType(subtype))
+            throw new AbstractTypeException(detailedExceptions,
+                                            "Type %s registered for %s is abstract",
+                                            subtype.getName(), type.getName());
 
         doInsert(type, new TypeConstruction<>(subtype, policy));
     }
 
-    boolean contains(Class<?> type)
+    /**
+     * Register subtype for type by their names. Subtype class is loaded when type is first looked
+     * up, and the registration replaces any other registration of type. Singletons of already
+     * registered types of that name are dropped at once.
+     * @param typename binary name of type
+     * @param subtypeName binary name of subtype
+     * @param policy construction policy of instances
+     * @return already registered types of that name
+     */
+    Set<Class<?>> insertDeferred(String typename, String subtypeName, ConstructionPolicy policy)
+    {
+        if(policy == ConstructionPolicy.EXPIRING)
+            throw new RegistrationException(detailedExceptions,
+                                            "Policy %s of type %s requires time to live", policy,
+                                            typename);
+
+        deferredTypes.put(typename, new DeferredType(subtypeName, policy));
+
+        Set<Class<?>> replaced = new HashSet<>();
+
+        for(Class<?> type : typesMap.keySet())
+            if(type.getName().equals(typename))
+            {
+                slots.clear(type);
+                replaced.add(type);
+            }
+
+        return replaced;
+    }
+
+    Class<?> loadClass(String typename)
     {
         try
         {
-            validateAnnotation(type);
+            return Class.forName(typename, false, classLoader);
         }
-        catch(NotDerivedTypeException | AbstractTypeException e)
+        catch(ClassNotFoundException | LinkageError e)
+        {
+            throw new RegistrationException(detailedExceptions, e, "Class %s cannot be loaded",
+                                            typename);
+        }
+    }
+
+    Set<Class<?>> types()
+    {
+        return Set.copyOf(typesMap.keySet());
+    }
+
+    /**
+     * Find registered types whose registrations lead through other registrations to any of given
+     * types, directly or transitively.
+     * @param types types classes
+     * @return types with given types on their chains of registrations, without given types
+     */
+    Set<Class<?>> chainedTo(Collection<Class<?>> types)
+    {
+        Set<Class<?>> given = new HashSet<>(types);
+        Set<Class<?>> found = new HashSet<>();
+        Set<Class<?>> targets = given;
+
+        while(!targets.isEmpty())
         {
-            return false;
+            Set<Class<?>> next = new HashSet<>();
+
+            for(Map.Entry<Class<?>, TypeConstruction<?>> entry : typesMap.entrySet())
+            {
+                Class<?> type = entry.getKey();
+
+                if(type != entry.getValue().type() && targets.contains(entry.getValue().type())
+                        && !given.contains(type) && found.add(type))
+                    next.add(type);
+            }
+
+            targets = next;
         }
 
-        return TypesUtils.isAnnotatedType(type) || typesMap.containsKey(type);
+        return found;
+    }
+
+    boolean contains(Class<?> type)
+    {
+        if(typesMap.containsKey(type))
+            return true;
+
+        if(!deferredTypes.isEmpty() && deferredTypes.containsKey(type.getName()))
+            return true;
+
+        return TypesUtils.isAnnotatedType(type) && hasValidAnnotation(type);
     }
 
     <T> TypeConstruction<? extends T> find(Class<T> type)
+    {
+        return find(type, null);
+    }
+
+    /**
+     * Follow registrations from given type to its concrete type.
+     * @param type type class
+     * @param chain list to collect all followed types, or {@code null}
+     * @return mapping of concrete type
+     */
+    <T> TypeConstruction<? extends T> find(Class<T> type, List<Class<?>> chain)
     {
         TypeConstruction<? extends T> mapping = get(type);
         ConstructionPolicy desiredPolicy = mapping.policy();
         Class<?> supertype = type;
 
+        if(chain != null)
+            chain.add(type);
+
         while(TypesUtils.isAbstractReferenceType(mapping.type())
                 || contains(mapping.type()) && !mapping.type().equals(supertype))
         {
             supertype = mapping.type();
             mapping = get(mapping.type());
 
+            if(chain != null)
+                chain.add(supertype);
+
             if(mapping.policy() != desiredPolicy)
-                throw new MixingPoliciesException(String.format(
+                throw new MixingPoliciesException(detailedExceptions,
                         "Registered classes chain contains two different construction policies: expected %s, was %s",
-                        desiredPolicy.toString(), mapping.policy().toString()));
+                        desiredPolicy, mapping.policy());
         }
 
+        if(chain != null && mapping.type() != chain.get(chain.size() - 1))
+            chain.add(mapping.type());
+
         return mapping;
     }
 
-    <T> void insertSingleton(Class<T> type, T instance)
+    @SuppressWarnings("unchecked")
+    <T> T insertSingleton(Class<T> type, T instance)
     {
         TypeConstruction<?> mapping = typesMap.get(type);
 
-        if(mapping == null || mapping.policy() != ConstructionPolicy.SINGLETON)
-            return;
+        if(mapping == null || mapping.policy() == ConstructionPolicy.CONSTRUCTION)
+            return instance;
+
+        if(mapping.retention() == SingletonRetention.STRONG)
+            return (T)slots.putIfAbsent(type, instance);
+
+        reclaimableSingletons.drain();
+
+        Object reference = reclaimableSingletons.wrap(type, instance, mapping.retention());
+        Object stored = slots.putIfAbsent(type, reference);
+
+        return stored == reference ? instance : (T)stored;
+    }
+
+    /**
+     * Remove registrations of types matching given predicate or mapped to types matching it,
+     * together with their singletons.
+     * @param evicted predicate of evicted classes
+     * @return removed types
+     */
+    Set<Class<?>> evict(Predicate<Class<?>> evicted)
+    {
+        Set<Class<?>> removed = new HashSet<>();
+
+        typesMap.entrySet().removeIf(entry -> {
+            if(!evicted.test(entry.getKey()) && !evicted.test(entry.getValue().type()))
+                return false;
+
+            slots.remove(entry.getKey());
+            removed.add(entry.getKey());
+            return true;
+        });
+        reclaimableSingletons.evict(evicted);
+        return removed;
+    }
+
+    /**
+     * Check whether singleton of given type may be cleared by garbage collector.
+     * @param type type class
+     * @return {@code true} if type is registered with soft or weak retention
+     */
+    boolean isReclaimable(Class<?> type)
+    {
+        TypeConstruction<?> mapping = typesMap.get(type);
+
+        return mapping != null && mapping.retention() != SingletonRetention.STRONG;
+    }
 
-        singletonsMap.putIfAbsent(type, Instance.of(instance));
+    /**
+     * @return numbers of singletons cleared by garbage collector for each type
+     */
+    Map<Class<?>, Long> evictions()
+    {
+        return reclaimableSingletons.evictions();
     }
 
-    <T> Instance<T> getSingleton(Class<T> type)
+    boolean replaceSingleton(Class<?> type, Object expired, Object instance)
     {
-        return Instance.cast(singletonsMap.get(type));
+        return slots.replace(type, expired, instance);
     }
 
     @SuppressWarnings("unchecked")
     private <T> TypeConstruction<? extends T> get(Class<T> type)
     {
+        if(!deferredTypes.isEmpty())
+            loadDeferred(type);
+
         if(TypesUtils.isAnnotatedType(type) && !typesMap.containsKey(type))
-            insert(type, null);
+        {
+            TypeConstruction<? extends T> annotatedMapping = createMapping(type, null);
+
+            slots.register(type);
+            typesMap.putIfAbsent(type, annotatedMapping);
+        }
 
         TypeConstruction<? extends T> mapping = (TypeConstruction<? extends T>)typesMap.get(type);
 
@@ -119,16 +362,103 @@ class TypesDictionary
 
         if(TypesUtils.isAbstractReferenceType(type))
             throw new MissingDependenciesException(
-                    String.format("Abstract type %s has no registered concrete subclass",
-                                  type.getName()));
+                    detailedExceptions, "Abstract type %s has no registered concrete subclass",
+                    type.getName());
 
         return new TypeConstruction<>(type, ConstructionPolicy.CONSTRUCTION);
     }
 
-    private <T> void doInsert(Class<T> type, TypeConstruction<? extends T> mapping)
+    @SuppressWarnings("unchecked")
+    private <T> TypeConstruction<? extends T> createMapping(Class<T> type, ConstructionPolicy policy)
+    {
+        validateAnnotation(type);
+
+        if(type.isAnnotationPresent(Register.class))
+        {
+            Register annotation = type.getAnnotation(Register.class);
+
+            validatePolicy(type, annotation.policy());
+            return new TypeConstruction<>((Class<? extends T>)annotation.value(),
+                                          annotation.policy());
+        }
+
+        if(type.isAnnotationPresent(SelfRegister.class))
+        {
+            SelfRegister annotation = type.getAnnotation(SelfRegister.class);
+
+            validatePolicy(type, annotation.policy());
+            return new TypeConstruction<>(type, annotation.policy());
+        }
+
+        if(TypesUtils.isAbstractReferenceType(type))
+            throw new AbstractTypeException(detailedExceptions, "Cannot register abstract type %s",
+                                            type.getName());
+
+        validatePolicy(type, policy);
+        return new TypeConstruction<>(type, policy);
+    }
+
+    private void loadDeferred(Class<?> type)
+    {
+        DeferredType deferredType = deferredTypes.get(type.getName());
+
+        if(deferredType == null)
+            return;
+
+        synchronized(deferredType)
+        {
+            if(deferredTypes.get(type.getName()) != deferredType)
+                return;
+
+            if(TypesUtils.isAnnotatedType(type))
+                throw new AnnotatedTypeRegistrationException(
+                        detailedExceptions, "Cannot register type for annotated type %s",
+                        type.getName());
+
+            if(loadClass(type.getName()) != type)
+                throw new RegistrationException(detailedExceptions,
+                        "Type %s registered by name was not loaded by the configured class loader",
+                        type.getName());
+
+            Class<?> subtype = loadClass(deferredType.subtypeName());
+
+            if(!type.isAssignableFrom(subtype))
+                throw new NotDerivedTypeException(detailedExceptions,
+                        "Type %s registered for %s is not its derived type", subtype.getName(),
+                        type.getName());
+
+            doInsert(type, new TypeConstruction<>(subtype, deferredType.policy()));
+            RegistryMutationEvent.emit("loadType", type, subtype, deferredType.policy());
+            loadListener.accept(type);
+        }
+    }
+
+    private void doInsert(Class<?> type, TypeConstruction<?> mapping)
     {
         typesMap.put(type, mapping);
-        singletonsMap.remove(type);
+        deferredTypes.remove(type.getName());
+        slots.clear(type);
+    }
+
+    private boolean hasValidAnnotation(Class<?> type)
+    {
+        if(type.isAnnotationPresent(Register.class))
+        {
+            Class<?> subtype = type.getAnnotation(Register.class).value();
+
+            return type.isAssignableFrom(subtype) && !TypesUtils.isAbstractReferenceType(subtype);
+        }
+
+        return !type.isAnnotationPresent(SelfRegister.class) || !TypesUtils.isAbstractReferenceType(
+                type);
+    }
+
+    private void validatePolicy(Class<?> type, ConstructionPolicy policy)
+    {
+        if(policy == ConstructionPolicy.EXPIRING)
+            throw new RegistrationException(detailedExceptions,
+                                            "Policy %s of type %s requires time to live", policy,
+                                            type.getName());
     }
 
     private void validateAnnotation(Class<?> type)
@@ -139,21 +469,24 @@ class TypesDictionary
             Class<?> subtype = annotation.value();
 
             if(!type.isAssignableFrom(subtype))
-                throw new NotDerivedTypeException(
-                        String.format("Type %s registered via @Register is not derived type of %s",
-                                      subtype.getName(), type.getName()));
+                throw new NotDerivedTypeException(detailedExceptions,
+                        "Type %s registered via @Register is not derived type of %s",
+                        subtype.getName(), type.getName());
 
             if(TypesUtils.isAbstractReferenceType(subtype))
-                throw new AbstractTypeException(
-                        String.format("Type %s registered via @Register in %s is abstract",
-                                      subtype.getName(), type.getName()));
+                throw new AbstractTypeException(detailedExceptions,
+                        "Type %s registered via @Register in %s is abstract", subtype.getName(),
+                        type.getName());
         }
         else if(type.isAnnotationPresent(SelfRegister.class))
         {
             if(TypesUtils.isAbstractReferenceType(type))
-                throw new AbstractTypeException(
-                        String.format("Abstract type %s cannot be annotated with @SelfRegister",
-                                      type.getName()));
+                throw new AbstractTypeException(detailedExceptions,
+                        "Abstract type %s cannot be annotated with @SelfRegister", type.getName());
         }
     }
+
+    private record DeferredType(String subtypeName, ConstructionPolicy policy)
+    {
+    }
 }
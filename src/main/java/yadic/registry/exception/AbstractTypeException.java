@@ -13,4 +13,9 @@ public class AbstractTypeException
     {
         super(s);
     }
+
+    public AbstractTypeException(boolean stackTrace, String format, Object... arguments)
+    {
+        super(stackTrace, null, format, arguments);
+    }
 }
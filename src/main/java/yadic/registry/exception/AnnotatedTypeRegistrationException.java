@@ -13,4 +13,10 @@ public class AnnotatedTypeRegistrationException
     {
         super(message);
     }
+
+    public AnnotatedTypeRegistrationException(
+            boolean stackTrace, String format, Object... arguments)
+    {
+        super(stackTrace, null, format, arguments);
+    }
 }
@@ -0,0 +1,22 @@
+package yadic.registry.exception;
+
+import java.io.Serial;
+
+import yadic.DiException;
+
+public class InstanceCloseException
+        extends DiException
+{
+    @Serial private static final long serialVersionUID = -3318244785034951370L;
+
+    public InstanceCloseException(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+
+    public InstanceCloseException(boolean stackTrace, Throwable cause, String format,
+                                  Object... arguments)
+    {
+        super(stackTrace, cause, format, arguments);
+    }
+}
@@ -13,4 +13,9 @@ public class MixingPoliciesException
     {
         super(message);
     }
+
+    public MixingPoliciesException(boolean stackTrace, String format, Object... arguments)
+    {
+        super(stackTrace, null, format, arguments);
+    }
 }
@@ -13,4 +13,9 @@ public class NotDerivedTypeException
     {
         super(s);
     }
+
+    public NotDerivedTypeException(boolean stackTrace, String format, Object... arguments)
+    {
+        super(stackTrace, null, format, arguments);
+    }
 }
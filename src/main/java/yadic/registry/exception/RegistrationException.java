@@ -13,4 +13,15 @@ public class RegistrationException
     {
         super(message);
     }
+
+    public RegistrationException(boolean stackTrace, String format, Object... arguments)
+    {
+        super(stackTrace, null, format, arguments);
+    }
+
+    public RegistrationException(boolean stackTrace, Throwable cause, String format,
+                                 Object... arguments)
+    {
+        super(stackTrace, cause, format, arguments);
+    }
 }
@@ -6,10 +6,12 @@ import java.util.function.Supplier;
 
 public final class Instance<T>
 {
+    private static final Supplier<RuntimeException> NO_INSTANCE =
+            () -> new NoSuchElementException("No instance found");
     private final T instance;
-    private final RuntimeException exception;
+    private final Supplier<? extends RuntimeException> exception;
 
-    private Instance(T instance, RuntimeException exception)
+    private Instance(T instance, Supplier<? extends RuntimeException> exception)
     {
         this.instance = instance;
         this.exception = exception;
@@ -25,12 +27,34 @@ public final class Instance<T>
         return instance == null ? none(exception) : new Instance<>(instance, null);
     }
 
+    /**
+     * Create instance with failure built only when the instance is extracted while absent.
+     * @param instance the instance
+     * @param exception supplier of failure
+     * @return new instance
+     */
+    public static <T> Instance<T> of(T instance, Supplier<? extends RuntimeException> exception)
+    {
+        return instance == null ? none(exception) : new Instance<>(instance, null);
+    }
+
     public static <T> Instance<T> none()
     {
-        return none(new NoSuchElementException("No instance found"));
+        return none(NO_INSTANCE);
     }
 
     public static <T> Instance<T> none(RuntimeException exception)
+    {
+        Objects.requireNonNull(exception);
+        return new Instance<>(null, () -> exception);
+    }
+
+    /**
+     * Create absent instance with failure built only when the instance is extracted.
+     * @param exception supplier of failure
+     * @return new absent instance
+     */
+    public static <T> Instance<T> none(Supplier<? extends RuntimeException> exception)
     {
         return new Instance<>(null, Objects.requireNonNull(exception));
     }
@@ -46,6 +70,14 @@ public final class Instance<T>
         return instance != null;
     }
 
+    /**
+     * @return failure of absent instance, or {@code null} if instance exists
+     */
+    public RuntimeException failure()
+    {
+        return exists() ? null : exception.get();
+    }
+
     public Instance<T> or(Supplier<Instance<T>> supplier)
     {
         return exists() ? this : supplier.get();
@@ -53,7 +85,7 @@ public final class Instance<T>
 
     public T extract()
     {
-        return extract(() -> { throw exception; });
+        return extract(() -> { throw exception.get(); });
     }
 
     public T extract(Supplier<T> supplier)
@@ -0,0 +1,32 @@
+package yadic.registry.valuetypes;
+
+import yadic.ConstructionPolicy;
+
+/**
+ * Binding waiting for installation in registry: a type with optional subtype and policy, or a
+ * type with an instance.
+ */
+public record StagedBinding(
+        Class<?> type, Class<?> subtype, ConstructionPolicy policy, Object instance)
+{
+    public static StagedBinding ofType(Class<?> type, ConstructionPolicy policy)
+    {
+        return new StagedBinding(type, null, policy, null);
+    }
+
+    public static StagedBinding ofType(
+            Class<?> type, Class<?> subtype, ConstructionPolicy policy)
+    {
+        return new StagedBinding(type, subtype, policy, null);
+    }
+
+    public static StagedBinding ofInstance(Class<?> type, Object instance)
+    {
+        return new StagedBinding(type, null, null, instance);
+    }
+
+    public boolean isInstance()
+    {
+        return instance != null;
+    }
+}
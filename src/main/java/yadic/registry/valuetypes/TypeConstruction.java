@@ -1,7 +1,20 @@
 package yadic.registry.valuetypes;
 
+import java.time.Duration;
+
 import yadic.ConstructionPolicy;
+import yadic.SingletonRetention;
 
-public record TypeConstruction<T>(Class<T> type, ConstructionPolicy policy)
+public record TypeConstruction<T>(Class<T> type, ConstructionPolicy policy, Duration timeToLive,
+                                  SingletonRetention retention)
 {
+    public TypeConstruction(Class<T> type, ConstructionPolicy policy)
+    {
+        this(type, policy, null, SingletonRetention.STRONG);
+    }
+
+    public TypeConstruction(Class<T> type, ConstructionPolicy policy, Duration timeToLive)
+    {
+        this(type, policy, timeToLive, SingletonRetention.STRONG);
+    }
 }
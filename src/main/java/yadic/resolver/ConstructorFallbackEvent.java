@@ -0,0 +1,25 @@
+package yadic.resolver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("yadic.ConstructorFallback")
+@Label("Constructor Fallback")
+@Category("YADIC")
+@Description("Constructor abandoned in favour of the next candidate")
+@StackTrace(false)
+class ConstructorFallbackEvent
+        extends jdk.jfr.Event
+{
+    @Label("Type")
+    Class<?> type;
+
+    @Label("Constructor")
+    String constructor;
+
+    @Label("Reason")
+    String reason;
+}
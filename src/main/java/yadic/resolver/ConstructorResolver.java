@@ -3,9 +3,17 @@ package yadic.resolver;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 
+import yadic.ConstructionPolicy;
 import yadic.DiException;
+import yadic.registry.valuetypes.TypeConstruction;
 import yadic.registry.valuetypes.Instance;
 import yadic.resolver.exception.CircularDependenciesException;
 import yadic.resolver.exception.MissingDependenciesException;
@@ -14,40 +22,368 @@ import yadic.resolver.exception.NoInstanceCreatedException;
 class ConstructorResolver
 {
     private final TypesResolver resolver;
+    private final PlanCache<TypeConstructors<?>> constructorsCache;
+    private final Map<Class<?>, Object> singletonLocks = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Expiry> expiries = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ElementsPlan> elementsPlans = new ConcurrentHashMap<>();
+    private final Map<EntriesMap.Parameter, Entries> entriesMaps = new ConcurrentHashMap<>();
 
     ConstructorResolver(TypesResolver resolver)
     {
         this.resolver = resolver;
+        constructorsCache =
+                new PlanCache<>(type -> new TypeConstructors<>(type, resolver.detailedExceptions));
     }
 
-    <T> T resolve(Class<T> type, Stack<Class<?>> path)
+    <T> T resolve(Class<T> type, ResolutionPath path)
     {
         path.push(type);
 
-        T object = resolveType(type, path);
+        if(resolver.metrics != null)
+            resolver.metrics.recordResolve(type);
 
-        path.pop();
-        return object;
+        ResolveEvent event = new ResolveEvent();
+        long start = resolver.observed ? System.nanoTime() : 0L;
+
+        event.begin();
+
+        try
+        {
+            T object = resolveType(type, path);
+
+            commit(event, type, path.depth(), false);
+            return object;
+        }
+        catch(DiException e)
+        {
+            commit(event, type, path.depth(), true);
+
+            if(resolver.observed)
+                resolver.listener.resolutionFailed(type, resolver.policyOf(type), path.depth(),
+                                                   System.nanoTime() - start, e);
+
+            throw e;
+        }
+        finally
+        {
+            path.pop();
+        }
+    }
+
+    /**
+     * Build construction plan of type mapped to given type without constructing anything.
+     * @param type type class
+     * @return concrete type of instances
+     */
+    Class<?> prepare(Class<?> type)
+    {
+        Class<?> concreteType = resolver.registry.findType(type).type();
+
+        getConstructors(concreteType);
+        return concreteType;
+    }
+
+    /**
+     * Check without resolving anything whether every constructor of type mapped to given type has
+     * a parameter of a type that is not registered, so that the type certainly cannot be
+     * constructed.
+     * @param type type class
+     * @return {@code true} if type lacks dependencies for all its constructors
+     */
+    boolean lacksDependencies(Class<?> type)
+    {
+        TypeConstructors<?> constructors = plan(resolver.registry.findType(type).type());
+
+        if(constructors.annotatedConstructor != null)
+            return lacksDependencies(constructors, constructors.annotatedConstructor);
+
+        if(constructors.parameterizedConstructors.isEmpty())
+            return false;
+
+        for(Constructor<?> constructor : constructors.parameterizedConstructors)
+            if(!lacksDependencies(constructors, constructor))
+                return false;
+
+        return true;
+    }
+
+    private boolean lacksDependencies(TypeConstructors<?> constructors,
+                                      Constructor<?> constructor)
+    {
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        Class<?>[] elementTypes = constructors.elementTypes(constructor);
+        EntriesMap.Parameter[] mapParameters = constructors.mapParameters(constructor);
+
+        for(int i = 0; i < parameterTypes.length; ++i)
+            if(entries(mapParameters, i) == null && elements(elementTypes, i).isEmpty()
+                    && !resolver.registry.contains(parameterTypes[i]))
+                return true;
+
+        return false;
     }
 
-    private <T> T resolveType(Class<T> type, Stack<Class<?>> path)
+    /**
+     * Forget singleton locks and expiry deadlines of types matching given predicate, and all
+     * plans of elements and entries.
+     * @param evicted predicate of evicted classes
+     */
+    void evict(Predicate<Class<?>> evicted)
     {
-        return resolver.registry.findInstance(type).extract(() -> createInstance(type, path));
+        singletonLocks.keySet().removeIf(evicted);
+        expiries.keySet().removeIf(evicted);
+        elementsPlans.clear();
+        entriesMaps.clear();
     }
 
-    private <T> T createInstance(Class<T> type, Stack<Class<?>> path)
+    /**
+     * Find elements to be injected for a constructor parameter.
+     * @param elementTypes element types of constructor parameters, or {@code null}
+     * @param index index of parameter
+     * @return element types registered for parameter, empty if it is not filled with elements
+     */
+    List<Class<?>> elements(Class<?>[] elementTypes, int index)
     {
-        Class<? extends T> subtype = resolver.registry.findType(type).type();
-        T object = construct(new TypeConstructors<>(subtype), path);
-        resolver.registry.addSingleton(type, object);
+        if(elementTypes == null || elementTypes[index] == null)
+            return List.of();
+
+        ElementsPlan plan = getElementsPlan(elementTypes[index]);
+
+        return plan == null ? List.of() : plan.types;
+    }
+
+    /**
+     * Find map of entries to be injected for a constructor parameter. Map is built again only
+     * when entries of its value type change.
+     * @param mapParameters types of constructor {@code Map} parameters, or {@code null}
+     * @param index index of parameter
+     * @return map of entries, or {@code null} if parameter is not filled with entries
+     */
+    EntriesMap<?, ?> entries(EntriesMap.Parameter[] mapParameters, int index)
+    {
+        if(mapParameters == null || mapParameters[index] == null)
+            return null;
+
+        EntriesMap.Parameter parameter = mapParameters[index];
+        Map<Object, Class<?>> source = resolver.registry.findEntries(parameter.valueType());
+        Entries entries = entriesMaps.get(parameter);
+
+        if(entries == null || entries.source() != source)
+        {
+            EntriesMap<?, ?> map = new EntriesMap<>(resolver, source);
+
+            entries = new Entries(source, !map.isEmpty() && map.hasKeysOf(parameter.keyType())
+                                          ? map : null);
+            entriesMaps.put(parameter, entries);
+        }
+
+        return entries.map();
+    }
+
+    private void commit(ResolveEvent event, Class<?> type, int depth, boolean failed)
+    {
+        event.end();
+
+        if(!event.shouldCommit())
+            return;
+
+        event.type = type;
+        event.depth = depth;
+        event.failed = failed;
+        event.policy = failed ? null : resolver.registry.findType(type).policy().name();
+        event.commit();
+    }
+
+    private <T> T resolveType(Class<T> type, ResolutionPath path)
+    {
+        T instance = resolver.registry.getInstance(type);
+
+        if(instance == null)
+            return createInstance(type, path);
+
+        if(resolver.metrics != null)
+            resolver.metrics.recordSingletonHit(type);
+
+        if(!expiries.isEmpty())
+            refreshIfExpired(type, instance);
+
+        addDependency(type, path);
+        return instance;
+    }
+
+    /**
+     * Start rebuilding instance of expiring type in background if it expired and no rebuild is
+     * running. The expired instance is still returned until the rebuilt one replaces it.
+     * @param type type class
+     * @param instance stored instance
+     */
+    private <T> void refreshIfExpired(Class<T> type, T instance)
+    {
+        Expiry expiry = expiries.get(type);
+
+        if(expiry != null && expiry.startRefresh(System.nanoTime()))
+            resolver.executor.execute(() -> refresh(type, instance, expiry));
+    }
+
+    private <T> void refresh(Class<T> type, T expired, Expiry expiry)
+    {
+        try
+        {
+            long version = resolver.registry.version();
+            ResolutionPath path = new ResolutionPath();
+
+            path.push(type);
+            path.markSingleton();
+
+            T object;
+
+            try
+            {
+                object = construct(type, resolver.registry.findType(type), path);
+            }
+            finally
+            {
+                path.pop();
+            }
+
+            // rebuilt instance is discarded if registrations changed meanwhile
+            resolver.registry.replaceSingleton(type, expired, resolver.inject(type, object, path),
+                                               version);
+        }
+        catch(RuntimeException e)
+        {
+            // expired instance is kept until the next refresh, failed closing of an older
+            // replaced instance does not affect the rebuilt one
+        }
+        finally
+        {
+            expiry.finishRefresh(System.nanoTime());
+        }
+    }
+
+    private void addDependency(Class<?> type, ResolutionPath path)
+    {
+        Class<?> singleton = path.enclosingSingleton();
+
+        if(singleton != null)
+            resolver.registry.addDependency(singleton, type);
+    }
+
+    private <T> T createInstance(Class<T> type, ResolutionPath path)
+    {
+        TypeConstruction<? extends T> mapping = resolver.registry.findType(type);
+
+        if(mapping.policy() == ConstructionPolicy.CONSTRUCTION)
+        {
+            T object = construct(type, mapping, path);
+
+            addDependency(type, path);
+            return object;
+        }
+
+        synchronized(singletonLocks.computeIfAbsent(type, t -> new Object()))
+        {
+            T instance = resolver.registry.getInstance(type);
+
+            if(instance != null)
+            {
+                if(resolver.metrics != null)
+                    resolver.metrics.recordSingletonHit(type);
+
+                addDependency(type, path);
+                return instance;
+            }
+
+            SingletonCreatedEvent event = new SingletonCreatedEvent();
+            long start = resolver.observed ? System.nanoTime() : 0L;
+
+            path.markSingleton();
+            event.begin();
+
+            // singleton is stored only after its setters and post-construct method succeeded,
+            // so other threads never get it unfinished and a failure leaves nothing stored
+            T object = resolver.registry.addSingleton(
+                    type, resolver.inject(type, construct(type, mapping, path), path));
+
+            if(mapping.policy() == ConstructionPolicy.EXPIRING)
+                expiries.put(type, new Expiry(mapping.timeToLive().toNanos()));
+            else if(!expiries.isEmpty())
+                expiries.remove(type);
+
+            event.end();
+
+            if(event.shouldCommit())
+            {
+                event.type = type;
+                event.instanceType = object.getClass();
+                event.depth = path.depth();
+                event.commit();
+            }
+
+            if(resolver.observed)
+                resolver.listener.singletonCreated(type, mapping.policy(), object, path.depth(),
+                                                   System.nanoTime() - start);
+
+            addDependency(type, path);
+            path.setInjected(object);
+            return object;
+        }
+    }
+
+    private <T> T construct(
+            Class<T> type, TypeConstruction<? extends T> mapping, ResolutionPath path)
+    {
+        TypeConstructors<? extends T> constructors = getConstructors(mapping.type());
+
+        if(!resolver.observed)
+        {
+            T object = construct(constructors, path);
+
+            path.setCreated(object);
+            return object;
+        }
+
+        resolver.listener.beforeConstruct(type, mapping.policy(), path.depth());
+
+        long start = System.nanoTime();
+        T object = construct(constructors, path);
+        long elapsed = System.nanoTime() - start;
+
+        path.setCreated(object);
+        resolver.listener.afterConstruct(type, mapping.policy(), path.depth(), elapsed);
+
+        if(resolver.metrics != null)
+        {
+            long constructorNanos = path.constructorNanos();
+
+            // dependencies resolved in parallel branches may together take longer than elapsed
+            resolver.metrics.recordConstruction(
+                    type, constructorNanos,
+                    Math.max(0L, elapsed - constructorNanos - path.nestedNanos()));
+        }
+
         return object;
     }
 
-    private <T> T construct(TypeConstructors<T> constructors, Stack<Class<?>> path)
+    /**
+     * @param type concrete type class
+     * @return cached constructors of type
+     */
+    TypeConstructors<?> plan(Class<?> type)
+    {
+        return constructorsCache.get(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> TypeConstructors<T> getConstructors(Class<T> type)
+    {
+        return (TypeConstructors<T>)constructorsCache.get(type);
+    }
+
+    private <T> T construct(TypeConstructors<T> constructors, ResolutionPath path)
     {
         if(constructors.annotatedConstructor != null)
         {
-            Instance<T> instance = invoke(constructors.annotatedConstructor, path);
+            Instance<T> instance = invoke(constructors, constructors.annotatedConstructor, path);
 
             try
             {
@@ -55,59 +391,347 @@ class ConstructorResolver
             }
             catch(Exception e)
             {
-                throw new NoInstanceCreatedException(String.format(
+                throw new NoInstanceCreatedException(resolver.detailedExceptions, e,
                         "Dependency constructor could not produce an instance for type %s",
-                        constructors.typename), e);
+                        constructors.typename);
             }
         }
 
         Instance<T> instance = Instance.none();
 
         for(int i = 0; i < constructors.parameterizedConstructors.size() && !instance.exists(); ++i)
+        {
+            Constructor<T> constructor = constructors.parameterizedConstructors.get(i);
+
             try
             {
-                instance = invoke(constructors.parameterizedConstructors.get(i), path);
+                instance = invoke(constructors, constructor, path);
             }
             catch(DiException e)
             {
                 instance = Instance.none(e);
             }
 
+            if(!instance.exists())
+                emitFallback(constructor, instance);
+        }
+
         return instance.extract();
     }
 
-    private <T> Instance<T> invoke(Constructor<T> constructor, Stack<Class<?>> path)
+    private void emitFallback(Constructor<?> constructor, Instance<?> instance)
+    {
+        ConstructorFallbackEvent event = new ConstructorFallbackEvent();
+
+        if(!event.isEnabled())
+            return;
+
+        event.type = constructor.getDeclaringClass();
+        event.constructor = constructor.toString();
+        event.reason = instance.failure().getMessage();
+        event.commit();
+    }
+
+    private <T> Instance<T> invoke(TypeConstructors<T> constructors, Constructor<T> constructor,
+                                   ResolutionPath path)
     {
-        List<Object> parameters = new ArrayList<>();
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        Class<?>[] elementTypes = constructors.elementTypes(constructor);
+        EntriesMap.Parameter[] mapParameters = constructors.mapParameters(constructor);
         String typename = constructor.getDeclaringClass().getName();
 
-        for(Class<?> parameter : constructor.getParameterTypes())
+        for(int i = 0; i < parameterTypes.length; ++i)
         {
-            if(path.contains(parameter))
-                return Instance.none(new CircularDependenciesException(String.format(
-                        "Dependencies resolving detected a cycle detected between %s and %s",
-                        parameter.getName(), typename)));
+            Class<?> parameter = parameterTypes[i];
+            List<Class<?>> elements = elements(elementTypes, i);
 
-            if(!resolver.registry.contains(parameter))
-                return Instance.none(new MissingDependenciesException(
-                        String.format("No dependency for type %s found when resolving type %s",
-                                      parameter.getName(), typename)));
+            // values of entries are resolved on access, so they cannot form a cycle here
+            if(entries(mapParameters, i) != null)
+                continue;
+
+            if(!elements.isEmpty())
+            {
+                for(Class<?> element : elements)
+                    if(path.checkCycles && path.contains(element))
+                        return circular(element, typename);
 
-            parameters.add(resolver.resolve(parameter, path));
+                continue;
+            }
+
+            if(path.checkCycles && path.contains(parameter))
+                return circular(parameter, typename);
+
+            if(!resolver.registry.contains(parameter))
+                return Instance.none(() -> new MissingDependenciesException(
+                        resolver.detailedExceptions,
+                        "No dependency for type %s found when resolving type %s",
+                        parameter.getName(), typename));
         }
 
+        Object[] parameters = path.parallel && parameterTypes.length > 1
+                              ? resolveParallel(parameterTypes, elementTypes, mapParameters,
+                                                path)
+                              : resolveSequential(parameterTypes, elementTypes, mapParameters,
+                                                  path);
+
         try
         {
-            return Instance.of(constructor.newInstance(parameters.toArray()),
-                               new NoInstanceCreatedException(String.format(
+            T object = resolver.observed ? newInstanceTimed(constructor, parameters, path)
+                                         : constructor.newInstance(parameters);
+
+            return Instance.of(object,
+                               () -> new NoInstanceCreatedException(
+                                       resolver.detailedExceptions,
                                        "Constructor could not produce an instance of type %s",
-                                       typename)));
+                                       typename));
         }
         catch(Exception e)
         {
-            return Instance.none(new NoInstanceCreatedException(
-                    String.format("Could not invoke constructor due to an error: %s",
-                                  e.getMessage()), e));
+            path.markTransientFailure();
+            return Instance.none(() -> new NoInstanceCreatedException(
+                    resolver.detailedExceptions, e,
+                    "Could not invoke constructor due to an error: %s", e.getMessage()));
+        }
+    }
+
+    private <T> Instance<T> circular(Class<?> parameter, String typename)
+    {
+        return Instance.none(() -> new CircularDependenciesException(
+                resolver.detailedExceptions,
+                "Dependencies resolving detected a cycle detected between %s and %s",
+                parameter.getName(), typename));
+    }
+
+    private <T> T newInstanceTimed(Constructor<T> constructor, Object[] parameters,
+                                   ResolutionPath path)
+            throws ReflectiveOperationException
+    {
+        long start = System.nanoTime();
+
+        try
+        {
+            return constructor.newInstance(parameters);
+        }
+        finally
+        {
+            path.addConstructorNanos(System.nanoTime() - start);
+        }
+    }
+
+    private Object[] resolveSequential(Class<?>[] parameterTypes, Class<?>[] elementTypes,
+                                       EntriesMap.Parameter[] mapParameters, ResolutionPath path)
+    {
+        Object[] parameters = new Object[parameterTypes.length];
+
+        for(int i = 0; i < parameterTypes.length; ++i)
+            parameters[i] = resolveParameter(parameterTypes, elementTypes, mapParameters, i, path);
+
+        return parameters;
+    }
+
+    /**
+     * Resolve all parameters but the last one in branches on the configured executor, and the
+     * last one in current thread. Branches not yet started by the executor are run in current
+     * thread when joined, and resolve their own dependencies sequentially, so waiting for them
+     * never needs a free thread of a bounded executor. When any parameter fails, branches not
+     * yet started are cancelled and the others are awaited, with their own failures added as
+     * suppressed.
+     */
+    private Object[] resolveParallel(Class<?>[] parameterTypes, Class<?>[] elementTypes,
+                                     EntriesMap.Parameter[] mapParameters, ResolutionPath path)
+    {
+        int last = parameterTypes.length - 1;
+        List<FutureTask<Object>> tasks = new ArrayList<>(last);
+        List<ResolutionPath> branches = new ArrayList<>(last);
+        Object[] parameters = new Object[parameterTypes.length];
+
+        for(int i = 0; i < last; ++i)
+        {
+            int index = i;
+            ResolutionPath branch = path.copy();
+            FutureTask<Object> task = new FutureTask<>(
+                    () -> resolveParameter(parameterTypes, elementTypes, mapParameters, index,
+                                           branch));
+
+            tasks.add(task);
+            branches.add(branch);
+            resolver.executor.execute(task);
+        }
+
+        int joined = 0;
+
+        try
+        {
+            parameters[last] =
+                    resolveParameter(parameterTypes, elementTypes, mapParameters, last, path);
+
+            for(; joined < last; ++joined)
+            {
+                parameters[joined] = join(tasks.get(joined));
+                path.merge(branches.get(joined));
+            }
+        }
+        catch(RuntimeException | Error e)
+        {
+            for(int i = joined; i < last; ++i)
+            {
+                cancelOrAwait(tasks.get(i), e);
+                path.merge(branches.get(i));
+            }
+
+            throw e;
+        }
+
+        return parameters;
+    }
+
+    private static void cancelOrAwait(FutureTask<Object> task, Throwable failure)
+    {
+        if(task.cancel(false))
+            return;
+
+        try
+        {
+            task.get();
+        }
+        catch(ExecutionException e)
+        {
+            if(e.getCause() != failure)
+                failure.addSuppressed(e.getCause());
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Object join(FutureTask<Object> task)
+    {
+        // does nothing if the task was already started by the executor
+        task.run();
+
+        try
+        {
+            return task.get();
+        }
+        catch(ExecutionException e)
+        {
+            if(e.getCause() instanceof RuntimeException cause)
+                throw cause;
+
+            if(e.getCause() instanceof Error cause)
+                throw cause;
+
+            throw new CompletionException(e.getCause());
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private Object resolveParameter(Class<?>[] parameterTypes, Class<?>[] elementTypes,
+                                    EntriesMap.Parameter[] mapParameters, int index,
+                                    ResolutionPath path)
+    {
+        EntriesMap<?, ?> entries = entries(mapParameters, index);
+
+        if(entries != null)
+        {
+            Class<?> singleton = path.nearestSingleton();
+
+            if(singleton != null)
+                resolver.registry.addDependency(singleton, mapParameters[index].valueType());
+
+            return entries;
+        }
+
+        ElementsPlan plan = elementTypes == null || elementTypes[index] == null
+                            ? null : getElementsPlan(elementTypes[index]);
+
+        return plan == null ? resolver.resolve(parameterTypes[index], path)
+                            : resolveElements(parameterTypes[index], plan, path);
+    }
+
+    /**
+     * Fill collection or array with all elements of plan. Enclosing singleton is recorded as
+     * depending on element type and each element, so it is rebuilt when elements change.
+     * @param parameterType collection or array type
+     * @param plan plan of elements
+     * @param path resolution path
+     * @return collection of elements
+     */
+    private Object resolveElements(Class<?> parameterType, ElementsPlan plan, ResolutionPath path)
+    {
+        Class<?> singleton = path.nearestSingleton();
+
+        if(singleton != null)
+        {
+            resolver.registry.addDependency(singleton, plan.elementType);
+            plan.types.forEach(type -> resolver.registry.addDependency(singleton, type));
+        }
+
+        Object collection = plan.cached(parameterType);
+
+        if(collection != null)
+            return collection;
+
+        Object[] elements = new Object[plan.types.size()];
+
+        for(int i = 0; i < elements.length; ++i)
+            elements[i] = resolver.resolve(plan.types.get(i), path);
+
+        return plan.collect(parameterType, elements);
+    }
+
+    /**
+     * Get plan of elements registered for given type with current registrations.
+     * @param elementType element type class
+     * @return plan of elements, or {@code null} if type has no elements
+     */
+    private ElementsPlan getElementsPlan(Class<?> elementType)
+    {
+        long version = resolver.registry.version();
+        ElementsPlan plan = elementsPlans.get(elementType);
+
+        if(plan == null || plan.version != version)
+        {
+            List<Class<?>> types = resolver.registry.findElements(elementType);
+
+            plan = new ElementsPlan(version, elementType, types,
+                                    types.stream().allMatch(resolver::isSharedSingleton));
+            elementsPlans.put(elementType, plan);
+        }
+
+        return plan.types.isEmpty() ? null : plan;
+    }
+
+    private record Entries(Map<Object, Class<?>> source, EntriesMap<?, ?> map)
+    {
+    }
+
+    private static final class Expiry
+    {
+        private final long timeToLiveNanos;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long deadlineNanos;
+
+        Expiry(long timeToLiveNanos)
+        {
+            this.timeToLiveNanos = timeToLiveNanos;
+            deadlineNanos = System.nanoTime() + timeToLiveNanos;
+        }
+
+        boolean startRefresh(long nowNanos)
+        {
+            return nowNanos - deadlineNanos >= 0 && refreshing.compareAndSet(false, true);
+        }
+
+        void finishRefresh(long nowNanos)
+        {
+            deadlineNanos = nowNanos + timeToLiveNanos;
+            refreshing.set(false);
         }
     }
 }
@@ -0,0 +1,271 @@
+package yadic.resolver;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import yadic.DiException;
+import yadic.graph.DependencyNode;
+import yadic.registry.valuetypes.TypeConstruction;
+
+/**
+ * Static graph of dependencies between types, built from constructor parameters and
+ * {@code @Dependency} setters without constructing anything. Cycles are found as strongly
+ * connected components with Tarjan's algorithm. Types proven acyclic are remembered until the
+ * next registration, so their resolution can skip dynamic cycle checks.
+ */
+final class DependencyGraph
+{
+    private final TypesResolver resolver;
+    private final ConstructorResolver constructorResolver;
+    private final SetterResolver setterResolver;
+    private final Map<Class<?>, Analysis> analyses = new ConcurrentHashMap<>();
+
+    DependencyGraph(TypesResolver resolver, ConstructorResolver constructorResolver,
+                    SetterResolver setterResolver)
+    {
+        this.resolver = resolver;
+        this.constructorResolver = constructorResolver;
+        this.setterResolver = setterResolver;
+    }
+
+    /**
+     * Check whether no type reachable from given type depends on itself with current
+     * registrations.
+     * @param type type class
+     * @return {@code true} if dependencies of type certainly contain no cycle
+     */
+    boolean isAcyclic(Class<?> type)
+    {
+        long version = resolver.registry.version();
+        Analysis analysis = analyses.get(type);
+
+        if(analysis != null && analysis.version() == version)
+            return analysis.acyclic();
+
+        boolean acyclic = new Tarjan().run(List.of(type)).isEmpty();
+
+        analyses.put(type, new Analysis(version, acyclic));
+        return acyclic;
+    }
+
+    /**
+     * Find all cycles of dependencies reachable from given types.
+     * @param types types classes
+     * @return members of each cycle, each in order of discovery
+     */
+    List<List<Class<?>>> cycles(Collection<Class<?>> types)
+    {
+        return new Tarjan().run(types);
+    }
+
+    void evict(Predicate<Class<?>> evicted)
+    {
+        analyses.keySet().removeIf(evicted);
+    }
+
+    /**
+     * Build nodes of all types reachable from given types, in breadth-first order.
+     * @param types types classes
+     * @return nodes of graph
+     */
+    List<DependencyNode> nodes(Collection<Class<?>> types)
+    {
+        List<DependencyNode> nodes = new ArrayList<>();
+        Set<Class<?>> visited = new HashSet<>(types);
+        Deque<Class<?>> queue = new ArrayDeque<>(types);
+
+        while(!queue.isEmpty())
+        {
+            DependencyNode node = node(queue.poll());
+
+            nodes.add(node);
+            Stream.concat(node.constructorDependencies().stream(),
+                          node.setterDependencies().stream())
+                  .filter(visited::add)
+                  .forEach(queue::add);
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Find dependencies of given type, directly or transitively, that match given predicate,
+     * without following dependencies of matching types further.
+     * @param type type class
+     * @param matching predicate of searched types
+     * @return nearest matching dependencies
+     */
+    Set<Class<?>> nearestDependencies(Class<?> type, Predicate<Class<?>> matching)
+    {
+        Set<Class<?>> found = new HashSet<>();
+        Set<Class<?>> visited = new HashSet<>(Set.of(type));
+        Deque<Class<?>> queue = new ArrayDeque<>(dependencies(type));
+
+        while(!queue.isEmpty())
+        {
+            Class<?> dependency = queue.poll();
+
+            if(!visited.add(dependency))
+                continue;
+
+            if(matching.test(dependency))
+                found.add(dependency);
+            else
+                queue.addAll(dependencies(dependency));
+        }
+
+        return found;
+    }
+
+    private DependencyNode node(Class<?> type)
+    {
+        List<Class<?>> constructorDependencies = new ArrayList<>();
+        List<Class<?>> setterDependencies = new ArrayList<>();
+        TypeConstruction<?> mapping;
+
+        try
+        {
+            mapping = resolver.registry.findType(type);
+
+            // registered instances are never constructed, so they have no dependencies
+            if(resolver.registry.isInstance(type))
+                return new DependencyNode(type, mapping.type(), mapping.policy(), List.of(),
+                                          List.of());
+
+            TypeConstructors<?> constructors = constructorResolver.plan(mapping.type());
+
+            if(constructors.annotatedConstructor != null)
+                addParameters(constructors.annotatedConstructor,
+                              constructors.elementTypes(constructors.annotatedConstructor),
+                              constructorDependencies);
+            else
+                for(Constructor<?> constructor : constructors.parameterizedConstructors)
+                    addParameters(constructor, constructors.elementTypes(constructor),
+                                  constructorDependencies);
+
+            for(Method setter : setterResolver.plan(mapping.type()))
+                addParameters(setter, null, setterDependencies);
+        }
+        catch(DiException e)
+        {
+            // type cannot be constructed, so its resolution stops here
+            return new DependencyNode(type, null, null, List.of(), List.of());
+        }
+
+        return new DependencyNode(type, mapping.type(), mapping.policy(),
+                                  List.copyOf(constructorDependencies),
+                                  List.copyOf(setterDependencies));
+    }
+
+    private List<Class<?>> dependencies(Class<?> type)
+    {
+        DependencyNode node = node(type);
+
+        return Stream.concat(node.constructorDependencies().stream(),
+                             node.setterDependencies().stream())
+                     .toList();
+    }
+
+    /**
+     * Add registered parameter types of given constructor or method to dependencies. Collection
+     * and array parameters filled with elements depend on each element instead.
+     * @param executable constructor or method
+     * @param elementTypes element types of its parameters, or {@code null}
+     * @param dependencies list of dependencies
+     */
+    private void addParameters(Executable executable, Class<?>[] elementTypes,
+                               List<Class<?>> dependencies)
+    {
+        Class<?>[] parameterTypes = executable.getParameterTypes();
+
+        for(int i = 0; i < parameterTypes.length; ++i)
+        {
+            List<Class<?>> elements = constructorResolver.elements(elementTypes, i);
+
+            if(elements.isEmpty() && resolver.registry.contains(parameterTypes[i]))
+                elements = List.of(parameterTypes[i]);
+
+            for(Class<?> dependency : elements)
+                if(!dependencies.contains(dependency))
+                    dependencies.add(dependency);
+        }
+    }
+
+    private record Analysis(long version, boolean acyclic)
+    {
+    }
+
+    /** Single run of Tarjan's algorithm, collecting components that form cycles. */
+    private final class Tarjan
+    {
+        private final Map<Class<?>, Integer> indices = new HashMap<>();
+        private final Map<Class<?>, Integer> lowLinks = new HashMap<>();
+        private final Deque<Class<?>> stack = new ArrayDeque<>();
+        private final Set<Class<?>> onStack = new HashSet<>();
+        private final List<List<Class<?>>> cycles = new ArrayList<>();
+
+        List<List<Class<?>>> run(Collection<Class<?>> roots)
+        {
+            for(Class<?> root : roots)
+                if(!indices.containsKey(root))
+                    visit(root);
+
+            return cycles;
+        }
+
+        private void visit(Class<?> type)
+        {
+            int index = indices.size();
+            List<Class<?>> dependencies = dependencies(type);
+            boolean selfLoop = false;
+
+            indices.put(type, index);
+            lowLinks.put(type, index);
+            stack.push(type);
+            onStack.add(type);
+
+            for(Class<?> dependency : dependencies)
+            {
+                if(dependency == type)
+                    selfLoop = true;
+
+                if(!indices.containsKey(dependency))
+                {
+                    visit(dependency);
+                    lowLinks.put(type, Math.min(lowLinks.get(type), lowLinks.get(dependency)));
+                }
+                else if(onStack.contains(dependency))
+                    lowLinks.put(type, Math.min(lowLinks.get(type), indices.get(dependency)));
+            }
+
+            if(lowLinks.get(type) != index)
+                return;
+
+            List<Class<?>> component = new ArrayList<>();
+            Class<?> member = null;
+
+            while(member != type)
+            {
+                member = stack.pop();
+                onStack.remove(member);
+                component.add(0, member);
+            }
+
+            if(component.size() > 1 || selfLoop)
+                cycles.add(component);
+        }
+    }
+}
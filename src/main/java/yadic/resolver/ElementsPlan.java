@@ -0,0 +1,157 @@
+package yadic.resolver;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Executable;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ordered elements injected as {@code List}, {@code Set}, {@code Collection} or array of an
+ * element type, valid for a single version of registrations. When all elements are shared
+ * singletons or instances, the first collection of each kind is kept and injected again.
+ */
+final class ElementsPlan
+{
+    final long version;
+    final Class<?> elementType;
+    final List<Class<?>> types;
+    /** Whether all elements are strongly held singletons or instances. */
+    final boolean shared;
+    private volatile List<Object> list;
+    private volatile Set<Object> set;
+    private volatile Object[] array;
+
+    ElementsPlan(long version, Class<?> elementType, List<Class<?>> types, boolean shared)
+    {
+        this.version = version;
+        this.elementType = elementType;
+        this.types = types;
+        this.shared = shared;
+    }
+
+    /**
+     * @param parameterType collection or array type
+     * @return collection of elements built before, or {@code null} if there is none
+     */
+    Object cached(Class<?> parameterType)
+    {
+        if(parameterType.isArray())
+        {
+            Object[] elements = array;
+
+            return elements == null ? null : elements.clone();
+        }
+
+        return parameterType == Set.class ? set : list;
+    }
+
+    /**
+     * Build collection of given type from resolved elements, and keep it if elements are
+     * shared. Arrays are mutable, so only their copies are injected.
+     * @param parameterType collection or array type
+     * @param elements resolved elements in order of types
+     * @return collection of elements
+     */
+    Object collect(Class<?> parameterType, Object[] elements)
+    {
+        if(parameterType.isArray())
+        {
+            Object[] collected = (Object[])Array.newInstance(elementType, elements.length);
+
+            System.arraycopy(elements, 0, collected, 0, elements.length);
+
+            if(shared)
+                array = collected.clone();
+
+            return collected;
+        }
+
+        if(parameterType == Set.class)
+        {
+            Set<Object> collected =
+                    Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(elements)));
+
+            if(shared)
+                set = collected;
+
+            return collected;
+        }
+
+        List<Object> collected = List.of(elements);
+
+        if(shared)
+            list = collected;
+
+        return collected;
+    }
+
+    /**
+     * Find element types of parameters that can be filled with registered elements.
+     * @param executable constructor or method
+     * @return element type of each collection or array parameter and {@code null} for other
+     * parameters, or {@code null} if there are no such parameters
+     */
+    static Class<?>[] elementTypes(Executable executable)
+    {
+        Class<?>[] parameterTypes = executable.getParameterTypes();
+        Type[] genericTypes = executable.getGenericParameterTypes();
+        Class<?>[] elementTypes = null;
+
+        // generic types omit synthetic parameters, so they are matched from the end
+        for(int i = 1; i <= Math.min(parameterTypes.length, genericTypes.length); ++i)
+        {
+            Class<?> elementType = elementType(parameterTypes[parameterTypes.length - i],
+                                               genericTypes[genericTypes.length - i]);
+
+            if(elementType == null)
+                continue;
+
+            if(elementTypes == null)
+                elementTypes = new Class<?>[parameterTypes.length];
+
+            elementTypes[parameterTypes.length - i] = elementType;
+        }
+
+        return elementTypes;
+    }
+
+    private static Class<?> elementType(Class<?> parameterType, Type genericType)
+    {
+        if(parameterType.isArray())
+            return parameterType.getComponentType().isPrimitive()
+                   ? null : parameterType.getComponentType();
+
+        if(parameterType != List.class && parameterType != Set.class
+                && parameterType != Collection.class)
+            return null;
+
+        return typeArgument(genericType, 0);
+    }
+
+    /**
+     * @param genericType generic parameter type
+     * @param index index of type argument
+     * @return class of type argument or upper bound of wildcard, or {@code null} if it is
+     * {@code Object} or not a class
+     */
+    static Class<?> typeArgument(Type genericType, int index)
+    {
+        if(!(genericType instanceof ParameterizedType parameterized))
+            return null;
+
+        Type argument = parameterized.getActualTypeArguments()[index];
+
+        if(argument instanceof WildcardType wildcard)
+            argument = wildcard.getUpperBounds()[0];
+
+        return argument instanceof Class<?> argumentClass && argumentClass != Object.class
+               ? argumentClass : null;
+    }
+}
@@ -0,0 +1,258 @@
+package yadic.resolver;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.Type;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Immutable map of keyed entries injected as {@code Map} of a value type. Keys are placed once
+ * in an open-addressing table with linear probing, so lookups allocate nothing. Values are
+ * resolved on each access according to the policy of their types; strongly held singletons are
+ * kept after the first access until registrations change.
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+final class EntriesMap<K, V>
+        extends AbstractMap<K, V>
+{
+    /** Registered entries this map was built from. */
+    final Map<Object, Class<?>> source;
+    private final TypesResolver resolver;
+    private final Object[] keys;
+    private final Class<?>[] types;
+    private final Object[] table;
+    private final int[] indices;
+    private final Set<K> keySet;
+    private volatile Snapshot snapshot;
+
+    @SuppressWarnings("unchecked")
+    EntriesMap(TypesResolver resolver, Map<Object, Class<?>> source)
+    {
+        this.resolver = resolver;
+        this.source = source;
+        keys = source.keySet().toArray();
+        types = source.values().toArray(Class<?>[]::new);
+        table = new Object[Integer.highestOneBit(Math.max(1, keys.length) * 2) * 2];
+        indices = new int[table.length];
+        keySet = Collections.unmodifiableSet(new LinkedHashSet<>((Set<K>)source.keySet()));
+
+        for(int i = 0; i < keys.length; ++i)
+        {
+            int slot = hash(keys[i]);
+
+            while(table[slot] != null)
+                slot = (slot + 1) & (table.length - 1);
+
+            table[slot] = keys[i];
+            indices[slot] = i;
+        }
+    }
+
+    /**
+     * @param keyType class of keys, or {@code null} if keys can be anything
+     * @return {@code true} if all keys are instances of given class
+     */
+    boolean hasKeysOf(Class<?> keyType)
+    {
+        if(keyType == null)
+            return true;
+
+        for(Object key : keys)
+            if(!keyType.isInstance(key))
+                return false;
+
+        return true;
+    }
+
+    @Override
+    public int size()
+    {
+        return keys.length;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return keys.length == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key)
+    {
+        int index = indexOf(key);
+
+        return index < 0 ? null : value(index);
+    }
+
+    @Override
+    public Set<K> keySet()
+    {
+        return keySet;
+    }
+
+    /**
+     * Entries of this map in order of registration. Each value is resolved when its entry is
+     * reached by the iterator.
+     * @return set of entries
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet()
+    {
+        return new AbstractSet<>()
+        {
+            @Override
+            public Iterator<Entry<K, V>> iterator()
+            {
+                return new Iterator<>()
+                {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return index < keys.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<K, V> next()
+                    {
+                        if(!hasNext())
+                            throw new NoSuchElementException();
+
+                        int current = index++;
+
+                        return new SimpleImmutableEntry<>((K)keys[current], value(current));
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return keys.length;
+            }
+        };
+    }
+
+    private int indexOf(Object key)
+    {
+        if(key == null)
+            return -1;
+
+        for(int slot = hash(key); table[slot] != null; slot = (slot + 1) & (table.length - 1))
+            if(table[slot].equals(key))
+                return indices[slot];
+
+        return -1;
+    }
+
+    private int hash(Object key)
+    {
+        int hash = key.hashCode();
+
+        return (hash ^ (hash >>> 16)) & (table.length - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int index)
+    {
+        Snapshot current = snapshot();
+
+        if(!current.shared[index])
+            return (V)resolver.resolve(types[index]);
+
+        Object value = current.values.get(index);
+
+        if(value == null)
+        {
+            value = resolver.resolve(types[index]);
+            current.values.compareAndSet(index, null, value);
+        }
+
+        return (V)value;
+    }
+
+    /**
+     * @return values kept for current registrations, taken again when registrations changed
+     */
+    private Snapshot snapshot()
+    {
+        long currentVersion = resolver.registry.version();
+        Snapshot current = snapshot;
+
+        if(current != null && current.version == currentVersion)
+            return current;
+
+        boolean[] shared = new boolean[types.length];
+
+        for(int i = 0; i < types.length; ++i)
+            shared[i] = resolver.isSharedSingleton(types[i]);
+
+        current = new Snapshot(currentVersion, shared, new AtomicReferenceArray<>(types.length));
+        snapshot = current;
+        return current;
+    }
+
+    /**
+     * Find key and value types of parameters that can be filled with registered entries.
+     * @param executable constructor or method
+     * @return types of each {@code Map} parameter and {@code null} for other parameters, or
+     * {@code null} if there are no such parameters
+     */
+    static Parameter[] parameters(Executable executable)
+    {
+        Class<?>[] parameterTypes = executable.getParameterTypes();
+        Type[] genericTypes = executable.getGenericParameterTypes();
+        Parameter[] parameters = null;
+
+        // generic types omit synthetic parameters, so they are matched from the end
+        for(int i = 1; i <= Math.min(parameterTypes.length, genericTypes.length); ++i)
+        {
+            Type genericType = genericTypes[genericTypes.length - i];
+
+            if(parameterTypes[parameterTypes.length - i] != Map.class)
+                continue;
+
+            Class<?> valueType = ElementsPlan.typeArgument(genericType, 1);
+
+            if(valueType == null)
+                continue;
+
+            if(parameters == null)
+                parameters = new Parameter[parameterTypes.length];
+
+            parameters[parameterTypes.length - i] =
+                    new Parameter(ElementsPlan.typeArgument(genericType, 0), valueType);
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Types of a {@code Map} parameter.
+     * @param keyType class of keys, or {@code null} if keys can be anything
+     * @param valueType class of values
+     */
+    record Parameter(Class<?> keyType, Class<?> valueType)
+    {
+    }
+
+    private record Snapshot(long version, boolean[] shared, AtomicReferenceArray<Object> values)
+    {
+    }
+}
@@ -0,0 +1,25 @@
+package yadic.resolver;
+
+import java.util.function.Function;
+
+/**
+ * Cache of plans computed once per class. Plans are stored with the classes themselves, so the
+ * cache never keeps any class or its class loader reachable.
+ * @param <V> type of plans
+ */
+final class PlanCache<V>
+        extends ClassValue<V>
+{
+    private final Function<Class<?>, V> factory;
+
+    PlanCache(Function<Class<?>, V> factory)
+    {
+        this.factory = factory;
+    }
+
+    @Override
+    protected V computeValue(Class<?> type)
+    {
+        return factory.apply(type);
+    }
+}
@@ -0,0 +1,85 @@
+package yadic.resolver;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+import yadic.annotation.PostConstruct;
+import yadic.resolver.exception.IncorrectPostConstructException;
+import yadic.resolver.exception.PostConstructInvocationException;
+
+class PostConstructResolver
+{
+    private static final MethodHandle[] NO_HOOKS = new MethodHandle[0];
+    private static final MethodType HOOK_TYPE = MethodType.methodType(void.class, Object.class);
+    private final TypesResolver resolver;
+    private final PlanCache<MethodHandle[]> hooksCache = new PlanCache<>(this::findHooks);
+
+    PostConstructResolver(TypesResolver resolver)
+    {
+        this.resolver = resolver;
+    }
+
+    void prepare(Class<?> type)
+    {
+        hooksCache.get(type);
+    }
+
+    <T> T invoke(T object)
+    {
+        MethodHandle[] hooks = hooksCache.get(object.getClass());
+
+        for(MethodHandle hook : hooks)
+            try
+            {
+                hook.invokeExact((Object)object);
+            }
+            catch(Throwable t)
+            {
+                if(t instanceof Error error)
+                    throw error;
+
+                throw new PostConstructInvocationException(resolver.detailedExceptions, t,
+                        "Post-construct method of type %s failed due to an error: %s",
+                        object.getClass().getName(), t.getMessage());
+            }
+
+        return object;
+    }
+
+    private MethodHandle[] findHooks(Class<?> type)
+    {
+        MethodHandle[] hooks = Arrays.stream(type.getMethods())
+                                     .filter(method -> method.isAnnotationPresent(
+                                             PostConstruct.class))
+                                     .map(this::unreflect)
+                                     .toArray(MethodHandle[]::new);
+
+        return hooks.length == 0 ? NO_HOOKS : hooks;
+    }
+
+    private MethodHandle unreflect(Method method)
+    {
+        if(Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 0
+                || method.getReturnType() != void.class)
+            throw new IncorrectPostConstructException(resolver.detailedExceptions,
+                    "Post-construct method %s must be a void instance method without parameters",
+                    method.getName());
+
+        try
+        {
+            return MethodHandles.publicLookup()
+                                .unreflect(method)
+                                .asType(HOOK_TYPE);
+        }
+        catch(IllegalAccessException e)
+        {
+            throw new IncorrectPostConstructException(resolver.detailedExceptions,
+                                                      "Post-construct method %s is not accessible",
+                                                      method.getName());
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package yadic.resolver;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import yadic.ConstructionPolicy;
+import yadic.DiException;
+import yadic.explain.RejectedConstructor;
+import yadic.explain.ResolutionPlan;
+import yadic.explain.SetterPlan;
+import yadic.registry.valuetypes.TypeConstruction;
+
+/**
+ * Single explanation of resolving a type. Follows the same decisions as resolution, using cached
+ * constructors and setters, but constructs nothing.
+ */
+final class ResolutionExplainer
+{
+    private final TypesResolver resolver;
+    private final ConstructorResolver constructorResolver;
+    private final SetterResolver setterResolver;
+    private final Set<Class<?>> active = new HashSet<>();
+    private final Set<Class<?>> plannedSingletons = new HashSet<>();
+
+    ResolutionExplainer(TypesResolver resolver, ConstructorResolver constructorResolver,
+                        SetterResolver setterResolver)
+    {
+        this.resolver = resolver;
+        this.constructorResolver = constructorResolver;
+        this.setterResolver = setterResolver;
+    }
+
+    ResolutionPlan explain(Class<?> type)
+    {
+        List<Class<?>> chain;
+        TypeConstruction<?> mapping;
+
+        try
+        {
+            chain = List.copyOf(resolver.registry.findChain(type));
+            mapping = resolver.registry.findType(type);
+        }
+        catch(DiException e)
+        {
+            return ResolutionPlan.ofFailure(type, List.of(type), e.getMessage());
+        }
+
+        if(resolver.registry.isInstance(type))
+            return ResolutionPlan.ofExisting(type, chain, mapping.policy(),
+                                             ResolutionPlan.Source.INSTANCE);
+
+        if(resolver.registry.getInstance(type) != null || plannedSingletons.contains(type))
+            return ResolutionPlan.ofExisting(type, chain, mapping.policy(),
+                                             ResolutionPlan.Source.SINGLETON);
+
+        if(!active.add(type))
+            return ResolutionPlan.ofFailure(type, chain,
+                                            String.format("Type %s depends on itself",
+                                                          type.getName()));
+
+        try
+        {
+            return explainConstruction(type, chain, mapping);
+        }
+        catch(DiException e)
+        {
+            return ResolutionPlan.ofFailure(type, chain, e.getMessage());
+        }
+        finally
+        {
+            active.remove(type);
+        }
+    }
+
+    private ResolutionPlan explainConstruction(
+            Class<?> type, List<Class<?>> chain, TypeConstruction<?> mapping)
+    {
+        TypeConstructors<?> constructors = constructorResolver.plan(mapping.type());
+        List<? extends Constructor<?>> candidates = constructors.annotatedConstructor != null
+                                                    ? List.of(constructors.annotatedConstructor)
+                                                    : constructors.parameterizedConstructors;
+
+        List<RejectedConstructor> rejected = new ArrayList<>();
+
+        for(int i = 0; i < candidates.size(); ++i)
+        {
+            Constructor<?> candidate = candidates.get(i);
+            Class<?>[] elementTypes = constructors.elementTypes(candidate);
+            EntriesMap.Parameter[] mapParameters = constructors.mapParameters(candidate);
+            String reason = rejection(candidate, elementTypes, mapParameters);
+            List<ResolutionPlan> arguments = List.of();
+
+            if(reason == null)
+            {
+                arguments = explainArguments(candidate, elementTypes, mapParameters);
+                reason = arguments.isEmpty() ? null : arguments.get(arguments.size() - 1).failure();
+            }
+
+            if(reason != null)
+            {
+                rejected.add(new RejectedConstructor(candidate, reason));
+                continue;
+            }
+
+            ResolutionPlan.Source source = mapping.policy() == ConstructionPolicy.CONSTRUCTION
+                                           ? ResolutionPlan.Source.CONSTRUCTION
+                                           : ResolutionPlan.Source.NEW_SINGLETON;
+
+            if(source == ResolutionPlan.Source.NEW_SINGLETON)
+                plannedSingletons.add(type);
+
+            return new ResolutionPlan(type, chain, mapping.policy(), source, candidate,
+                                      List.copyOf(rejected),
+                                      List.copyOf(candidates.subList(i + 1, candidates.size())),
+                                      arguments, explainSetters(mapping.type()), null);
+        }
+
+        return ResolutionPlan.ofFailure(type, chain, String.format(
+                "No constructor of type %s has all dependencies resolvable",
+                mapping.type().getName()), List.copyOf(rejected));
+    }
+
+    /**
+     * Check parameters of given constructor the same way resolution does before resolving any
+     * of them.
+     * @param constructor constructor
+     * @param elementTypes element types of its parameters, or {@code null}
+     * @param mapParameters types of its {@code Map} parameters, or {@code null}
+     * @return reason of rejecting constructor, or {@code null} if its parameters can be resolved
+     */
+    private String rejection(Constructor<?> constructor, Class<?>[] elementTypes,
+                             EntriesMap.Parameter[] mapParameters)
+    {
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+
+        for(int i = 0; i < parameterTypes.length; ++i)
+        {
+            if(constructorResolver.entries(mapParameters, i) != null)
+                continue;
+
+            List<Class<?>> elements = constructorResolver.elements(elementTypes, i);
+
+            if(!elements.isEmpty())
+            {
+                for(Class<?> element : elements)
+                    if(active.contains(element))
+                        return String.format("Element type %s depends on itself",
+                                             element.getName());
+
+                continue;
+            }
+
+            if(active.contains(parameterTypes[i]))
+                return String.format("Type %s depends on itself", parameterTypes[i].getName());
+
+            if(!resolver.registry.contains(parameterTypes[i]))
+                return String.format("No dependency for type %s found",
+                                     parameterTypes[i].getName());
+        }
+
+        return null;
+    }
+
+    /**
+     * Explain arguments of given constructor until the first one that cannot be resolved.
+     * @param constructor constructor
+     * @param elementTypes element types of its parameters, or {@code null}
+     * @param mapParameters types of its {@code Map} parameters, or {@code null}
+     * @return plans of arguments, ending with the unresolvable one if constructor would fail
+     */
+    private List<ResolutionPlan> explainArguments(Constructor<?> constructor,
+                                                  Class<?>[] elementTypes,
+                                                  EntriesMap.Parameter[] mapParameters)
+    {
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        List<ResolutionPlan> arguments = new ArrayList<>();
+
+        for(int i = 0; i < parameterTypes.length; ++i)
+        {
+            if(constructorResolver.entries(mapParameters, i) != null)
+            {
+                arguments.add(ResolutionPlan.ofEntries(parameterTypes[i]));
+                continue;
+            }
+
+            List<Class<?>> elements = constructorResolver.elements(elementTypes, i);
+            ResolutionPlan argument = elements.isEmpty() ? explain(parameterTypes[i])
+                                                         : explainElements(parameterTypes[i],
+                                                                           elements);
+
+            arguments.add(argument);
+
+            if(argument.source() == ResolutionPlan.Source.UNRESOLVABLE)
+                break;
+        }
+
+        return arguments;
+    }
+
+    private ResolutionPlan explainElements(Class<?> parameterType, List<Class<?>> elements)
+    {
+        List<ResolutionPlan> plans = new ArrayList<>(elements.size());
+
+        for(Class<?> element : elements)
+        {
+            ResolutionPlan plan = explain(element);
+
+            if(plan.source() == ResolutionPlan.Source.UNRESOLVABLE)
+                return ResolutionPlan.ofFailure(parameterType, List.of(parameterType),
+                                                plan.failure());
+
+            plans.add(plan);
+        }
+
+        return ResolutionPlan.ofElements(parameterType, plans);
+    }
+
+    private List<SetterPlan> explainSetters(Class<?> concreteType)
+    {
+        List<SetterPlan> setters = new ArrayList<>();
+
+        for(Method setter : setterResolver.plan(concreteType))
+        {
+            Class<?> parameter = setter.getParameterTypes()[0];
+            ResolutionPlan argument = resolver.registry.contains(parameter)
+                                      ? explain(parameter)
+                                      : ResolutionPlan.ofFailure(parameter, List.of(parameter),
+                                              String.format("No dependency for type %s found",
+                                                            parameter.getName()));
+
+            setters.add(new SetterPlan(setter, argument));
+        }
+
+        return setters;
+    }
+}
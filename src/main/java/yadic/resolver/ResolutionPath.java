@@ -0,0 +1,231 @@
+package yadic.resolver;
+
+import java.util.Arrays;
+
+/**
+ * Types currently being resolved, from the requested type down to the deepest dependency. Each
+ * type on the path keeps the time spent on resolving its dependencies and inside its constructor,
+ * and whether it is a singleton under construction. The path also remembers whether any
+ * constructor, setter or post-construct method failed on it, as such failures may not repeat.
+ */
+final class ResolutionPath
+{
+    private static final int INITIAL_CAPACITY = 8;
+    final boolean parallel;
+    /** Whether constructor parameters are checked against this path to detect cycles. */
+    boolean checkCycles = true;
+    private Class<?>[] types;
+    private long[] nestedNanos;
+    private long[] constructorNanos;
+    private boolean[] singletons;
+    private Object created;
+    private Object injected;
+    private int size = 0;
+    private int singletonsCount = 0;
+    private boolean failedTransiently = false;
+
+    ResolutionPath()
+    {
+        this(false);
+    }
+
+    ResolutionPath(boolean parallel)
+    {
+        this(parallel, INITIAL_CAPACITY);
+    }
+
+    private ResolutionPath(boolean parallel, int capacity)
+    {
+        this.parallel = parallel;
+        types = new Class<?>[capacity];
+        nestedNanos = new long[capacity];
+        constructorNanos = new long[capacity];
+        singletons = new boolean[capacity];
+    }
+
+    void push(Class<?> type)
+    {
+        if(size == types.length)
+        {
+            types = Arrays.copyOf(types, 2 * types.length);
+            nestedNanos = Arrays.copyOf(nestedNanos, types.length);
+            constructorNanos = Arrays.copyOf(constructorNanos, types.length);
+            singletons = Arrays.copyOf(singletons, types.length);
+        }
+
+        types[size] = type;
+        nestedNanos[size] = 0L;
+        constructorNanos[size] = 0L;
+        singletons[size] = false;
+        ++size;
+    }
+
+    void pop()
+    {
+        types[--size] = null;
+
+        if(singletons[size])
+            --singletonsCount;
+    }
+
+    boolean contains(Class<?> type)
+    {
+        for(int i = size - 1; i >= 0; --i)
+            if(types[i] == type)
+                return true;
+
+        return false;
+    }
+
+    int depth()
+    {
+        return size;
+    }
+
+    void addNestedNanos(long nanos)
+    {
+        if(size > 0)
+            nestedNanos[size - 1] += nanos;
+    }
+
+    long nestedNanos()
+    {
+        return nestedNanos[size - 1];
+    }
+
+    /**
+     * Add time spent on dependencies resolved in given branch to the type on top of this path,
+     * and remember transient failures of the branch.
+     * @param branch copy of this path taken for the branch
+     */
+    void merge(ResolutionPath branch)
+    {
+        if(size > 0)
+            nestedNanos[size - 1] += branch.nestedNanos[size - 1];
+
+        failedTransiently |= branch.failedTransiently;
+    }
+
+    /** Remember that a constructor, setter or post-construct method failed on this path. */
+    void markTransientFailure()
+    {
+        failedTransiently = true;
+    }
+
+    /**
+     * @return {@code true} if a constructor, setter or post-construct method failed on this path,
+     * so the resolution may succeed when tried again
+     */
+    boolean failedTransiently()
+    {
+        return failedTransiently;
+    }
+
+    void addConstructorNanos(long nanos)
+    {
+        if(size > 0)
+            constructorNanos[size - 1] += nanos;
+    }
+
+    long constructorNanos()
+    {
+        return constructorNanos[size - 1];
+    }
+
+    /**
+     * Remember instance just created by a constructor.
+     * @param instance new instance
+     */
+    void setCreated(Object instance)
+    {
+        created = instance;
+    }
+
+    /**
+     * Check whether given instance was the last one created and forget it.
+     * @param instance resolved instance
+     * @return {@code true} if instance was just created, {@code false} if it already existed
+     */
+    boolean takeCreated(Object instance)
+    {
+        boolean isCreated = created == instance;
+
+        created = null;
+        return isCreated;
+    }
+
+    /**
+     * Remember singleton whose setters and post-construct method were already invoked before it
+     * was stored.
+     * @param instance new singleton
+     */
+    void setInjected(Object instance)
+    {
+        injected = instance;
+    }
+
+    /**
+     * Check whether given instance was the last singleton injected before storing and forget it.
+     * @param instance resolved instance
+     * @return {@code true} if instance needs no more injection
+     */
+    boolean takeInjected(Object instance)
+    {
+        boolean isInjected = injected == instance;
+
+        injected = null;
+        return isInjected;
+    }
+
+    /** Mark the type on top of this path as a singleton under construction. */
+    void markSingleton()
+    {
+        if(!singletons[size - 1])
+        {
+            singletons[size - 1] = true;
+            ++singletonsCount;
+        }
+    }
+
+    /**
+     * @return the nearest singleton under construction below the top of this path, or
+     * {@code null} if there is none
+     */
+    Class<?> enclosingSingleton()
+    {
+        if(singletonsCount == 0)
+            return null;
+
+        for(int i = size - 2; i >= 0; --i)
+            if(singletons[i])
+                return types[i];
+
+        return null;
+    }
+
+    /**
+     * @return the nearest singleton under construction, including the top of this path, or
+     * {@code null} if there is none
+     */
+    Class<?> nearestSingleton()
+    {
+        return singletonsCount > 0 && singletons[size - 1] ? types[size - 1]
+                                                           : enclosingSingleton();
+    }
+
+    /**
+     * @return copy of this path for resolving a branch of dependencies independently, which
+     * resolves dependencies of its own types sequentially
+     */
+    ResolutionPath copy()
+    {
+        ResolutionPath copy = new ResolutionPath(false, Math.max(size + 1, INITIAL_CAPACITY));
+
+        System.arraycopy(types, 0, copy.types, 0, size);
+        System.arraycopy(singletons, 0, copy.singletons, 0, size);
+        copy.size = size;
+        copy.singletonsCount = singletonsCount;
+        copy.checkCycles = checkCycles;
+        return copy;
+    }
+}
@@ -0,0 +1,30 @@
+package yadic.resolver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("yadic.Resolve")
+@Label("Resolve")
+@Category("YADIC")
+@Description("Resolution of a type, including construction of its dependencies")
+@Threshold("1 ms")
+@StackTrace(false)
+class ResolveEvent
+        extends jdk.jfr.Event
+{
+    @Label("Type")
+    Class<?> type;
+
+    @Label("Policy")
+    String policy;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Failed")
+    boolean failed;
+}
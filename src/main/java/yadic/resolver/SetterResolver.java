@@ -4,8 +4,8 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Stack;
 
+import yadic.ConstructionPolicy;
 import yadic.annotation.Dependency;
 import yadic.resolver.exception.IncorrectDependencySetterException;
 import yadic.resolver.exception.MissingDependenciesException;
@@ -15,26 +15,80 @@ class SetterResolver
 {
     private static final String SETTER_NAME_REGEX = "^set[a-z]?[A-Z](\\w|\\d)*";
     private final TypesResolver resolver;
+    private final PlanCache<List<Method>> settersCache = new PlanCache<>(this::findSetters);
 
     SetterResolver(TypesResolver resolver)
     {
         this.resolver = resolver;
     }
 
-    <T> T resolve(T object, Stack<Class<?>> path)
+    /**
+     * Invoke all dependency setters of given object. Setters run after the resolved type left
+     * the path, so if object is the singleton or instance of that type, it is recorded as
+     * depending on setter parameters here.
+     * @param type resolved type class
+     * @param object resolved object
+     * @param path resolution path
+     * @return the object
+     */
+    <T> T resolve(Class<?> type, T object, ResolutionPath path)
     {
-        List<Method> dependencySetters = Arrays.stream(object.getClass().getMethods())
-                                               .filter(this::hasAnnotation)
-                                               .filter(this::validateSetter)
-                                               .toList();
+        List<Method> dependencySetters = settersCache.get(object.getClass());
+
+        if(dependencySetters.isEmpty())
+            return object;
+
+        Class<?> owner = resolver.registry.getInstance(type) == object ? type : null;
+
+        if(!resolver.observed)
+        {
+            for(Method setter : dependencySetters)
+                invoke(object, owner, setter, path);
+
+            return object;
+        }
+
+        ConstructionPolicy policy = resolver.policyOf(type);
 
         for(Method setter : dependencySetters)
-            invoke(object, setter, path);
+            invokeObserved(object, owner, policy, setter, path);
 
         return object;
     }
 
-    private <T> void invoke(T object, Method setter, Stack<Class<?>> path)
+    void prepare(Class<?> type)
+    {
+        settersCache.get(type);
+    }
+
+    /**
+     * @param type concrete type class
+     * @return cached dependency setters of type
+     */
+    List<Method> plan(Class<?> type)
+    {
+        return settersCache.get(type);
+    }
+
+    private <T> void invokeObserved(T object, Class<?> owner, ConstructionPolicy policy,
+                                    Method setter, ResolutionPath path)
+    {
+        long start = System.nanoTime();
+
+        invoke(object, owner, setter, path);
+        resolver.listener.setterInjected(object.getClass(), policy, setter, path.depth() + 1,
+                                         System.nanoTime() - start);
+    }
+
+    private List<Method> findSetters(Class<?> type)
+    {
+        return Arrays.stream(type.getMethods())
+                     .filter(this::hasAnnotation)
+                     .filter(this::validateSetter)
+                     .toList();
+    }
+
+    private <T> void invoke(T object, Class<?> owner, Method setter, ResolutionPath path)
     {
         List<Object> parameters = new ArrayList<>();
         String typename = object.getClass().getName();
@@ -42,11 +96,14 @@ class SetterResolver
         for(Class<?> parameter : setter.getParameterTypes())
         {
             if(!resolver.registry.contains(parameter))
-                throw new MissingDependenciesException(
-                        String.format("No dependency for type %s found when resolving type %s",
-                                      parameter.getName(), typename));
+                throw new MissingDependenciesException(resolver.detailedExceptions,
+                        "No dependency for type %s found when resolving type %s",
+                        parameter.getName(), typename);
 
             parameters.add(resolver.resolve(parameter, path));
+
+            if(owner != null)
+                resolver.registry.addDependency(owner, parameter);
         }
 
         try
@@ -55,9 +112,9 @@ class SetterResolver
         }
         catch(Exception e)
         {
-            throw new SetterInvocationException(
-                    String.format("Could not invoke setter '%s' due to an error: %s",
-                                  setter.getName(), e.getMessage()), e);
+            throw new SetterInvocationException(resolver.detailedExceptions, e,
+                                                "Could not invoke setter '%s' due to an error: %s",
+                                                setter.getName(), e.getMessage());
         }
     }
 
@@ -70,7 +127,7 @@ class SetterResolver
     {
         if(!isSetter(method))
             throw new IncorrectDependencySetterException(
-                    "Dependency method must be a setter method");
+                    resolver.detailedExceptions, "Dependency method must be a setter method");
 
         return true;
     }
@@ -0,0 +1,27 @@
+package yadic.resolver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("yadic.SingletonCreated")
+@Label("Singleton Created")
+@Category("YADIC")
+@Description("Construction of a new singleton")
+@Threshold("1 ms")
+@StackTrace(false)
+class SingletonCreatedEvent
+        extends jdk.jfr.Event
+{
+    @Label("Type")
+    Class<?> type;
+
+    @Label("Instance Type")
+    Class<?> instanceType;
+
+    @Label("Depth")
+    int depth;
+}
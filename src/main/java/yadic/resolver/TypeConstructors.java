@@ -3,7 +3,9 @@ package yadic.resolver;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import yadic.annotation.Dependency;
 import yadic.resolver.exception.MultipleAnnotatedConstructorsException;
@@ -14,27 +16,43 @@ class TypeConstructors<T>
     final String typename;
     final Constructor<T> annotatedConstructor;
     final List<Constructor<T>> parameterizedConstructors;
+    private final Map<Constructor<T>, Class<?>[]> elementTypes = new HashMap<>();
+    private final Map<Constructor<T>, EntriesMap.Parameter[]> mapParameters = new HashMap<>();
 
     @SuppressWarnings("unchecked")
-    TypeConstructors(Class<T> type)
+    TypeConstructors(Class<T> type, boolean detailedExceptions)
     {
         typename = type.getName();
 
         Constructor<T>[] constructors = (Constructor<T>[])type.getConstructors();
 
         if(constructors.length == 0)
-            throw new NoSuitableConstructorException(
-                    String.format("No public constructors found for type %s", type.getName()));
+            throw new NoSuitableConstructorException(detailedExceptions,
+                                                     "No public constructors found for type %s",
+                                                     type.getName());
 
         Arrays.sort(constructors, new ConstructorComparator());
         parameterizedConstructors = new ArrayList<>(Arrays.asList(constructors));
 
+        for(Constructor<T> constructor : constructors)
+        {
+            Class<?>[] constructorElementTypes = ElementsPlan.elementTypes(constructor);
+
+            if(constructorElementTypes != null)
+                elementTypes.put(constructor, constructorElementTypes);
+
+            EntriesMap.Parameter[] constructorMapParameters = EntriesMap.parameters(constructor);
+
+            if(constructorMapParameters != null)
+                mapParameters.put(constructor, constructorMapParameters);
+        }
+
         if(constructors[0].isAnnotationPresent(Dependency.class))
         {
             if(constructors.length > 1 && constructors[1].isAnnotationPresent(Dependency.class))
-                throw new MultipleAnnotatedConstructorsException(String.format(
+                throw new MultipleAnnotatedConstructorsException(detailedExceptions,
                         "Type %s has more than one constructor with @Dependency annotation",
-                        type.getName()));
+                        type.getName());
 
             annotatedConstructor = constructors[0];
             parameterizedConstructors.remove(0);
@@ -44,4 +62,23 @@ class TypeConstructors<T>
             annotatedConstructor = null;
         }
     }
+
+    /**
+     * @param constructor constructor of type
+     * @return element types of its collection and array parameters, or {@code null} if it has
+     * none
+     */
+    Class<?>[] elementTypes(Constructor<?> constructor)
+    {
+        return elementTypes.isEmpty() ? null : elementTypes.get(constructor);
+    }
+
+    /**
+     * @param constructor constructor of type
+     * @return key and value types of its {@code Map} parameters, or {@code null} if it has none
+     */
+    EntriesMap.Parameter[] mapParameters(Constructor<?> constructor)
+    {
+        return mapParameters.isEmpty() ? null : mapParameters.get(constructor);
+    }
 }
@@ -1,33 +1,365 @@
 package yadic.resolver;
 
-import java.util.Stack;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
+import yadic.ConstructionPolicy;
+import yadic.DiConfiguration;
+import yadic.DiException;
 import yadic.DiResolver;
+import yadic.ResolvedInstances;
+import yadic.SingletonRetention;
+import yadic.explain.ResolutionPlan;
+import yadic.graph.DependencyNode;
+import yadic.listener.ResolutionListener;
+import yadic.metrics.ResolutionMetrics;
+import yadic.metrics.TypeMetrics;
 import yadic.registry.DependencyRegistry;
+import yadic.registry.valuetypes.TypeConstruction;
+import yadic.resolver.exception.PostConstructInvocationException;
+import yadic.resolver.exception.SetterInvocationException;
 
 public class TypesResolver
         implements DiResolver
 {
     final DependencyRegistry registry;
+    final boolean detailedExceptions;
+    final Executor executor;
+    final ResolutionMetrics metrics;
+    final ResolutionListener listener;
+    /**
+     * Whether resolving is measured by metrics or a listener, so that timing is needed. Fixed for
+     * the container, so without metrics and listeners each step costs one check of this flag.
+     */
+    final boolean observed;
     private final ConstructorResolver constructorResolver = new ConstructorResolver(this);
     private final SetterResolver setterResolver = new SetterResolver(this);
+    private final PostConstructResolver postConstructResolver = new PostConstructResolver(this);
+    private final DependencyGraph dependencyGraph =
+            new DependencyGraph(this, constructorResolver, setterResolver);
 
     public TypesResolver(DependencyRegistry registry)
+    {
+        this(registry, new DiConfiguration());
+    }
+
+    public TypesResolver(DependencyRegistry registry, DiConfiguration configuration)
     {
         this.registry = registry;
+        detailedExceptions = configuration.detailedExceptions();
+        executor = configuration.executor();
+        metrics = configuration.collectMetrics() ? new ResolutionMetrics() : null;
+        listener = configuration.listener();
+        observed = metrics != null || listener != ResolutionListener.NONE;
     }
 
     @Override
     public <T> T resolve(Class<T> type)
     {
-        return resolve(type, new Stack<>());
+        return resolve(type, newPath(type, false));
+    }
+
+    /**
+     * Resolve given type, or return {@code null} without throwing if it cannot be resolved.
+     * Without a listener to notify of failures, types whose constructors all lack registered
+     * dependencies are detected without creating any exceptions. Types whose resolution fails only for structural reasons, with no
+     * constructor, setter or post-construct method failing on the way, are cached as unresolvable
+     * until the next registration, so repeated lookups of them do not create any exceptions.
+     * @param type type class
+     * @return new instance, or {@code null} if type cannot be resolved
+     */
+    @Override
+    public <T> T resolveOrNull(Class<T> type)
+    {
+        if(registry.isUnresolvable(type))
+            return null;
+
+        ResolutionPath path = newPath(type, false);
+
+        try
+        {
+            if(listener != ResolutionListener.NONE
+                    || !constructorResolver.lacksDependencies(type))
+                return resolve(type, path);
+        }
+        catch(DiException e)
+        {
+            if(path.failedTransiently())
+                return null;
+        }
+
+        registry.markUnresolvable(type);
+        return null;
+    }
+
+    /**
+     * Resolve given type on the configured executor, building independent constructor
+     * dependencies in parallel.
+     * @param type type class
+     * @return future of new instance
+     */
+    @Override
+    public <T> CompletableFuture<T> resolveAsync(Class<T> type)
+    {
+        return CompletableFuture.supplyAsync(() -> resolve(type, newPath(type, true)), executor);
+    }
+
+    /**
+     * Resolve all given types sharing one resolution path and compiled construction plans.
+     * @param types types classes
+     * @return resolved instances
+     */
+    @Override
+    public ResolvedInstances resolveAll(Class<?>... types)
+    {
+        ResolutionPath path = new ResolutionPath();
+        Object[] instances = new Object[types.length];
+
+        for(int i = 0; i < types.length; ++i)
+            instances[i] = resolve(types[i], path);
+
+        return new ResolvedInstances(types.clone(), instances);
+    }
+
+    /**
+     * Construct given number of instances of given type sharing one resolution path and compiled
+     * construction plan.
+     * @param type type class
+     * @param count number of instances
+     * @return list of new instances
+     */
+    @Override
+    public <T> List<T> resolveMany(Class<T> type, int count)
+    {
+        ResolutionPath path = newPath(type, false);
+        List<T> instances = new ArrayList<>(count);
+
+        for(int i = 0; i < count; ++i)
+            instances.add(resolve(type, path));
+
+        return instances;
+    }
+
+    /**
+     * Prepare given types in background on the configured executor. Types are started in given
+     * order and each of them waits only for types before it that it depends on, directly or
+     * through types not given, so independent types are prepared concurrently. Singletons are
+     * constructed, other types get only their construction plans built. Types that cannot be
+     * resolved are skipped.
+     * @param types types classes
+     * @return future completed when all types are prepared
+     */
+    public CompletableFuture<Void> warmUp(List<Class<?>> types)
+    {
+        List<Class<?>> ordered = List.copyOf(types);
+
+        return CompletableFuture.supplyAsync(() -> scheduleWarmUp(ordered), executor)
+                                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Explain how given type would be resolved now, without constructing anything.
+     * @param type type class
+     * @return plan of resolution
+     */
+    public ResolutionPlan explain(Class<?> type)
+    {
+        return new ResolutionExplainer(this, constructorResolver, setterResolver).explain(type);
+    }
+
+    /**
+     * Find all cycles in static dependencies of registered types, following constructor
+     * parameters and {@code @Dependency} setters. Cycles broken at runtime by singletons are
+     * reported too.
+     * @return members of each cycle
+     */
+    public List<List<Class<?>>> findCycles()
+    {
+        return dependencyGraph.cycles(registry.registeredTypes());
+    }
+
+    /**
+     * Build static dependency graph of registered types and all types they depend on, without
+     * constructing anything.
+     * @return nodes of graph, starting with registered types ordered by name
+     */
+    public List<DependencyNode> dependencyGraph()
+    {
+        return dependencyGraph.nodes(registry.registeredTypes()
+                                             .stream()
+                                             .sorted(Comparator.comparing(Class::getName))
+                                             .toList());
+    }
+
+    /**
+     * @return snapshot of resolution metrics of all resolved types, empty if metrics are disabled
+     */
+    public Map<Class<?>, TypeMetrics> metrics()
+    {
+        return metrics == null ? Map.of() : metrics.snapshot();
+    }
+
+    /**
+     * Forget resolution state and metrics of classes loaded by given class loader or its
+     * descendants. Construction plans are stored with classes themselves and need no eviction.
+     * @param loader class loader
+     */
+    public void evict(ClassLoader loader)
+    {
+        Predicate<Class<?>> evicted = type -> DependencyRegistry.isLoadedBy(type, loader);
+
+        constructorResolver.evict(evicted);
+        dependencyGraph.evict(evicted);
+
+        if(metrics != null)
+            metrics.remove(evicted);
+    }
+
+    private CompletableFuture<Void> scheduleWarmUp(List<Class<?>> types)
+    {
+        Set<Class<?>> given = new HashSet<>(types);
+        Map<Class<?>, CompletableFuture<Void>> futures = new HashMap<>();
+
+        for(Class<?> type : types)
+        {
+            if(futures.containsKey(type))
+                continue;
+
+            // dependencies later in order are built by the type itself, so they are not awaited
+            CompletableFuture<?>[] dependencies =
+                    dependencyGraph.nearestDependencies(type, given::contains)
+                                   .stream()
+                                   .map(futures::get)
+                                   .filter(Objects::nonNull)
+                                   .toArray(CompletableFuture[]::new);
+
+            futures.put(type, CompletableFuture.allOf(dependencies)
+                                               .exceptionally(e -> null)
+                                               .thenRunAsync(() -> warmUp(type), executor));
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new));
+    }
+
+    private void warmUp(Class<?> type)
+    {
+        try
+        {
+            if(registry.findType(type).policy() != ConstructionPolicy.CONSTRUCTION)
+            {
+                resolve(type, new ResolutionPath(true));
+                return;
+            }
+
+            Class<?> concreteType = constructorResolver.prepare(type);
+
+            setterResolver.prepare(concreteType);
+            postConstructResolver.prepare(concreteType);
+        }
+        catch(DiException e)
+        {
+            // type no longer resolvable, nothing to prepare
+        }
+    }
+
+    /**
+     * @param type type class
+     * @return {@code true} if type is resolved to a strongly held singleton or an instance
+     */
+    boolean isSharedSingleton(Class<?> type)
+    {
+        try
+        {
+            TypeConstruction<?> mapping = registry.findType(type);
+
+            return mapping.policy() == ConstructionPolicy.SINGLETON
+                    && mapping.retention() == SingletonRetention.STRONG;
+        }
+        catch(DiException e)
+        {
+            return false;
+        }
     }
 
-    <T> T resolve(Class<T> type, Stack<Class<?>> path)
+    /**
+     * @param type type class
+     * @return construction policy of given type, or {@code null} if type has no valid
+     * registration
+     */
+    ConstructionPolicy policyOf(Class<?> type)
     {
-        T object = constructorResolver.resolve(type, path);
+        try
+        {
+            return registry.findType(type).policy();
+        }
+        catch(DiException e)
+        {
+            return null;
+        }
+    }
 
-        object = setterResolver.resolve(object, path);
+    /**
+     * Create resolution path for given requested type. Types whose dependencies are proven
+     * acyclic are resolved without checking the path for cycles.
+     * @param type type class
+     * @param parallel whether dependencies are resolved in parallel
+     * @return new resolution path
+     */
+    private ResolutionPath newPath(Class<?> type, boolean parallel)
+    {
+        ResolutionPath path = new ResolutionPath(parallel);
+
+        path.checkCycles = !dependencyGraph.isAcyclic(type);
+        return path;
+    }
+
+    <T> T resolve(Class<T> type, ResolutionPath path)
+    {
+        if(!observed)
+            return inject(type, constructorResolver.resolve(type, path), path);
+
+        long start = System.nanoTime();
+        T object = inject(type, constructorResolver.resolve(type, path), path);
+
+        path.addNestedNanos(System.nanoTime() - start);
         return object;
     }
+
+    /**
+     * Invoke dependency setters of resolved object, and its post-construct method if the object
+     * was just created. Singletons just created were injected before they were stored, so they
+     * are returned as they are.
+     * @param type resolved type class
+     * @param object resolved object
+     * @param path resolution path
+     * @return object to be returned
+     */
+    <T> T inject(Class<?> type, T object, ResolutionPath path)
+    {
+        if(path.takeInjected(object))
+            return object;
+
+        boolean created = path.takeCreated(object);
+
+        try
+        {
+            setterResolver.resolve(type, object, path);
+            return created ? postConstructResolver.invoke(object) : object;
+        }
+        catch(SetterInvocationException | PostConstructInvocationException e)
+        {
+            path.markTransientFailure();
+            throw e;
+        }
+    }
 }
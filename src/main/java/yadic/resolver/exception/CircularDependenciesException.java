@@ -11,4 +11,9 @@ public class CircularDependenciesException
     {
         super(s);
     }
+
+    public CircularDependenciesException(boolean stackTrace, String format, Object... arguments)
+    {
+        super(stackTrace, null, format, arguments);
+    }
 }
@@ -11,4 +11,10 @@ public class IncorrectDependencySetterException
     {
         super(s);
     }
+
+    public IncorrectDependencySetterException(
+            boolean stackTrace, String format, Object... arguments)
+    {
+        super(stackTrace, null, format, arguments);
+    }
 }
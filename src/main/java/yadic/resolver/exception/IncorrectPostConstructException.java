@@ -0,0 +1,20 @@
+package yadic.resolver.exception;
+
+import yadic.DiException;
+
+public class IncorrectPostConstructException
+        extends DiException
+{
+    private static final long serialVersionUID = -6021784416915932514L;
+
+    public IncorrectPostConstructException(String s)
+    {
+        super(s);
+    }
+
+    public IncorrectPostConstructException(
+            boolean stackTrace, String format, Object... arguments)
+    {
+        super(stackTrace, null, format, arguments);
+    }
+}
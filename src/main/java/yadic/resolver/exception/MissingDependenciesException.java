@@ -11,4 +11,9 @@ public class MissingDependenciesException
     {
         super(s);
     }
+
+    public MissingDependenciesException(boolean stackTrace, String format, Object... arguments)
+    {
+        super(stackTrace, null, format, arguments);
+    }
 }
@@ -11,4 +11,10 @@ public class MultipleAnnotatedConstructorsException
     {
         super(s);
     }
+
+    public MultipleAnnotatedConstructorsException(
+            boolean stackTrace, String format, Object... arguments)
+    {
+        super(stackTrace, null, format, arguments);
+    }
 }
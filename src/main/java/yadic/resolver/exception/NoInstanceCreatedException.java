@@ -16,4 +16,15 @@ public class NoInstanceCreatedException
     {
         super(s, t);
     }
+
+    public NoInstanceCreatedException(boolean stackTrace, String format, Object... arguments)
+    {
+        super(stackTrace, null, format, arguments);
+    }
+
+    public NoInstanceCreatedException(
+            boolean stackTrace, Throwable cause, String format, Object... arguments)
+    {
+        super(stackTrace, cause, format, arguments);
+    }
 }
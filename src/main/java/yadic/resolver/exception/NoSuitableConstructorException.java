@@ -11,4 +11,9 @@ public class NoSuitableConstructorException
     {
         super(s);
     }
+
+    public NoSuitableConstructorException(boolean stackTrace, String format, Object... arguments)
+    {
+        super(stackTrace, null, format, arguments);
+    }
 }
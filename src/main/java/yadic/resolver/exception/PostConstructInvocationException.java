@@ -0,0 +1,20 @@
+package yadic.resolver.exception;
+
+import yadic.DiException;
+
+public class PostConstructInvocationException
+        extends DiException
+{
+    private static final long serialVersionUID = 8840264203931174417L;
+
+    public PostConstructInvocationException(String s, Throwable t)
+    {
+        super(s, t);
+    }
+
+    public PostConstructInvocationException(
+            boolean stackTrace, Throwable cause, String format, Object... arguments)
+    {
+        super(stackTrace, cause, format, arguments);
+    }
+}
@@ -11,4 +11,15 @@ public class SetterInvocationException
     {
         super(s, t);
     }
+
+    public SetterInvocationException(boolean stackTrace, String format, Object... arguments)
+    {
+        super(stackTrace, null, format, arguments);
+    }
+
+    public SetterInvocationException(
+            boolean stackTrace, Throwable cause, String format, Object... arguments)
+    {
+        super(stackTrace, cause, format, arguments);
+    }
 }
@@ -0,0 +1,275 @@
+package yadic.trace;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import yadic.ConstructionPolicy;
+import yadic.DiException;
+import yadic.listener.ResolutionListener;
+
+/**
+ * Records spans of resolution into a ring buffer preallocated for given number of spans. When
+ * the buffer is full, the oldest spans are overwritten. Recorded spans can be written in Chrome
+ * trace-event format and opened in {@code chrome://tracing} or Perfetto as a flame chart, where
+ * dependencies are nested under the types that required them. Each span carries its own id and
+ * the id of the construction enclosing it on the same thread, or 0 if there is none.
+ */
+public final class TraceRecorder
+        implements ResolutionListener
+{
+    private static final String CONSTRUCT = "construct";
+    private static final String SINGLETON = "singleton";
+    private static final String SETTER = "setter";
+    private static final String FAILURE = "failure";
+    private static final long WRITING = -1L;
+
+    private final int capacity;
+    private final long originNanos = System.nanoTime();
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicLong nextSpanId = new AtomicLong();
+    private final ThreadLocal<OpenSpans> openSpans = ThreadLocal.withInitial(OpenSpans::new);
+    private final AtomicLongArray sequences;
+    private final String[] names;
+    private final String[] categories;
+    private final String[] policies;
+    private final long[] startNanos;
+    private final long[] durationNanos;
+    private final int[] depths;
+    private final long[] threadIds;
+    private final long[] spanIds;
+    private final long[] parentIds;
+
+    public TraceRecorder(int capacity)
+    {
+        if(capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive");
+
+        this.capacity = capacity;
+        sequences = new AtomicLongArray(capacity);
+        names = new String[capacity];
+        categories = new String[capacity];
+        policies = new String[capacity];
+        startNanos = new long[capacity];
+        durationNanos = new long[capacity];
+        depths = new int[capacity];
+        threadIds = new long[capacity];
+        spanIds = new long[capacity];
+        parentIds = new long[capacity];
+    }
+
+    /**
+     * @return number of spans currently kept in buffer
+     */
+    public int size()
+    {
+        return (int)Math.min(nextSequence.get(), capacity);
+    }
+
+    @Override
+    public void beforeConstruct(Class<?> type, ConstructionPolicy policy, int depth)
+    {
+        openSpans.get().open(nextSpanId.incrementAndGet(), depth);
+    }
+
+    @Override
+    public void afterConstruct(
+            Class<?> type, ConstructionPolicy policy, int depth, long elapsedNanos)
+    {
+        record(type.getName(), CONSTRUCT, policy.name(), depth, elapsedNanos, true);
+    }
+
+    @Override
+    public void singletonCreated(
+            Class<?> type, ConstructionPolicy policy, Object instance, int depth,
+            long elapsedNanos)
+    {
+        record(type.getName(), SINGLETON, policy.name(), depth, elapsedNanos, false);
+    }
+
+    @Override
+    public void setterInjected(
+            Class<?> type, ConstructionPolicy policy, Method setter, int depth, long elapsedNanos)
+    {
+        record(type.getName() + "." + setter.getName(), SETTER, name(policy), depth,
+               elapsedNanos, false);
+    }
+
+    @Override
+    public void resolutionFailed(
+            Class<?> type, ConstructionPolicy policy, int depth, long elapsedNanos,
+            DiException exception)
+    {
+        record(type.getName(), FAILURE, name(policy), depth, elapsedNanos, true);
+    }
+
+    /**
+     * Write recorded spans as Chrome trace-event JSON.
+     * @param writer destination writer
+     * @throws IOException if writing fails
+     */
+    public void writeChromeTrace(Writer writer)
+            throws IOException
+    {
+        long last = nextSequence.get();
+        long first = Math.max(0L, last - capacity);
+        boolean isFirst = true;
+
+        writer.write("{\"displayTimeUnit\":\"ns\",\"traceEvents\":[");
+
+        for(long sequence = first; sequence < last; ++sequence)
+        {
+            int slot = (int)(sequence % capacity);
+
+            if(sequences.get(slot) != sequence + 1)
+                continue;
+
+            String span = formatSpan(slot);
+
+            // plain reads of span must complete before the sequence is checked again
+            VarHandle.acquireFence();
+
+            if(sequences.get(slot) != sequence + 1)
+                continue;
+
+            if(!isFirst)
+                writer.write(',');
+
+            writer.write(span);
+            isFirst = false;
+        }
+
+        writer.write("]}");
+        writer.flush();
+    }
+
+    /**
+     * Record span ending now on current thread.
+     * @param closing whether span closes a construction opened at given depth
+     */
+    private void record(String name, String category, String policy, int depth, long elapsed,
+                        boolean closing)
+    {
+        long now = System.nanoTime();
+        OpenSpans open = openSpans.get();
+        long spanId = closing ? open.close(depth) : 0L;
+        long parentId = open.parent(depth);
+        long sequence = nextSequence.getAndIncrement();
+        int slot = (int)(sequence % capacity);
+        long previous = sequences.get(slot);
+
+        // writer a whole buffer ahead or behind may own the slot, then this span is dropped
+        if(previous == WRITING || previous > sequence
+                || !sequences.compareAndSet(slot, previous, WRITING))
+            return;
+
+        VarHandle.storeStoreFence();
+        names[slot] = name;
+        categories[slot] = category;
+        policies[slot] = policy;
+        startNanos[slot] = now - elapsed - originNanos;
+        durationNanos[slot] = elapsed;
+        depths[slot] = depth;
+        threadIds[slot] = Thread.currentThread().getId();
+        spanIds[slot] = spanId == 0L ? nextSpanId.incrementAndGet() : spanId;
+        parentIds[slot] = parentId;
+        sequences.set(slot, sequence + 1);
+    }
+
+    private String formatSpan(int slot)
+    {
+        StringBuilder builder = new StringBuilder(160);
+
+        builder.append("{\"name\":\"")
+               .append(escape(names[slot]))
+               .append("\",\"cat\":\"")
+               .append(categories[slot])
+               .append("\",\"ph\":\"X\",\"pid\":1,\"tid\":")
+               .append(threadIds[slot])
+               .append(",\"ts\":")
+               .append(String.format(Locale.ROOT, "%.3f", startNanos[slot] / 1000.0))
+               .append(",\"dur\":")
+               .append(String.format(Locale.ROOT, "%.3f", durationNanos[slot] / 1000.0))
+               .append(",\"args\":{\"id\":")
+               .append(spanIds[slot])
+               .append(",\"parent\":")
+               .append(parentIds[slot])
+               .append(",\"depth\":")
+               .append(depths[slot]);
+
+        if(policies[slot] != null)
+            builder.append(",\"policy\":\"").append(policies[slot]).append('"');
+
+        return builder.append("}}").toString();
+    }
+
+    private static String name(ConstructionPolicy policy)
+    {
+        return policy == null ? null : policy.name();
+    }
+
+    private static String escape(String text)
+    {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /** Constructions opened on one thread and not yet closed, innermost last. */
+    private static final class OpenSpans
+    {
+        private long[] ids = new long[16];
+        private int[] depths = new int[16];
+        private int size = 0;
+
+        void open(long id, int depth)
+        {
+            if(size == ids.length)
+            {
+                ids = Arrays.copyOf(ids, 2 * size);
+                depths = Arrays.copyOf(depths, 2 * size);
+            }
+
+            ids[size] = id;
+            depths[size] = depth;
+            ++size;
+        }
+
+        /**
+         * Close constructions at given depth or deeper, including any left open by failures.
+         * @param depth depth of closed construction
+         * @return id of construction at given depth, or 0 if there is none
+         */
+        long close(int depth)
+        {
+            long id = 0L;
+
+            while(size > 0 && depths[size - 1] >= depth)
+            {
+                --size;
+
+                if(depths[size] == depth)
+                    id = ids[size];
+            }
+
+            return id;
+        }
+
+        /**
+         * @param depth depth of span
+         * @return id of innermost construction enclosing span at given depth, or 0 if there is
+         * none
+         */
+        long parent(int depth)
+        {
+            for(int i = size - 1; i >= 0; --i)
+                if(depths[i] < depth)
+                    return ids[i];
+
+            return 0L;
+        }
+    }
+}
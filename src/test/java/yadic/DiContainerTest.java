@@ -1,21 +1,60 @@
 package yadic;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import yadic.listener.ResolutionListener;
+import yadic.metrics.TypeMetrics;
 import yadic.models.basic.ClassBasicAbstract;
 import yadic.models.basic.ClassBasicInheritsFromAbstract;
+import yadic.models.basic.ClassBasicOtherInheritsFromAbstract;
 import yadic.models.basic.ClassBasicStringGetter;
 import yadic.models.basic.InterfaceBasic;
 import yadic.models.basic.InterfaceBasicStringGetter;
 import yadic.models.constructor.*;
+import yadic.models.diamond.*;
+import yadic.models.elements.ClassElementsCollections;
+import yadic.models.elements.ClassElementsMap;
+import yadic.models.lifecycle.*;
+import yadic.models.postconstruct.*;
 import yadic.models.setter.*;
 import yadic.registry.exception.AbstractTypeException;
+import yadic.registry.exception.InstanceCloseException;
+import yadic.registry.exception.NotDerivedTypeException;
+import yadic.registry.exception.RegistrationException;
 import yadic.resolver.exception.IncorrectDependencySetterException;
+import yadic.resolver.exception.IncorrectPostConstructException;
+import yadic.resolver.exception.MissingDependenciesException;
 import yadic.resolver.exception.MultipleAnnotatedConstructorsException;
+import yadic.resolver.exception.NoInstanceCreatedException;
 import yadic.resolver.exception.NoSuitableConstructorException;
+import yadic.resolver.exception.PostConstructInvocationException;
 
 public class DiContainerTest
 {
@@ -262,205 +301,1618 @@ public class DiContainerTest
     }
 
     // endregion
-    // region registerInstance
+    // region registerType [expiring]
 
     @Test
-    public void registerInstance_WhenInterface_ThenRegisteredInstance()
+    public void registerType_WhenExpiringNotExpired_ThenSameInstances()
     {
         // given
-        ClassConstructorDefault instance = new ClassConstructorDefault();
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                Duration.ofMinutes(1));
 
-        testObject.registerInstance(InterfaceBasic.class, instance);
+        // when
+        InterfaceBasic result1 = testObject.resolve(InterfaceBasic.class);
+        InterfaceBasic result2 = testObject.resolve(InterfaceBasic.class);
+
+        // then
+        Assertions.assertThat(result1).isInstanceOf(ClassConstructorDefault.class);
+        Assertions.assertThat(result2).isSameAs(result1);
+    }
+
+    @Test
+    public void registerType_WhenExpiringExpired_ThenOldInstanceUntilSingleRefreshCompletes()
+            throws InterruptedException
+    {
+        // given
+        testObject = new DiContainer(new DiConfiguration().collectMetrics(true));
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                Duration.ofMillis(100));
+
+        InterfaceBasic expired = testObject.resolve(InterfaceBasic.class);
+
+        Thread.sleep(150);
 
         // when
         InterfaceBasic result = testObject.resolve(InterfaceBasic.class);
+        InterfaceBasic refreshed = result;
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+
+        while(refreshed == expired && System.nanoTime() < deadline)
+        {
+            Thread.sleep(1);
+            refreshed = testObject.resolve(InterfaceBasic.class);
+        }
 
         // then
-        Assertions.assertThat(result)
-                  .isNotNull()
-                  .isInstanceOf(ClassConstructorDefault.class)
-                  .isSameAs(instance);
+        Assertions.assertThat(result).isSameAs(expired);
+        Assertions.assertThat(refreshed)
+                  .isNotSameAs(expired)
+                  .isInstanceOf(ClassConstructorDefault.class);
+        Assertions.assertThat(testObject.metrics().get(InterfaceBasic.class).constructionCount())
+                  .isEqualTo(2L);
     }
 
     @Test
-    public void registerInstance_WhenAbstractClass_ThenRegisteredInstance()
+    public void registerType_WhenExpiringRefreshedAndClosed_ThenEachInstanceClosedOnce()
+            throws InterruptedException
     {
         // given
-        ClassBasicInheritsFromAbstract instance = new ClassBasicInheritsFromAbstract();
+        CloseLog log = new CloseLog();
 
-        testObject.registerInstance(ClassBasicAbstract.class, instance);
+        testObject.registerInstance(CloseLog.class, log)
+                  .registerType(ClassLifecycleDatabase.class, Duration.ofMillis(100));
+
+        ClassLifecycleDatabase expired = testObject.resolve(ClassLifecycleDatabase.class);
+        ClassLifecycleDatabase refreshed = expired;
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+
+        Thread.sleep(150);
+
+        while(refreshed == expired && System.nanoTime() < deadline)
+        {
+            Thread.sleep(1);
+            refreshed = testObject.resolve(ClassLifecycleDatabase.class);
+        }
 
         // when
-        ClassBasicAbstract result = testObject.resolve(ClassBasicAbstract.class);
+        testObject.close();
 
         // then
-        Assertions.assertThat(result)
-                  .isNotNull()
-                  .isInstanceOf(ClassBasicInheritsFromAbstract.class)
-                  .isSameAs(instance);
+        Assertions.assertThat(refreshed).isNotSameAs(expired);
+        Assertions.assertThat(log.getEntries()).containsExactly("database", "database");
     }
 
     @Test
-    public void registerInstance_WhenSameConcreteClass_ThenRegisteredInstance()
+    public void registerType_WhenExpiringRefreshed_ThenDependentSingletonConstructedAgain()
+            throws InterruptedException
     {
         // given
-        ClassConstructorDefaultAndParameterized instance =
-                new ClassConstructorDefaultAndParameterized();
+        testObject.registerInstance(CloseLog.class, new CloseLog())
+                  .registerType(ClassLifecycleDatabase.class, Duration.ofMillis(100))
+                  .registerType(ClassLifecycleLeft.class, ConstructionPolicy.SINGLETON);
 
-        testObject.registerInstance(ClassConstructorDefaultAndParameterized.class, instance);
+        ClassLifecycleLeft stale = testObject.resolve(ClassLifecycleLeft.class);
+        ClassLifecycleDatabase refreshed = stale.getDatabase();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+
+        Thread.sleep(150);
+
+        while(refreshed == stale.getDatabase() && System.nanoTime() < deadline)
+        {
+            Thread.sleep(1);
+            refreshed = testObject.resolve(ClassLifecycleDatabase.class);
+        }
 
         // when
-        ClassConstructorDefaultAndParameterized result =
-                testObject.resolve(ClassConstructorDefaultAndParameterized.class);
+        ClassLifecycleLeft result = testObject.resolve(ClassLifecycleLeft.class);
 
         // then
-        Assertions.assertThat(result).isNotNull().isSameAs(instance);
-        Assertions.assertThat(result.getText()).isEqualTo(instance.getText());
+        Assertions.assertThat(refreshed).isNotSameAs(stale.getDatabase());
+        Assertions.assertThat(result).isNotSameAs(stale);
+        Assertions.assertThat(result.getDatabase()).isSameAs(refreshed);
     }
 
     @Test
-    public void registerInstance_WhenDerivedConcreteClass_ThenRegisteredInstance()
+    public void registerType_WhenExpiringPolicyWithoutTimeToLive_ThenRegistrationException()
+    {
+        // then
+        Assertions.assertThatThrownBy(
+                          () -> testObject.registerType(InterfaceBasic.class,
+                                                        ClassConstructorDefault.class,
+                                                        ConstructionPolicy.EXPIRING))
+                  .isInstanceOf(RegistrationException.class);
+    }
+
+    @Test
+    public void registerType_WhenExpiringTimeToLiveNotPositive_ThenRegistrationException()
+    {
+        // then
+        Assertions.assertThatThrownBy(
+                          () -> testObject.registerType(ClassConstructorDefault.class,
+                                                        Duration.ZERO))
+                  .isInstanceOf(RegistrationException.class);
+    }
+
+    // endregion
+    // region registerType [retention]
+
+    @Test
+    public void registerType_WhenSoftRetentionAndReferenced_ThenSameInstances()
     {
         // given
-        ClassConstructorSuperParameterized instance = new ClassConstructorSuperParameterized();
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                SingletonRetention.SOFT);
 
-        testObject.registerInstance(ClassConstructorParameterized.class, instance);
+        // when
+        InterfaceBasic result1 = testObject.resolve(InterfaceBasic.class);
+        InterfaceBasic result2 = testObject.resolve(InterfaceBasic.class);
+
+        // then
+        Assertions.assertThat(result1).isInstanceOf(ClassConstructorDefault.class);
+        Assertions.assertThat(result2).isSameAs(result1);
+        Assertions.assertThat(testObject.evictions()).isEmpty();
+    }
+
+    @Test
+    public void registerType_WhenWeakRetentionAndCleared_ThenRebuiltAndEvictionCounted()
+            throws InterruptedException
+    {
+        // given
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                SingletonRetention.WEAK);
+
+        WeakReference<InterfaceBasic> cleared =
+                new WeakReference<>(testObject.resolve(InterfaceBasic.class));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+
+        while(cleared.get() != null && System.nanoTime() < deadline)
+        {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        Assumptions.assumeTrue(cleared.get() == null, "Singleton was not garbage collected");
 
         // when
-        ClassConstructorParameterized result =
-                testObject.resolve(ClassConstructorParameterized.class);
+        InterfaceBasic result1 = testObject.resolve(InterfaceBasic.class);
+        InterfaceBasic result2 = testObject.resolve(InterfaceBasic.class);
+        Map<Class<?>, Long> evictions = testObject.evictions();
+
+        while(evictions.isEmpty() && System.nanoTime() < deadline)
+        {
+            Thread.sleep(10);
+            evictions = testObject.evictions();
+        }
 
         // then
-        Assertions.assertThat(result)
-                  .isNotNull()
-                  .isSameAs(instance)
-                  .isInstanceOf(ClassConstructorSuperParameterized.class);
-        Assertions.assertThat(result.getNumber()).isEqualTo(instance.getNumber());
+        Assertions.assertThat(result1).isInstanceOf(ClassConstructorDefault.class);
+        Assertions.assertThat(result2).isSameAs(result1);
+        Assertions.assertThat(evictions).containsEntry(InterfaceBasic.class, 1L);
     }
 
     @Test
-    public void registerInstance_WhenInstanceIsNull_ThenNullPointerException()
+    public void registerType_WhenWeakRetentionAndCloseable_ThenNotClosedWithContainer()
     {
-        Assertions.assertThatThrownBy(
-                () -> testObject.registerInstance(ClassConstructorDefaultAndParameterized.class,
-                                                  null)).isInstanceOf(NullPointerException.class);
+        // given
+        CloseLog log = new CloseLog();
+
+        testObject.registerInstance(CloseLog.class, log);
+        testObject.registerType(ClassLifecycleDatabase.class, SingletonRetention.WEAK);
+
+        ClassLifecycleDatabase database = testObject.resolve(ClassLifecycleDatabase.class);
+
+        // when
+        testObject.close();
+
+        // then
+        Assertions.assertThat(database).isNotNull();
+        Assertions.assertThat(log.getEntries()).isEmpty();
     }
 
     // endregion
-    // region resolve (@Dependency)
+    // region registerType [invalidation]
 
     @Test
-    public void resolve_WhenMultipleAnnotatedConstructors_ThenMultipleAnnotatedConstructorsException()
+    public void registerType_WhenDependencyReplaced_ThenDependentSingletonConstructedAgain()
     {
-        Assertions.assertThatThrownBy(
-                          () -> testObject.resolve(ClassConstructorMultipleAnnotated.class))
-                  .isInstanceOf(MultipleAnnotatedConstructorsException.class);
+        // given
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                ConstructionPolicy.CONSTRUCTION)
+                  .registerType(ClassConstructorBasicDependency.class,
+                                ConstructionPolicy.SINGLETON);
+
+        ClassConstructorBasicDependency stale =
+                testObject.resolve(ClassConstructorBasicDependency.class);
+
+        // when
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefaultAndParameterized.class,
+                                ConstructionPolicy.CONSTRUCTION);
+
+        ClassConstructorBasicDependency result =
+                testObject.resolve(ClassConstructorBasicDependency.class);
+
+        // then
+        Assertions.assertThat(result).isNotSameAs(stale);
+        Assertions.assertThat(result.getBasicObject())
+                  .isInstanceOf(ClassConstructorDefaultAndParameterized.class);
     }
 
     @Test
-    public void resolve_WhenNoPublicConstructors_ThenNoSuitableConstructorException()
+    public void registerType_WhenTypeOnChainReplaced_ThenDependentSingletonConstructedAgain()
     {
-        Assertions.assertThatThrownBy(() -> testObject.resolve(ClassConstructorPrivate.class))
-                  .isInstanceOf(NoSuitableConstructorException.class);
+        // given
+        testObject.registerType(InterfaceBasic.class, ClassBasicAbstract.class,
+                                ConstructionPolicy.CONSTRUCTION)
+                  .registerType(ClassBasicAbstract.class, ClassBasicInheritsFromAbstract.class,
+                                ConstructionPolicy.CONSTRUCTION)
+                  .registerType(ClassConstructorBasicDependency.class,
+                                ConstructionPolicy.SINGLETON);
+
+        ClassConstructorBasicDependency stale =
+                testObject.resolve(ClassConstructorBasicDependency.class);
+
+        // when
+        testObject.registerType(ClassBasicAbstract.class,
+                                ClassBasicOtherInheritsFromAbstract.class,
+                                ConstructionPolicy.CONSTRUCTION);
+
+        ClassConstructorBasicDependency result =
+                testObject.resolve(ClassConstructorBasicDependency.class);
+
+        // then
+        Assertions.assertThat(stale.getBasicObject())
+                  .isInstanceOf(ClassBasicInheritsFromAbstract.class);
+        Assertions.assertThat(result.getBasicObject())
+                  .isInstanceOf(ClassBasicOtherInheritsFromAbstract.class);
     }
 
     @Test
-    public void resolve_WhenDependencySetterHasReturnType_ThenIncorrectDependencySetterException()
+    public void registerType_WhenTypeOnChainOfSingletonReplaced_ThenSingletonConstructedAgain()
     {
-        Assertions.assertThatThrownBy(
-                          () -> testObject.resolve(ClassSetterIncorrectReturnType.class))
-                  .isInstanceOf(IncorrectDependencySetterException.class);
+        // given
+        testObject.registerType(InterfaceBasic.class, ClassBasicAbstract.class,
+                                ConstructionPolicy.SINGLETON)
+                  .registerType(ClassBasicAbstract.class, ClassBasicInheritsFromAbstract.class,
+                                ConstructionPolicy.SINGLETON);
+        testObject.resolve(InterfaceBasic.class);
+
+        // when
+        testObject.registerType(ClassBasicAbstract.class,
+                                ClassBasicOtherInheritsFromAbstract.class,
+                                ConstructionPolicy.SINGLETON);
+
+        InterfaceBasic result = testObject.resolve(InterfaceBasic.class);
+
+        // then
+        Assertions.assertThat(result).isInstanceOf(ClassBasicOtherInheritsFromAbstract.class);
     }
 
     @Test
-    public void resolve_WhenDependencySetterHasNoParameters_ThenIncorrectDependencySetterException()
+    public void registerInstance_WhenInstanceReplaced_ThenDependentsConstructedAgainTransitively()
     {
-        Assertions.assertThatThrownBy(() -> testObject.resolve(ClassSetterWithoutParameters.class))
-                  .isInstanceOf(IncorrectDependencySetterException.class);
+        // given
+        testObject.registerInstance(CloseLog.class, new CloseLog())
+                  .registerType(ClassLifecycleDatabase.class, ConstructionPolicy.SINGLETON)
+                  .registerType(ClassLifecycleLeft.class, ConstructionPolicy.SINGLETON)
+                  .registerType(ClassLifecycleRight.class, ConstructionPolicy.SINGLETON)
+                  .registerType(ClassLifecycleService.class, ConstructionPolicy.SINGLETON)
+                  .registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                ConstructionPolicy.SINGLETON);
+
+        ClassLifecycleService stale = testObject.resolve(ClassLifecycleService.class);
+        InterfaceBasic unrelated = testObject.resolve(InterfaceBasic.class);
+
+        // when
+        testObject.registerInstance(CloseLog.class, new CloseLog());
+
+        ClassLifecycleService result = testObject.resolve(ClassLifecycleService.class);
+
+        // then
+        Assertions.assertThat(result).isNotSameAs(stale);
+        Assertions.assertThat(result.getLeft()).isNotSameAs(stale.getLeft());
+        Assertions.assertThat(result.getRight()).isNotSameAs(stale.getRight());
+        Assertions.assertThat(testObject.resolve(InterfaceBasic.class)).isSameAs(unrelated);
     }
 
+    // endregion
+    // region registerElement
+
     @Test
-    public void resolve_WhenDependencySetterNameDoesNotStartWithSet_ThenIncorrectDependencySetterException()
+    public void registerElement_WhenConstructionElements_ThenAllInjectedInOrderOfRegistration()
     {
-        Assertions.assertThatThrownBy(() -> testObject.resolve(ClassSetterIncorrectName.class))
-                  .isInstanceOf(IncorrectDependencySetterException.class);
+        // given
+        testObject.registerElement(InterfaceBasic.class, ClassConstructorDefault.class,
+                                   ConstructionPolicy.CONSTRUCTION)
+                  .registerElement(InterfaceBasic.class,
+                                   ClassConstructorDefaultAndParameterized.class,
+                                   ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        ClassElementsCollections result1 = testObject.resolve(ClassElementsCollections.class);
+        ClassElementsCollections result2 = testObject.resolve(ClassElementsCollections.class);
+
+        // then
+        Assertions.assertThat(result1.getList())
+                  .hasExactlyElementsOfTypes(ClassConstructorDefault.class,
+                                             ClassConstructorDefaultAndParameterized.class);
+        Assertions.assertThat(result1.getSet()).hasSize(2);
+        Assertions.assertThat(result1.getArray()).hasSize(2);
+        Assertions.assertThat(result2.getList()).isNotSameAs(result1.getList());
+        Assertions.assertThat(result2.getList().get(0)).isNotSameAs(result1.getList().get(0));
     }
 
     @Test
-    public void resolve_WhenDependencySetterOnly_ThenInstanceIsResolved()
+    public void registerElement_WhenSingletonElements_ThenSameCollectionsInjected()
     {
         // given
-        DiContainer diContainer =
-                testObject.registerType(InterfaceSetter.class, ClassSetterSingle.class,
-                                        ConstructionPolicy.CONSTRUCTION);
-        diContainer.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
-                                 ConstructionPolicy.CONSTRUCTION);
+        testObject.registerElement(InterfaceBasic.class, ClassConstructorDefault.class,
+                                   ConstructionPolicy.SINGLETON)
+                  .registerElement(InterfaceBasic.class,
+                                   ClassConstructorDefaultAndParameterized.class,
+                                   ConstructionPolicy.SINGLETON);
 
         // when
-        InterfaceSetter result = testObject.resolve(InterfaceSetter.class);
+        ClassElementsCollections result1 = testObject.resolve(ClassElementsCollections.class);
+        ClassElementsCollections result2 = testObject.resolve(ClassElementsCollections.class);
 
         // then
-        Assertions.assertThat(result).isNotNull().isInstanceOf(ClassSetterSingle.class);
-        Assertions.assertThat(result.getBasicObject()).isNotNull();
+        Assertions.assertThat(result2.getList()).isSameAs(result1.getList());
+        Assertions.assertThat(result2.getSet()).isSameAs(result1.getSet());
+        Assertions.assertThat(result2.getArray()).isNotSameAs(result1.getArray())
+                  .containsExactly(result1.getList().toArray(InterfaceBasic[]::new));
+        Assertions.assertThat(result1.getList().get(0))
+                  .isSameAs(testObject.resolve(ClassConstructorDefault.class));
+        Assertions.assertThatThrownBy(() -> result1.getList().clear())
+                  .isInstanceOf(UnsupportedOperationException.class);
     }
 
     @Test
-    public void resolve_WhenDependencySetterAndConstructor_ThenInstanceIsResolved()
+    public void registerElement_WhenElementAdded_ThenDependentSingletonConstructedAgain()
     {
         // given
-        DiContainer diContainer =
-                testObject.registerType(InterfaceSetter.class, ClassSetterConstructor.class,
-                                        ConstructionPolicy.CONSTRUCTION);
-        diContainer.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+        testObject.registerElement(InterfaceBasic.class, ClassConstructorDefault.class,
+                                   ConstructionPolicy.SINGLETON)
+                  .registerType(ClassElementsCollections.class, ConstructionPolicy.SINGLETON);
+
+        ClassElementsCollections stale = testObject.resolve(ClassElementsCollections.class);
+
+        // when
+        testObject.registerElement(InterfaceBasic.class,
+                                   ClassConstructorDefaultAndParameterized.class,
+                                   ConstructionPolicy.SINGLETON);
+
+        ClassElementsCollections result = testObject.resolve(ClassElementsCollections.class);
+
+        // then
+        Assertions.assertThat(stale.getList()).hasSize(1);
+        Assertions.assertThat(result).isNotSameAs(stale);
+        Assertions.assertThat(result.getList()).hasSize(2).startsWith(stale.getList().get(0));
+    }
+
+    @Test
+    public void registerElement_WhenNoElements_ThenNoInstanceCreatedException()
+    {
+        // when
+        Exception exception = Assertions.catchException(
+                () -> testObject.resolve(ClassElementsCollections.class));
+
+        // then
+        Assertions.assertThat(exception)
+                  .isInstanceOf(NoInstanceCreatedException.class)
+                  .hasCauseInstanceOf(MissingDependenciesException.class);
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void registerElement_WhenNotDerivedType_ThenNotDerivedTypeException()
+    {
+        // when
+        Exception exception = Assertions.catchException(
+                () -> testObject.registerElement((Class)InterfaceBasic.class,
+                                                 ClassConstructorBasicDependency.class,
+                                                 ConstructionPolicy.SINGLETON));
+
+        // then
+        Assertions.assertThat(exception).isInstanceOf(NotDerivedTypeException.class);
+    }
+
+    // endregion
+    // region registerEntry
+
+    @Test
+    public void registerEntry_WhenSingletonEntries_ThenMapOfSharedValuesInjected()
+    {
+        // given
+        testObject.registerEntry(InterfaceBasic.class, "first", ClassConstructorDefault.class,
+                                 ConstructionPolicy.SINGLETON)
+                  .registerEntry(InterfaceBasic.class, "second",
+                                 ClassConstructorDefaultAndParameterized.class,
+                                 ConstructionPolicy.SINGLETON);
+
+        // when
+        Map<String, InterfaceBasic> result1 = testObject.resolve(ClassElementsMap.class).getMap();
+        Map<String, InterfaceBasic> result2 = testObject.resolve(ClassElementsMap.class).getMap();
+
+        // then
+        Assertions.assertThat(result1.keySet()).containsExactly("first", "second");
+        Assertions.assertThat(result1.get("first")).isInstanceOf(ClassConstructorDefault.class)
+                  .isSameAs(result1.get("first"))
+                  .isSameAs(testObject.resolve(ClassConstructorDefault.class));
+        Assertions.assertThat(result1.get("second"))
+                  .isInstanceOf(ClassConstructorDefaultAndParameterized.class);
+        Assertions.assertThat(result1.get("third")).isNull();
+        Assertions.assertThat(result2).isSameAs(result1);
+        Assertions.assertThatThrownBy(() -> result1.put("third", new ClassConstructorDefault()))
+                  .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void registerEntry_WhenConstructionEntry_ThenNewValueOnEachAccess()
+    {
+        // given
+        testObject.registerEntry(InterfaceBasic.class, "first", ClassConstructorDefault.class,
                                  ConstructionPolicy.CONSTRUCTION);
 
+        Map<String, InterfaceBasic> map = testObject.resolve(ClassElementsMap.class).getMap();
+
         // when
-        InterfaceSetter result = testObject.resolve(InterfaceSetter.class);
+        InterfaceBasic result1 = map.get("first");
+        InterfaceBasic result2 = map.get("first");
 
         // then
-        Assertions.assertThat(result).isNotNull().isInstanceOf(ClassSetterConstructor.class);
-        Assertions.assertThat(result.getBasicObject()).isNotNull();
+        Assertions.assertThat(result1).isInstanceOf(ClassConstructorDefault.class);
+        Assertions.assertThat(result2).isNotSameAs(result1);
+        Assertions.assertThat(map).containsOnlyKeys("first");
     }
 
     @Test
-    public void resolve_WhenDoubleDependencySetter_ThenIncorrectDependencySetterException()
+    public void registerEntry_WhenEntryAdded_ThenDependentSingletonConstructedAgain()
     {
         // given
-        testObject.registerType(InterfaceSetterMultipleParameters.class,
-                                ClassSetterMultipleParameters.class,
-                                ConstructionPolicy.CONSTRUCTION);
+        testObject.registerEntry(InterfaceBasic.class, "first", ClassConstructorDefault.class,
+                                 ConstructionPolicy.SINGLETON)
+                  .registerType(ClassElementsMap.class, ConstructionPolicy.SINGLETON);
+
+        ClassElementsMap stale = testObject.resolve(ClassElementsMap.class);
+
+        // when
+        testObject.registerEntry(InterfaceBasic.class, "second",
+                                 ClassConstructorDefaultAndParameterized.class,
+                                 ConstructionPolicy.SINGLETON);
+
+        ClassElementsMap result = testObject.resolve(ClassElementsMap.class);
 
         // then
-        Assertions.assertThatThrownBy(
-                          () -> testObject.resolve(InterfaceSetterMultipleParameters.class))
-                  .isInstanceOf(IncorrectDependencySetterException.class);
+        Assertions.assertThat(result).isNotSameAs(stale);
+        Assertions.assertThat(stale.getMap()).containsOnlyKeys("first");
+        Assertions.assertThat(result.getMap()).containsOnlyKeys("first", "second");
     }
 
     @Test
-    public void resolve_WhenMultipleDependencySetters_ThenInstanceIsResolved()
+    public void registerEntry_WhenKeyOfOtherType_ThenNoInstanceCreatedException()
     {
         // given
-        String string = "string";
+        testObject.registerEntry(InterfaceBasic.class, 1, ClassConstructorDefault.class,
+                                 ConstructionPolicy.SINGLETON);
 
-        DiContainer diContainer = testObject.registerInstance(String.class, string);
-        DiContainer diContainer2 =
-                diContainer.registerType(InterfaceSetterMultiple.class, ClassSetterMultiple.class,
-                                         ConstructionPolicy.CONSTRUCTION);
-        DiContainer diContainer1 =
-                diContainer2.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
-                                          ConstructionPolicy.CONSTRUCTION);
-        diContainer1.registerType(InterfaceBasicStringGetter.class, ClassBasicStringGetter.class,
-                                  ConstructionPolicy.CONSTRUCTION);
+        // when
+        Exception exception =
+                Assertions.catchException(() -> testObject.resolve(ClassElementsMap.class));
+
+        // then
+        Assertions.assertThat(exception)
+                  .isInstanceOf(NoInstanceCreatedException.class)
+                  .hasCauseInstanceOf(MissingDependenciesException.class);
+    }
+
+    // endregion
+    // region registerType [names]
+
+    @Test
+    public void registerType_WhenNamesAsSingleton_ThenSubtypeLoadedAndSameInstances()
+    {
+        // given
+        testObject.registerType(InterfaceBasic.class.getName(),
+                                ClassConstructorDefault.class.getName(),
+                                ConstructionPolicy.SINGLETON);
 
         // when
-        InterfaceSetterMultiple result = testObject.resolve(InterfaceSetterMultiple.class);
+        InterfaceBasic result1 = testObject.resolve(InterfaceBasic.class);
+        InterfaceBasic result2 = testObject.resolve(InterfaceBasic.class);
 
         // then
-        Assertions.assertThat(result).isNotNull().isInstanceOf(ClassSetterMultiple.class);
-        Assertions.assertThat(result.getBasicObject()).isNotNull();
-        Assertions.assertThat(result.getStringObject()).isNotNull();
+        Assertions.assertThat(result1).isInstanceOf(ClassConstructorDefault.class);
+        Assertions.assertThat(result2).isSameAs(result1);
+    }
+
+    @Test
+    public void registerType_WhenNamesAfterClasses_ThenNamesReplaceClasses()
+    {
+        // given
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                ConstructionPolicy.CONSTRUCTION);
+        testObject.registerType(InterfaceBasic.class.getName(),
+                                ClassConstructorDefaultAndParameterized.class.getName(),
+                                ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        InterfaceBasic result = testObject.resolve(InterfaceBasic.class);
+
+        // then
+        Assertions.assertThat(result).isInstanceOf(ClassConstructorDefaultAndParameterized.class);
+    }
+
+    @Test
+    public void registerType_WhenNamesReplaceResolvedSingleton_ThenSingletonsConstructedAgain()
+    {
+        // given
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                ConstructionPolicy.SINGLETON)
+                  .registerType(ClassConstructorBasicDependency.class,
+                                ConstructionPolicy.SINGLETON);
+
+        ClassConstructorBasicDependency stale =
+                testObject.resolve(ClassConstructorBasicDependency.class);
+
+        // when
+        testObject.registerType(InterfaceBasic.class.getName(),
+                                ClassConstructorDefaultAndParameterized.class.getName(),
+                                ConstructionPolicy.SINGLETON);
+
+        ClassConstructorBasicDependency result =
+                testObject.resolve(ClassConstructorBasicDependency.class);
+
+        // then
+        Assertions.assertThat(result).isNotSameAs(stale);
+        Assertions.assertThat(result.getBasicObject())
+                  .isInstanceOf(ClassConstructorDefaultAndParameterized.class)
+                  .isSameAs(testObject.resolveAll(InterfaceBasic.class).get(InterfaceBasic.class));
+    }
+
+    @Test
+    public void registerType_WhenSubtypeNameMissing_ThenRegistrationExceptionOnResolve()
+    {
+        // given
+        testObject.registerType(InterfaceBasic.class.getName(), "yadic.models.Missing",
+                                ConstructionPolicy.CONSTRUCTION);
+
+        // then
+        Assertions.assertThatThrownBy(() -> testObject.resolve(InterfaceBasic.class))
+                  .isInstanceOf(RegistrationException.class)
+                  .hasCauseInstanceOf(ClassNotFoundException.class);
+    }
+
+    @Test
+    public void registerType_WhenSubtypeNameNotDerived_ThenNotDerivedTypeExceptionOnResolve()
+    {
+        // given
+        testObject.registerType(InterfaceBasic.class.getName(), String.class.getName(),
+                                ConstructionPolicy.CONSTRUCTION);
+
+        // then
+        Assertions.assertThatThrownBy(() -> testObject.resolve(InterfaceBasic.class))
+                  .isInstanceOf(NotDerivedTypeException.class);
+    }
+
+    @Test
+    public void registerType_WhenNameOfTypeRegisteredWithInstance_ThenRegistrationException()
+    {
+        // given
+        testObject.registerInstance(InterfaceBasic.class, new ClassConstructorDefault());
+
+        // then
+        Assertions.assertThatThrownBy(
+                          () -> testObject.registerType(InterfaceBasic.class.getName(),
+                                                        ClassConstructorDefault.class.getName(),
+                                                        ConstructionPolicy.CONSTRUCTION))
+                  .isInstanceOf(RegistrationException.class);
+        Assertions.assertThat(testObject.resolve(InterfaceBasic.class))
+                  .isInstanceOf(ClassConstructorDefault.class);
+    }
+
+    @Test
+    public void registerType_WhenSameNamedTypeOfOtherLoaderResolved_ThenRegistrationException()
+            throws Exception
+    {
+        // given
+        Class<?> pluginType = new PluginClassLoader(InterfaceBasic.class.getName())
+                .loadClass(InterfaceBasic.class.getName());
+
+        testObject.registerType(InterfaceBasic.class.getName(),
+                                ClassConstructorDefault.class.getName(),
+                                ConstructionPolicy.CONSTRUCTION);
+
+        // then
+        Assertions.assertThatThrownBy(() -> testObject.resolve(pluginType))
+                  .isInstanceOf(RegistrationException.class);
+        Assertions.assertThat(testObject.resolve(InterfaceBasic.class))
+                  .isInstanceOf(ClassConstructorDefault.class);
+    }
+
+    // endregion
+    // region registerInstance
+
+    @Test
+    public void registerInstance_WhenInterface_ThenRegisteredInstance()
+    {
+        // given
+        ClassConstructorDefault instance = new ClassConstructorDefault();
+
+        testObject.registerInstance(InterfaceBasic.class, instance);
+
+        // when
+        InterfaceBasic result = testObject.resolve(InterfaceBasic.class);
+
+        // then
+        Assertions.assertThat(result)
+                  .isNotNull()
+                  .isInstanceOf(ClassConstructorDefault.class)
+                  .isSameAs(instance);
+    }
+
+    @Test
+    public void registerInstance_WhenAbstractClass_ThenRegisteredInstance()
+    {
+        // given
+        ClassBasicInheritsFromAbstract instance = new ClassBasicInheritsFromAbstract();
+
+        testObject.registerInstance(ClassBasicAbstract.class, instance);
+
+        // when
+        ClassBasicAbstract result = testObject.resolve(ClassBasicAbstract.class);
+
+        // then
+        Assertions.assertThat(result)
+                  .isNotNull()
+                  .isInstanceOf(ClassBasicInheritsFromAbstract.class)
+                  .isSameAs(instance);
+    }
+
+    @Test
+    public void registerInstance_WhenSameConcreteClass_ThenRegisteredInstance()
+    {
+        // given
+        ClassConstructorDefaultAndParameterized instance =
+                new ClassConstructorDefaultAndParameterized();
+
+        testObject.registerInstance(ClassConstructorDefaultAndParameterized.class, instance);
+
+        // when
+        ClassConstructorDefaultAndParameterized result =
+                testObject.resolve(ClassConstructorDefaultAndParameterized.class);
+
+        // then
+        Assertions.assertThat(result).isNotNull().isSameAs(instance);
+        Assertions.assertThat(result.getText()).isEqualTo(instance.getText());
+    }
+
+    @Test
+    public void registerInstance_WhenDerivedConcreteClass_ThenRegisteredInstance()
+    {
+        // given
+        ClassConstructorSuperParameterized instance = new ClassConstructorSuperParameterized();
+
+        testObject.registerInstance(ClassConstructorParameterized.class, instance);
+
+        // when
+        ClassConstructorParameterized result =
+                testObject.resolve(ClassConstructorParameterized.class);
+
+        // then
+        Assertions.assertThat(result)
+                  .isNotNull()
+                  .isSameAs(instance)
+                  .isInstanceOf(ClassConstructorSuperParameterized.class);
+        Assertions.assertThat(result.getNumber()).isEqualTo(instance.getNumber());
+    }
+
+    @Test
+    public void registerInstance_WhenInstanceIsNull_ThenNullPointerException()
+    {
+        Assertions.assertThatThrownBy(
+                () -> testObject.registerInstance(ClassConstructorDefaultAndParameterized.class,
+                                                  null)).isInstanceOf(NullPointerException.class);
+    }
+
+    // endregion
+    // region install
+
+    @Test
+    public void install_WhenModules_ThenAllBindingsRegistered()
+    {
+        // given
+        String string = "string";
+        DiModule types = bindings -> bindings.registerType(InterfaceBasic.class,
+                                                           ClassConstructorDefault.class,
+                                                           ConstructionPolicy.SINGLETON);
+        DiModule instances = bindings -> bindings.registerInstance(String.class, string);
+
+        // when
+        testObject.install(types, instances);
+
+        // then
+        Assertions.assertThat(testObject.resolve(InterfaceBasic.class))
+                  .isInstanceOf(ClassConstructorDefault.class)
+                  .isSameAs(testObject.resolve(InterfaceBasic.class));
+        Assertions.assertThat(testObject.resolve(String.class)).isSameAs(string);
+    }
+
+    @Test
+    public void install_WhenAnyBindingIncorrect_ThenNothingRegistered()
+    {
+        // given
+        DiModule correct = bindings -> bindings.registerType(InterfaceBasicStringGetter.class,
+                                                             ClassBasicStringGetter.class,
+                                                             ConstructionPolicy.CONSTRUCTION);
+        DiModule incorrect =
+                bindings -> bindings.registerType(ClassBasicAbstract.class,
+                                                  ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        Assertions.assertThatThrownBy(() -> testObject.install(correct, incorrect))
+                  .isInstanceOf(AbstractTypeException.class);
+
+        // then
+        Assertions.assertThat(testObject.resolveOrNull(InterfaceBasicStringGetter.class))
+                  .isNull();
+    }
+
+    @Test
+    public void install_WhenTypeAndInstanceOfSameType_ThenRegistrationException()
+    {
+        // given
+        DiModule module = bindings -> bindings.registerType(InterfaceBasic.class,
+                                                            ClassConstructorDefault.class,
+                                                            ConstructionPolicy.CONSTRUCTION)
+                                              .registerInstance(InterfaceBasic.class,
+                                                                new ClassConstructorDefault());
+
+        // then
+        Assertions.assertThatThrownBy(() -> testObject.install(module))
+                  .isInstanceOf(RegistrationException.class);
+        Assertions.assertThat(testObject.resolveOrNull(InterfaceBasic.class)).isNull();
+    }
+
+    // endregion
+    // region resolve (@Dependency)
+
+    @Test
+    public void resolve_WhenMultipleAnnotatedConstructors_ThenMultipleAnnotatedConstructorsException()
+    {
+        Assertions.assertThatThrownBy(
+                          () -> testObject.resolve(ClassConstructorMultipleAnnotated.class))
+                  .isInstanceOf(MultipleAnnotatedConstructorsException.class);
+    }
+
+    @Test
+    public void resolve_WhenNoPublicConstructors_ThenNoSuitableConstructorException()
+    {
+        Assertions.assertThatThrownBy(() -> testObject.resolve(ClassConstructorPrivate.class))
+                  .isInstanceOf(NoSuitableConstructorException.class);
+    }
+
+    @Test
+    public void resolve_WhenDependencySetterHasReturnType_ThenIncorrectDependencySetterException()
+    {
+        Assertions.assertThatThrownBy(
+                          () -> testObject.resolve(ClassSetterIncorrectReturnType.class))
+                  .isInstanceOf(IncorrectDependencySetterException.class);
+    }
+
+    @Test
+    public void resolve_WhenDependencySetterHasNoParameters_ThenIncorrectDependencySetterException()
+    {
+        Assertions.assertThatThrownBy(() -> testObject.resolve(ClassSetterWithoutParameters.class))
+                  .isInstanceOf(IncorrectDependencySetterException.class);
+    }
+
+    @Test
+    public void resolve_WhenDependencySetterNameDoesNotStartWithSet_ThenIncorrectDependencySetterException()
+    {
+        Assertions.assertThatThrownBy(() -> testObject.resolve(ClassSetterIncorrectName.class))
+                  .isInstanceOf(IncorrectDependencySetterException.class);
+    }
+
+    @Test
+    public void resolve_WhenDependencySetterOnly_ThenInstanceIsResolved()
+    {
+        // given
+        DiContainer diContainer =
+                testObject.registerType(InterfaceSetter.class, ClassSetterSingle.class,
+                                        ConstructionPolicy.CONSTRUCTION);
+        diContainer.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                 ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        InterfaceSetter result = testObject.resolve(InterfaceSetter.class);
+
+        // then
+        Assertions.assertThat(result).isNotNull().isInstanceOf(ClassSetterSingle.class);
+        Assertions.assertThat(result.getBasicObject()).isNotNull();
+    }
+
+    @Test
+    public void resolve_WhenDependencySetterAndConstructor_ThenInstanceIsResolved()
+    {
+        // given
+        DiContainer diContainer =
+                testObject.registerType(InterfaceSetter.class, ClassSetterConstructor.class,
+                                        ConstructionPolicy.CONSTRUCTION);
+        diContainer.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                 ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        InterfaceSetter result = testObject.resolve(InterfaceSetter.class);
+
+        // then
+        Assertions.assertThat(result).isNotNull().isInstanceOf(ClassSetterConstructor.class);
+        Assertions.assertThat(result.getBasicObject()).isNotNull();
+    }
+
+    @Test
+    public void resolve_WhenDoubleDependencySetter_ThenIncorrectDependencySetterException()
+    {
+        // given
+        testObject.registerType(InterfaceSetterMultipleParameters.class,
+                                ClassSetterMultipleParameters.class,
+                                ConstructionPolicy.CONSTRUCTION);
+
+        // then
+        Assertions.assertThatThrownBy(
+                          () -> testObject.resolve(InterfaceSetterMultipleParameters.class))
+                  .isInstanceOf(IncorrectDependencySetterException.class);
+    }
+
+    @Test
+    public void resolve_WhenMultipleDependencySetters_ThenInstanceIsResolved()
+    {
+        // given
+        String string = "string";
+
+        DiContainer diContainer = testObject.registerInstance(String.class, string);
+        DiContainer diContainer2 =
+                diContainer.registerType(InterfaceSetterMultiple.class, ClassSetterMultiple.class,
+                                         ConstructionPolicy.CONSTRUCTION);
+        DiContainer diContainer1 =
+                diContainer2.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                          ConstructionPolicy.CONSTRUCTION);
+        diContainer1.registerType(InterfaceBasicStringGetter.class, ClassBasicStringGetter.class,
+                                  ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        InterfaceSetterMultiple result = testObject.resolve(InterfaceSetterMultiple.class);
+
+        // then
+        Assertions.assertThat(result).isNotNull().isInstanceOf(ClassSetterMultiple.class);
+        Assertions.assertThat(result.getBasicObject()).isNotNull();
+        Assertions.assertThat(result.getStringObject()).isNotNull();
         Assertions.assertThat(result.getStringObject().getString()).isNotNull().isEqualTo(string);
     }
 
+    // endregion
+    // region resolve (@PostConstruct)
+
+    @Test
+    public void resolve_WhenPostConstruct_ThenInvokedOnceAfterSetters()
+    {
+        // given
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        ClassPostConstruct result = testObject.resolve(ClassPostConstruct.class);
+
+        // then
+        Assertions.assertThat(result.getInitializations()).isEqualTo(1);
+        Assertions.assertThat(result.isInjectedBeforeInitialization()).isTrue();
+    }
+
+    @Test
+    public void resolve_WhenPostConstructSingleton_ThenInvokedOnlyOnCreation()
+    {
+        // given
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                ConstructionPolicy.CONSTRUCTION)
+                  .registerType(ClassPostConstruct.class, ConstructionPolicy.SINGLETON);
+
+        // when
+        ClassPostConstruct result1 = testObject.resolve(ClassPostConstruct.class);
+        ClassPostConstruct result2 = testObject.resolve(ClassPostConstruct.class);
+
+        // then
+        Assertions.assertThat(result2).isSameAs(result1);
+        Assertions.assertThat(result2.getInitializations()).isEqualTo(1);
+    }
+
+    @Test
+    public void resolve_WhenPostConstructHasParameters_ThenIncorrectPostConstructException()
+    {
+        // then
+        Assertions.assertThatThrownBy(() -> testObject.resolve(ClassPostConstructIncorrect.class))
+                  .isInstanceOf(IncorrectPostConstructException.class);
+    }
+
+    @Test
+    public void resolve_WhenPostConstructThrows_ThenPostConstructInvocationException()
+    {
+        // then
+        Assertions.assertThatThrownBy(() -> testObject.resolve(ClassPostConstructThrows.class))
+                  .isInstanceOf(PostConstructInvocationException.class)
+                  .hasRootCauseMessage("initialization failed");
+    }
+
+    @Test
+    public void resolve_WhenPostConstructOfSingletonThrows_ThenSingletonNotStored()
+    {
+        // given
+        testObject.registerType(ClassPostConstructThrows.class, ConstructionPolicy.SINGLETON);
+
+        Assertions.assertThatThrownBy(() -> testObject.resolve(ClassPostConstructThrows.class))
+                  .isInstanceOf(PostConstructInvocationException.class);
+
+        // then
+        Assertions.assertThatThrownBy(() -> testObject.resolve(ClassPostConstructThrows.class))
+                  .isInstanceOf(PostConstructInvocationException.class)
+                  .hasRootCauseMessage("initialization failed");
+    }
+
+    @Test
+    public void resolveAsync_WhenIndependentSingletonsWithPostConstruct_ThenHooksRunConcurrently()
+            throws Exception
+    {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try
+        {
+            testObject = new DiContainer(new DiConfiguration().executor(executor));
+            testObject.registerInstance(CyclicBarrier.class, new CyclicBarrier(2))
+                      .registerType(ClassPostConstructBarrierLeft.class,
+                                    ConstructionPolicy.SINGLETON)
+                      .registerType(ClassPostConstructBarrierRight.class,
+                                    ConstructionPolicy.SINGLETON);
+
+            // when
+            ClassPostConstructBarrierTop result =
+                    testObject.resolveAsync(ClassPostConstructBarrierTop.class)
+                              .get(10, TimeUnit.SECONDS);
+
+            // then
+            Assertions.assertThat(result.getLeft()).isNotNull();
+            Assertions.assertThat(result.getRight()).isNotNull();
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void resolveAsync_WhenSingleThreadExecutor_ThenBranchesResolvedInCallingThread()
+            throws Exception
+    {
+        // given
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            testObject = new DiContainer(new DiConfiguration().executor(executor));
+            testObject.registerType(InterfaceDiamondLeft.class, ClassDiamondLeft.class,
+                                    ConstructionPolicy.CONSTRUCTION)
+                      .registerType(InterfaceDiamondRight.class, ClassDiamondRight.class,
+                                    ConstructionPolicy.CONSTRUCTION)
+                      .registerType(InterfaceDiamondTop.class, ClassDiamondTop.class,
+                                    ConstructionPolicy.CONSTRUCTION);
+
+            // when
+            ClassDiamondBottom result = testObject.resolveAsync(ClassDiamondBottom.class)
+                                                  .get(10, TimeUnit.SECONDS);
+
+            // then
+            Assertions.assertThat(result.getDiamond1()).isNotNull();
+            Assertions.assertThat(result.getDiamond2()).isNotNull();
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void resolveAsync_WhenDependencyResolvedInBranch_ThenItsTimeNotCountedAsOverhead()
+            throws Exception
+    {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try
+        {
+            testObject = new DiContainer(
+                    new DiConfiguration().executor(executor).collectMetrics(true));
+            testObject.registerType(ClassConstructorSlow.class, ConstructionPolicy.CONSTRUCTION)
+                      .registerType(ClassConstructorDefault.class,
+                                    ConstructionPolicy.CONSTRUCTION);
+
+            // when
+            testObject.resolveAsync(ClassConstructorSlowDependency.class)
+                      .get(10, TimeUnit.SECONDS);
+
+            // then
+            TypeMetrics metrics = testObject.metrics().get(ClassConstructorSlowDependency.class);
+
+            Assertions.assertThat(metrics.overheadTime().meanNanos())
+                      .isLessThan(TimeUnit.MILLISECONDS.toNanos(
+                              ClassConstructorSlow.DELAY_MILLIS / 2));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void resolveAsync_WhenBranchAndLastParameterFail_ThenBranchFailureSuppressed()
+    {
+        // given
+        testObject = new DiContainer(new DiConfiguration().executor(Runnable::run));
+        testObject.registerType(ClassConstructorExceptionThrown.class,
+                                ConstructionPolicy.CONSTRUCTION)
+                  .registerType(ClassPostConstructThrows.class, ConstructionPolicy.CONSTRUCTION);
+
+        // then
+        Assertions.assertThatThrownBy(
+                          () -> testObject.resolveAsync(ClassConstructorFailingDependencies.class)
+                                          .join())
+                  .isInstanceOf(CompletionException.class)
+                  .cause()
+                  .isInstanceOf(PostConstructInvocationException.class)
+                  .satisfies(e -> Assertions.assertThat(e.getSuppressed()).hasSize(1));
+    }
+
+    // endregion
+    // region resolveAll/resolveMany
+
+    @Test
+    public void resolveAll_WhenTypesRegistered_ThenAllInstancesResolved()
+    {
+        // given
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                ConstructionPolicy.SINGLETON);
+        testObject.registerType(InterfaceSetter.class, ClassSetterSingle.class,
+                                ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        ResolvedInstances result =
+                testObject.resolveAll(InterfaceBasic.class, InterfaceSetter.class);
+
+        // then
+        Assertions.assertThat(result.size()).isEqualTo(2);
+        Assertions.assertThat(result.get(InterfaceBasic.class))
+                  .isInstanceOf(ClassConstructorDefault.class);
+        Assertions.assertThat(result.get(InterfaceSetter.class).getBasicObject())
+                  .isSameAs(result.get(InterfaceBasic.class));
+        Assertions.assertThat(result.get(1)).isSameAs(result.get(InterfaceSetter.class));
+    }
+
+    @Test
+    public void resolveAll_WhenTypeNotRequested_ThenNoSuchElementException()
+    {
+        // given
+        ResolvedInstances result = testObject.resolveAll(ClassConstructorDefault.class);
+
+        // then
+        Assertions.assertThatThrownBy(() -> result.get(InterfaceBasic.class))
+                  .isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    public void resolveMany_WhenConstructionPolicy_ThenDifferentInstances()
+    {
+        // given
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        List<InterfaceBasic> result = testObject.resolveMany(InterfaceBasic.class, 3);
+
+        // then
+        Assertions.assertThat(result).hasSize(3).doesNotContainNull().doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void resolveMany_WhenSingletonPolicy_ThenSameInstance()
+    {
+        // given
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                ConstructionPolicy.SINGLETON);
+
+        // when
+        List<InterfaceBasic> result = testObject.resolveMany(InterfaceBasic.class, 3);
+
+        // then
+        Assertions.assertThat(result).hasSize(3).containsOnly(result.get(0));
+    }
+
+    // endregion
+    // region DiConfiguration
+
+    @Test
+    public void resolve_WhenDetailedExceptionsDisabled_ThenStacklessExceptionWithMessage()
+    {
+        // given
+        testObject = new DiContainer(new DiConfiguration().detailedExceptions(false));
+
+        // then
+        Assertions.assertThatThrownBy(() -> testObject.resolve(InterfaceBasic.class))
+                  .isInstanceOf(DiException.class)
+                  .hasMessageContaining(InterfaceBasic.class.getName())
+                  .satisfies(e -> Assertions.assertThat(e.getStackTrace()).isEmpty());
+    }
+
+    @Test
+    public void resolve_WhenDetailedExceptionsEnabled_ThenExceptionWithStackTrace()
+    {
+        Assertions.assertThatThrownBy(() -> testObject.resolve(InterfaceBasic.class))
+                  .isInstanceOf(DiException.class)
+                  .hasMessageContaining(InterfaceBasic.class.getName())
+                  .satisfies(e -> Assertions.assertThat(e.getStackTrace()).isNotEmpty());
+    }
+
+    // endregion
+    // region metrics
+
+    @Test
+    public void metrics_WhenEnabled_ThenCountersOfResolvedTypes()
+    {
+        // given
+        testObject = new DiContainer(new DiConfiguration().collectMetrics(true));
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                ConstructionPolicy.SINGLETON);
+        testObject.resolve(InterfaceBasic.class);
+        testObject.resolve(InterfaceBasic.class);
+
+        // when
+        Map<Class<?>, TypeMetrics> result = testObject.metrics();
+
+        // then
+        Assertions.assertThat(result).containsKey(InterfaceBasic.class);
+
+        TypeMetrics metrics = result.get(InterfaceBasic.class);
+
+        Assertions.assertThat(metrics.resolveCount()).isEqualTo(2);
+        Assertions.assertThat(metrics.constructionCount()).isEqualTo(1);
+        Assertions.assertThat(metrics.singletonHits()).isEqualTo(1);
+        Assertions.assertThat(metrics.constructorTime().count()).isEqualTo(1);
+        Assertions.assertThat(metrics.overheadTime().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void metrics_WhenDisabled_ThenEmpty()
+    {
+        // given
+        testObject.resolve(ClassConstructorDefault.class);
+
+        // when
+        Map<Class<?>, TypeMetrics> result = testObject.metrics();
+
+        // then
+        Assertions.assertThat(result).isEmpty();
+    }
+
+    // endregion
+    // region ResolutionListener
+
+    @Test
+    public void resolve_WhenListenerAdded_ThenListenerNotified()
+    {
+        // given
+        List<String> events = new ArrayList<>();
+        ResolutionListener listener = new ResolutionListener()
+        {
+            @Override
+            public void beforeConstruct(Class<?> type, ConstructionPolicy policy, int depth)
+            {
+                events.add("before " + type.getSimpleName() + " " + depth);
+            }
+
+            @Override
+            public void afterConstruct(
+                    Class<?> type, ConstructionPolicy policy, int depth, long elapsedNanos)
+            {
+                events.add("after " + type.getSimpleName() + " " + depth);
+            }
+
+            @Override
+            public void singletonCreated(
+                    Class<?> type, ConstructionPolicy policy, Object instance, int depth,
+                    long elapsedNanos)
+            {
+                events.add("singleton " + type.getSimpleName() + " " + depth);
+            }
+
+            @Override
+            public void setterInjected(
+                    Class<?> type, ConstructionPolicy policy, Method setter, int depth,
+                    long elapsedNanos)
+            {
+                events.add("setter " + setter.getName() + " " + policy + " " + depth);
+            }
+        };
+
+        testObject = new DiContainer(new DiConfiguration().addListener(listener));
+        testObject.registerType(InterfaceSetter.class, ClassSetterSingle.class,
+                                ConstructionPolicy.CONSTRUCTION);
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                ConstructionPolicy.SINGLETON);
+
+        // when
+        testObject.resolve(InterfaceSetter.class);
+
+        // then
+        Assertions.assertThat(events)
+                  .containsExactly("before InterfaceSetter 1", "after InterfaceSetter 1",
+                                   "before InterfaceBasic 1", "after InterfaceBasic 1",
+                                   "singleton InterfaceBasic 1",
+                                   "setter setBasicObject CONSTRUCTION 1");
+    }
+
+    @Test
+    public void resolve_WhenListenerAddedAndResolutionFails_ThenFailureNotified()
+    {
+        // given
+        List<String> failures = new ArrayList<>();
+        ResolutionListener listener = new ResolutionListener()
+        {
+            @Override
+            public void resolutionFailed(
+                    Class<?> type, ConstructionPolicy policy, int depth, long elapsedNanos,
+                    DiException exception)
+            {
+                failures.add(type.getSimpleName() + " " + policy);
+            }
+        };
+
+        testObject = new DiContainer(new DiConfiguration().addListener(listener));
+
+        // when
+        testObject.resolveOrNull(ClassConstructorNotAnnotatedWithDependency.class);
+
+        // then
+        Assertions.assertThat(failures)
+                  .containsExactly("ClassConstructorNotAnnotatedWithDependency CONSTRUCTION");
+    }
+
+    // endregion
+    // region JFR events
+
+    @Test
+    public void resolve_WhenFlightRecording_ThenEventsRecorded()
+            throws IOException
+    {
+        // given
+        Path file = Files.createTempFile("yadic", ".jfr");
+        List<RecordedEvent> events;
+
+        try(Recording recording = new Recording())
+        {
+            recording.enable("yadic.Resolve").withThreshold(Duration.ZERO);
+            recording.enable("yadic.SingletonCreated").withThreshold(Duration.ZERO);
+            recording.enable("yadic.RegistryMutation");
+            recording.enable("yadic.ConstructorFallback");
+            recording.start();
+
+            // when
+            testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                    ConstructionPolicy.SINGLETON);
+            testObject.resolve(InterfaceBasic.class);
+            testObject.resolve(ClassConstructorDefaultAndParameterized.class);
+
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+
+        // then
+        Assertions.assertThat(events)
+                  .extracting(e -> e.getEventType().getName())
+                  .contains("yadic.Resolve", "yadic.SingletonCreated", "yadic.RegistryMutation",
+                            "yadic.ConstructorFallback");
+    }
+
+    // endregion
+    // region loadIndex
+
+    @Test
+    public void loadIndex_WhenIndexPresent_ThenTypesRegistered()
+            throws IOException
+    {
+        // given
+        Path directory = Files.createTempDirectory("yadic");
+        Path index = directory.resolve("META-INF/yadic/bindings.idx");
+
+        Files.createDirectories(index.getParent());
+        Files.writeString(index, String.format("# yadic binding index%n%s %s SINGLETON%n",
+                                               InterfaceBasic.class.getName(),
+                                               ClassConstructorDefault.class.getName()));
+
+        try(URLClassLoader classLoader = new URLClassLoader(
+                new URL[]{directory.toUri().toURL()}, getClass().getClassLoader()))
+        {
+            testObject = new DiContainer(new DiConfiguration().classLoader(classLoader));
+
+            // when
+            testObject.loadIndex();
+
+            InterfaceBasic result1 = testObject.resolve(InterfaceBasic.class);
+            InterfaceBasic result2 = testObject.resolve(InterfaceBasic.class);
+
+            // then
+            Assertions.assertThat(result1).isInstanceOf(ClassConstructorDefault.class);
+            Assertions.assertThat(result2).isSameAs(result1);
+        }
+    }
+
+    @Test
+    public void loadIndex_WhenClassMissing_ThenRegistrationException()
+            throws IOException
+    {
+        // given
+        Path directory = Files.createTempDirectory("yadic");
+        Path index = directory.resolve("META-INF/yadic/bindings.idx");
+
+        Files.createDirectories(index.getParent());
+        Files.writeString(index, "yadic.models.Missing yadic.models.Missing CONSTRUCTION\n");
+
+        try(URLClassLoader classLoader = new URLClassLoader(
+                new URL[]{directory.toUri().toURL()}, getClass().getClassLoader()))
+        {
+            testObject = new DiContainer(new DiConfiguration().classLoader(classLoader));
+
+            // then
+            Assertions.assertThatThrownBy(() -> testObject.loadIndex())
+                      .isInstanceOf(RegistrationException.class)
+                      .hasCauseInstanceOf(ClassNotFoundException.class);
+        }
+    }
+
+    // endregion
+    // region close
+
+    @Test
+    public void close_WhenSingletonsDependOnEachOther_ThenClosedInReverseDependencyOrder()
+    {
+        // given
+        CloseLog log = new CloseLog();
+
+        testObject.registerInstance(CloseLog.class, log)
+                  .registerType(ClassLifecycleDatabase.class, ConstructionPolicy.SINGLETON)
+                  .registerType(ClassLifecycleLeft.class, ConstructionPolicy.SINGLETON)
+                  .registerType(ClassLifecycleRight.class, ConstructionPolicy.SINGLETON)
+                  .registerType(ClassLifecycleService.class, ConstructionPolicy.SINGLETON);
+        testObject.resolve(ClassLifecycleService.class);
+
+        // when
+        testObject.close();
+
+        // then
+        Assertions.assertThat(log.getEntries())
+                  .hasSize(4)
+                  .startsWith("service")
+                  .endsWith("database");
+        Assertions.assertThat(log.getEntries().subList(1, 3))
+                  .containsExactlyInAnyOrder("left", "right");
+    }
+
+    @Test
+    public void close_WhenDependencyInjectedBySetter_ThenClosedAfterDependentSingleton()
+    {
+        // given
+        CloseLog log = new CloseLog();
+
+        testObject.registerInstance(CloseLog.class, log)
+                  .registerType(ClassLifecycleDatabase.class, ConstructionPolicy.SINGLETON)
+                  .registerType(ClassLifecycleHolder.class, ConstructionPolicy.SINGLETON);
+        testObject.resolve(ClassLifecycleHolder.class);
+
+        // when
+        testObject.close();
+
+        // then
+        Assertions.assertThat(log.getEntries()).containsExactly("holder", "database");
+    }
+
+    @Test
+    public void close_WhenNotSingletons_ThenNothingClosed()
+    {
+        // given
+        CloseLog log = new CloseLog();
+
+        testObject.registerInstance(CloseLog.class, log)
+                  .registerType(ClassLifecycleDatabase.class, ConstructionPolicy.CONSTRUCTION);
+        testObject.resolve(ClassLifecycleDatabase.class);
+
+        // when
+        testObject.close();
+
+        // then
+        Assertions.assertThat(log.getEntries()).isEmpty();
+    }
+
+    @Test
+    public void close_WhenOwnedInstance_ThenClosedAfterDependentSingletons()
+    {
+        // given
+        CloseLog log = new CloseLog();
+
+        testObject.registerInstance(CloseLog.class, log)
+                  .registerOwnedInstance(ClassLifecycleDatabase.class,
+                                         new ClassLifecycleDatabase(log))
+                  .registerType(ClassLifecycleLeft.class, ConstructionPolicy.SINGLETON);
+        testObject.resolve(ClassLifecycleLeft.class);
+
+        // when
+        testObject.close();
+
+        // then
+        Assertions.assertThat(log.getEntries()).containsExactly("left", "database");
+    }
+
+    @Test
+    public void close_WhenInstanceFailsToClose_ThenOthersClosedAndInstanceCloseException()
+    {
+        // given
+        CloseLog log = new CloseLog();
+
+        testObject.registerInstance(CloseLog.class, log)
+                  .registerType(ClassLifecycleDatabase.class, ConstructionPolicy.SINGLETON)
+                  .registerType(ClassLifecycleFailing.class, ConstructionPolicy.SINGLETON);
+        testObject.resolve(ClassLifecycleDatabase.class);
+        testObject.resolve(ClassLifecycleFailing.class);
+
+        // then
+        Assertions.assertThatThrownBy(() -> testObject.close())
+                  .isInstanceOf(InstanceCloseException.class)
+                  .hasRootCauseMessage("close failed");
+        Assertions.assertThat(log.getEntries()).containsExactly("database");
+    }
+
+    // endregion
+    // region evict
+
+    @Test
+    public void evict_WhenSubtypeLoadedByLoader_ThenBindingReleasedAndLoaderUnloaded()
+            throws Exception
+    {
+        // given
+        WeakReference<ClassLoader> loader = resolveAndEvictPlugin();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+
+        // when
+        while(loader.get() != null && System.nanoTime() < deadline)
+        {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        // then
+        Assertions.assertThatThrownBy(() -> testObject.resolve(InterfaceBasic.class))
+                  .isInstanceOf(MissingDependenciesException.class);
+        Assertions.assertThat(loader.get()).isNull();
+    }
+
+    @Test
+    public void evict_WhenSingletonDependsOnEvictedInstance_ThenSingletonConstructedAgain()
+            throws Exception
+    {
+        // given
+        ClassLoader loader = new PluginClassLoader(ClassConstructorDefault.class.getName());
+        Class<? extends InterfaceBasic> pluginClass =
+                loader.loadClass(ClassConstructorDefault.class.getName())
+                      .asSubclass(InterfaceBasic.class);
+
+        testObject.registerInstance(InterfaceBasic.class,
+                                    pluginClass.getConstructor().newInstance())
+                  .registerType(ClassConstructorBasicDependency.class,
+                                ConstructionPolicy.SINGLETON);
+
+        ClassConstructorBasicDependency stale =
+                testObject.resolve(ClassConstructorBasicDependency.class);
+
+        // when
+        testObject.evict(loader)
+                  .registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                ConstructionPolicy.CONSTRUCTION);
+
+        ClassConstructorBasicDependency result =
+                testObject.resolve(ClassConstructorBasicDependency.class);
+
+        // then
+        Assertions.assertThat(stale.getBasicObject()).isInstanceOf(pluginClass);
+        Assertions.assertThat(result).isNotSameAs(stale);
+        Assertions.assertThat(result.getBasicObject()).isExactlyInstanceOf(
+                ClassConstructorDefault.class);
+    }
+
+    @Test
+    public void evict_WhenNothingLoadedByLoader_ThenRegistrationsKept()
+    {
+        // given
+        testObject.registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                                ConstructionPolicy.SINGLETON);
+
+        InterfaceBasic singleton = testObject.resolve(InterfaceBasic.class);
+
+        // when
+        testObject.evict(new PluginClassLoader());
+
+        InterfaceBasic result = testObject.resolve(InterfaceBasic.class);
+
+        // then
+        Assertions.assertThat(result).isSameAs(singleton);
+    }
+
+    private WeakReference<ClassLoader> resolveAndEvictPlugin()
+            throws ClassNotFoundException
+    {
+        ClassLoader loader = new PluginClassLoader(ClassConstructorDefault.class.getName());
+        Class<? extends InterfaceBasic> pluginClass =
+                loader.loadClass(ClassConstructorDefault.class.getName())
+                      .asSubclass(InterfaceBasic.class);
+
+        testObject.registerType(InterfaceBasic.class, pluginClass, ConstructionPolicy.SINGLETON);
+        Assertions.assertThat(testObject.resolve(InterfaceBasic.class)).isInstanceOf(pluginClass);
+        testObject.evict(loader);
+        return new WeakReference<>(loader);
+    }
+
+    /** Class loader defining given classes by itself instead of delegating them to parent. */
+    private static final class PluginClassLoader
+            extends ClassLoader
+    {
+        private final Set<String> pluginClasses;
+
+        PluginClassLoader(String... pluginClasses)
+        {
+            super(DiContainerTest.class.getClassLoader());
+            this.pluginClasses = Set.of(pluginClasses);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve)
+                throws ClassNotFoundException
+        {
+            if(!pluginClasses.contains(name))
+                return super.loadClass(name, resolve);
+
+            synchronized(getClassLoadingLock(name))
+            {
+                Class<?> type = findLoadedClass(name);
+
+                if(type != null)
+                    return type;
+
+                String resource = name.replace('.', '/') + ".class";
+
+                try(InputStream stream = getParent().getResourceAsStream(resource))
+                {
+                    if(stream == null)
+                        throw new ClassNotFoundException(name);
+
+                    byte[] bytes = stream.readAllBytes();
+
+                    return defineClass(name, bytes, 0, bytes.length);
+                }
+                catch(IOException e)
+                {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+        }
+    }
+
     // endregion
 }
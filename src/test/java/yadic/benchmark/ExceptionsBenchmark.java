@@ -0,0 +1,59 @@
+package yadic.benchmark;
+
+import yadic.DiConfiguration;
+import yadic.DiContainer;
+import yadic.DiException;
+import yadic.models.basic.InterfaceBasic;
+import yadic.models.constructor.ClassConstructorNotAnnotatedWithDependency;
+
+/**
+ * Compares failed resolutions with detailed and stackless exceptions. Run with {@code main}, it
+ * is not a part of the test suite.
+ */
+public final class ExceptionsBenchmark
+{
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+    private static final Class<?>[] FAILING_TYPES =
+            {InterfaceBasic.class, ClassConstructorNotAnnotatedWithDependency.class};
+
+    private ExceptionsBenchmark()
+    {
+    }
+
+    public static void main(String[] args)
+    {
+        for(boolean detailed : new boolean[]{true, false})
+        {
+            DiContainer container =
+                    new DiContainer(new DiConfiguration().detailedExceptions(detailed));
+
+            run(container, WARMUP_ITERATIONS);
+
+            long start = System.nanoTime();
+            int failures = run(container, MEASURED_ITERATIONS);
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf(
+                    "detailedExceptions=%-5s : %8.1f ns per failed resolve (%d failures)%n",
+                    detailed, (double)elapsed / MEASURED_ITERATIONS, failures);
+        }
+    }
+
+    private static int run(DiContainer container, int iterations)
+    {
+        int failures = 0;
+
+        for(int i = 0; i < iterations; ++i)
+            try
+            {
+                container.resolve(FAILING_TYPES[i % FAILING_TYPES.length]);
+            }
+            catch(DiException e)
+            {
+                ++failures;
+            }
+
+        return failures;
+    }
+}
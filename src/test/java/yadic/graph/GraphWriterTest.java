@@ -0,0 +1,109 @@
+package yadic.graph;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import yadic.ConstructionPolicy;
+import yadic.DiConfiguration;
+import yadic.DiContainer;
+import yadic.models.basic.InterfaceBasic;
+import yadic.models.constructor.ClassConstructorDefault;
+import yadic.models.diamond.*;
+import yadic.models.setter.ClassSetterSingle;
+import yadic.models.setter.InterfaceSetter;
+
+public class GraphWriterTest
+{
+    private DiContainer container;
+    private StringWriter writer;
+
+    @BeforeEach
+    public void setUp()
+    {
+        container = new DiContainer(new DiConfiguration().collectMetrics(true));
+        container.registerType(InterfaceDiamondBottom.class, ClassDiamondBottom.class,
+                               ConstructionPolicy.CONSTRUCTION)
+                 .registerType(InterfaceDiamondLeft.class, ClassDiamondLeft.class,
+                               ConstructionPolicy.CONSTRUCTION)
+                 .registerType(InterfaceDiamondRight.class, ClassDiamondRight.class,
+                               ConstructionPolicy.CONSTRUCTION)
+                 .registerType(InterfaceDiamondTop.class, ClassDiamondTop.class,
+                               ConstructionPolicy.SINGLETON);
+        writer = new StringWriter();
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        container = null;
+        writer = null;
+    }
+
+    @Test
+    public void exportGraph_WhenDot_ThenNodesWithConcreteTypesAndConstructorEdges()
+            throws IOException
+    {
+        // when
+        container.exportGraph(writer, GraphFormat.DOT);
+
+        // then
+        Assertions.assertThat(writer.toString())
+                  .startsWith("digraph yadic {")
+                  .contains("\"yadic.models.diamond.InterfaceDiamondTop\" "
+                                    + "[label=\"InterfaceDiamondTop\\n-> ClassDiamondTop"
+                                    + "\\nSINGLETON\"];")
+                  .contains("\"yadic.models.diamond.InterfaceDiamondBottom\" -> "
+                                    + "\"yadic.models.diamond.InterfaceDiamondLeft\" "
+                                    + "[label=\"constructor\"];")
+                  .endsWith("}\n");
+    }
+
+    @Test
+    public void exportGraph_WhenSetterDependency_ThenDashedSetterEdge()
+            throws IOException
+    {
+        // given
+        container.registerType(InterfaceSetter.class, ClassSetterSingle.class,
+                               ConstructionPolicy.CONSTRUCTION)
+                 .registerType(InterfaceBasic.class, ClassConstructorDefault.class,
+                               ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        container.exportGraph(writer, GraphFormat.DOT);
+
+        // then
+        Assertions.assertThat(writer.toString())
+                  .contains("\"yadic.models.setter.InterfaceSetter\" -> "
+                                    + "\"yadic.models.basic.InterfaceBasic\" "
+                                    + "[label=\"setter\", style=dashed];");
+    }
+
+    @Test
+    public void exportGraph_WhenJsonAfterResolve_ThenNodesWithMetrics()
+            throws IOException
+    {
+        // given
+        container.resolve(InterfaceDiamondBottom.class);
+        container.resolve(InterfaceDiamondBottom.class);
+
+        // when
+        container.exportGraph(writer, GraphFormat.JSON);
+
+        // then
+        Assertions.assertThat(writer.toString())
+                  .startsWith("{\"nodes\":[")
+                  .contains("{\"type\":\"yadic.models.diamond.InterfaceDiamondBottom\","
+                                    + "\"concreteType\":"
+                                    + "\"yadic.models.diamond.ClassDiamondBottom\","
+                                    + "\"policy\":\"CONSTRUCTION\",\"resolves\":2,"
+                                    + "\"constructions\":2,\"singletonHits\":0,")
+                  .contains("{\"from\":\"yadic.models.diamond.InterfaceDiamondLeft\","
+                                    + "\"to\":\"yadic.models.diamond.InterfaceDiamondTop\","
+                                    + "\"kind\":\"constructor\"}");
+    }
+}
@@ -0,0 +1,109 @@
+package yadic.index;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import yadic.ConstructionPolicy;
+
+public class BindingIndexProcessorTest
+{
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void process_WhenAnnotatedTypes_ThenIndexWritten()
+            throws IOException
+    {
+        // given
+        Path source = Files.writeString(directory.resolve("Service.java"), """
+                package sample;
+
+                import yadic.ConstructionPolicy;
+                import yadic.annotation.Register;
+                import yadic.annotation.SelfRegister;
+
+                @Register(value = Service.Impl.class, policy = ConstructionPolicy.SINGLETON)
+                public interface Service
+                {
+                    @SelfRegister
+                    class Impl implements Service
+                    {
+                    }
+                }
+                """);
+
+        // when
+        boolean result = compile(source);
+
+        // then
+        Assertions.assertThat(result).isTrue();
+        Assertions.assertThat(Files.readAllLines(directory.resolve(BindingIndex.RESOURCE)))
+                  .containsExactly(BindingIndex.HEADER,
+                                   "sample.Service sample.Service$Impl SINGLETON",
+                                   "sample.Service$Impl sample.Service$Impl CONSTRUCTION");
+    }
+
+    @Test
+    public void process_WhenSelfRegisterAbstract_ThenCompilationFails()
+            throws IOException
+    {
+        // given
+        Path source = Files.writeString(directory.resolve("Service.java"), """
+                package sample;
+
+                @yadic.annotation.SelfRegister
+                public abstract class Service
+                {
+                }
+                """);
+
+        // when
+        boolean result = compile(source);
+
+        // then
+        Assertions.assertThat(result).isFalse();
+        Assertions.assertThat(directory.resolve(BindingIndex.RESOURCE)).doesNotExist();
+    }
+
+    private boolean compile(Path source)
+            throws IOException
+    {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        try(StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null))
+        {
+            JavaCompiler.CompilationTask task = compiler.getTask(
+                    null, fileManager, diagnostic -> {},
+                    List.of("-d", directory.toString(), "-classpath", yadicClasspath()), null,
+                    fileManager.getJavaFileObjects(source));
+
+            task.setProcessors(List.of(new BindingIndexProcessor()));
+            return task.call();
+        }
+    }
+
+    private String yadicClasspath()
+    {
+        try
+        {
+            return Path.of(ConstructionPolicy.class.getProtectionDomain()
+                                                   .getCodeSource()
+                                                   .getLocation()
+                                                   .toURI()).toString();
+        }
+        catch(URISyntaxException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package yadic.index;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import yadic.ConstructionPolicy;
+import yadic.DiConfiguration;
+import yadic.DiContainer;
+import yadic.models.basic.ClassBasicAbstract;
+import yadic.models.register.*;
+
+public class ClassPathScannerTest
+{
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void scan_WhenDirectory_ThenAnnotatedTypesFound()
+            throws IOException
+    {
+        // when
+        List<BindingIndex.Binding> result =
+                ClassPathScanner.scan(getClass().getClassLoader(), "yadic.models.register");
+
+        // then
+        Assertions.assertThat(result)
+                  .contains(new BindingIndex.Binding(InterfaceRegister.class.getName(),
+                                                     ClassRegisterInterface.class.getName(),
+                                                     ConstructionPolicy.CONSTRUCTION),
+                            new BindingIndex.Binding(InterfaceRegisterSingleton.class.getName(),
+                                                     ClassRegisterSingletonBase.class.getName(),
+                                                     ConstructionPolicy.SINGLETON),
+                            new BindingIndex.Binding(ClassRegisterSelfSingleton.class.getName(),
+                                                     ClassRegisterSelfSingleton.class.getName(),
+                                                     ConstructionPolicy.SINGLETON))
+                  .extracting(BindingIndex.Binding::typename)
+                  .doesNotContain(ClassRegisterInterface.class.getName(),
+                                  ClassBasicAbstract.class.getName())
+                  .doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void scan_WhenJar_ThenAnnotatedTypesRegistered()
+            throws Exception
+    {
+        // given
+        Path jar = compileToJar("""
+                package sample;
+
+                @yadic.annotation.Register(Service.Impl.class)
+                public interface Service
+                {
+                    class Impl implements Service
+                    {
+                    }
+                }
+                """);
+
+        try(URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()},
+                                                            getClass().getClassLoader()))
+        {
+            DiContainer container =
+                    new DiContainer(new DiConfiguration().classLoader(classLoader));
+
+            // when
+            container.scan("sample");
+
+            Object result = container.resolve(classLoader.loadClass("sample.Service"));
+
+            // then
+            Assertions.assertThat(result.getClass().getName()).isEqualTo("sample.Service$Impl");
+        }
+    }
+
+    @Test
+    public void scan_WhenOtherAnnotationHasPolicy_ThenPolicyOfSelfRegisterUsed()
+            throws Exception
+    {
+        // given
+        Path jar = compileToJar("""
+                package sample;
+
+                @Service.Tagged(policy = Service.Mode.EAGER)
+                @yadic.annotation.SelfRegister(policy = yadic.ConstructionPolicy.SINGLETON)
+                public class Service
+                {
+                    public enum Mode
+                    {
+                        EAGER
+                    }
+
+                    @java.lang.annotation.Retention(
+                            java.lang.annotation.RetentionPolicy.RUNTIME)
+                    public @interface Tagged
+                    {
+                        Mode policy();
+                    }
+                }
+                """);
+
+        try(URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()},
+                                                            getClass().getClassLoader()))
+        {
+            // when
+            List<BindingIndex.Binding> result = ClassPathScanner.scan(classLoader, "sample");
+
+            // then
+            Assertions.assertThat(result)
+                      .containsExactly(new BindingIndex.Binding("sample.Service",
+                                                                "sample.Service",
+                                                                ConstructionPolicy.SINGLETON));
+        }
+    }
+
+    @Test
+    public void scan_WhenNoSuchPackage_ThenEmpty()
+            throws IOException
+    {
+        // when
+        List<BindingIndex.Binding> result =
+                ClassPathScanner.scan(getClass().getClassLoader(), "yadic.models.nothing");
+
+        // then
+        Assertions.assertThat(result).isEmpty();
+    }
+
+    private Path compileToJar(String source)
+            throws IOException, URISyntaxException
+    {
+        Path sources = Files.createDirectories(directory.resolve("src"));
+        Path classes = Files.createDirectories(directory.resolve("classes"));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        try(StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null))
+        {
+            String classpath = Path.of(ConstructionPolicy.class.getProtectionDomain()
+                                                               .getCodeSource()
+                                                               .getLocation()
+                                                               .toURI()).toString();
+
+            List<String> options = List.of("-d", classes.toString(), "-classpath", classpath);
+
+            compiler.getTask(null, fileManager, null, options, null,
+                             fileManager.getJavaFileObjects(
+                                     Files.writeString(sources.resolve("Service.java"), source)))
+                    .call();
+        }
+
+        Path jar = directory.resolve("sample.jar");
+
+        try(JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar));
+            Stream<Path> files = Files.walk(classes))
+        {
+            for(Path file : files.filter(f -> !f.equals(classes)).sorted().toList())
+            {
+                String name = classes.relativize(file).toString().replace('\\', '/');
+
+                output.putNextEntry(new JarEntry(Files.isDirectory(file) ? name + "/" : name));
+
+                if(!Files.isDirectory(file))
+                    Files.copy(file, (OutputStream)output);
+
+                output.closeEntry();
+            }
+        }
+
+        return jar;
+    }
+}
@@ -0,0 +1,10 @@
+package yadic.models.basic;
+
+public class ClassBasicOtherInheritsFromAbstract
+        extends ClassBasicAbstract
+{
+    public ClassBasicOtherInheritsFromAbstract()
+    {
+        super();
+    }
+}
@@ -0,0 +1,16 @@
+package yadic.models.circular;
+
+public class ClassCircularSelf
+{
+    private final ClassCircularSelf previous;
+
+    public ClassCircularSelf(ClassCircularSelf previous)
+    {
+        this.previous = previous;
+    }
+
+    public ClassCircularSelf getPrevious()
+    {
+        return previous;
+    }
+}
@@ -0,0 +1,16 @@
+package yadic.models.circular;
+
+public class ClassCircularSelfHolder
+{
+    private final ClassCircularSelf self;
+
+    public ClassCircularSelfHolder(ClassCircularSelf self)
+    {
+        this.self = self;
+    }
+
+    public ClassCircularSelf getSelf()
+    {
+        return self;
+    }
+}
@@ -0,0 +1,20 @@
+package yadic.models.constructor;
+
+import yadic.annotation.Dependency;
+import yadic.models.basic.InterfaceBasic;
+
+public class ClassConstructorBasicDependency
+{
+    private final InterfaceBasic basicObject;
+
+    @Dependency
+    public ClassConstructorBasicDependency(InterfaceBasic basicObject)
+    {
+        this.basicObject = basicObject;
+    }
+
+    public InterfaceBasic getBasicObject()
+    {
+        return basicObject;
+    }
+}
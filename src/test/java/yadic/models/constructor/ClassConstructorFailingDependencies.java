@@ -0,0 +1,13 @@
+package yadic.models.constructor;
+
+import yadic.annotation.Dependency;
+import yadic.models.postconstruct.ClassPostConstructThrows;
+
+public class ClassConstructorFailingDependencies
+{
+    @Dependency
+    public ClassConstructorFailingDependencies(ClassConstructorExceptionThrown exceptionObject,
+                                               ClassPostConstructThrows postConstructObject)
+    {
+    }
+}
@@ -0,0 +1,12 @@
+package yadic.models.constructor;
+
+public class ClassConstructorSlow
+{
+    public static final long DELAY_MILLIS = 200L;
+
+    public ClassConstructorSlow()
+            throws InterruptedException
+    {
+        Thread.sleep(DELAY_MILLIS);
+    }
+}
@@ -0,0 +1,27 @@
+package yadic.models.constructor;
+
+import yadic.annotation.Dependency;
+
+public class ClassConstructorSlowDependency
+{
+    private final ClassConstructorSlow slowObject;
+    private final ClassConstructorDefault defaultObject;
+
+    @Dependency
+    public ClassConstructorSlowDependency(ClassConstructorSlow slowObject,
+                                          ClassConstructorDefault defaultObject)
+    {
+        this.slowObject = slowObject;
+        this.defaultObject = defaultObject;
+    }
+
+    public ClassConstructorSlow getSlowObject()
+    {
+        return slowObject;
+    }
+
+    public ClassConstructorDefault getDefaultObject()
+    {
+        return defaultObject;
+    }
+}
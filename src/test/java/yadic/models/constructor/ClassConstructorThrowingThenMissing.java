@@ -0,0 +1,15 @@
+package yadic.models.constructor;
+
+import yadic.models.basic.InterfaceBasic;
+
+public class ClassConstructorThrowingThenMissing
+{
+    public ClassConstructorThrowingThenMissing(ClassConstructorExceptionThrown exceptionObject,
+                                               ClassConstructorDefault defaultObject)
+    {
+    }
+
+    public ClassConstructorThrowingThenMissing(InterfaceBasic basicObject)
+    {
+    }
+}
@@ -0,0 +1,38 @@
+package yadic.models.elements;
+
+import java.util.List;
+import java.util.Set;
+
+import yadic.annotation.Dependency;
+import yadic.models.basic.InterfaceBasic;
+
+public class ClassElementsCollections
+{
+    private final List<InterfaceBasic> list;
+    private final Set<? extends InterfaceBasic> set;
+    private final InterfaceBasic[] array;
+
+    @Dependency
+    public ClassElementsCollections(
+            List<InterfaceBasic> list, Set<? extends InterfaceBasic> set, InterfaceBasic[] array)
+    {
+        this.list = list;
+        this.set = set;
+        this.array = array;
+    }
+
+    public List<InterfaceBasic> getList()
+    {
+        return list;
+    }
+
+    public Set<? extends InterfaceBasic> getSet()
+    {
+        return set;
+    }
+
+    public InterfaceBasic[] getArray()
+    {
+        return array;
+    }
+}
@@ -0,0 +1,22 @@
+package yadic.models.elements;
+
+import java.util.Map;
+
+import yadic.annotation.Dependency;
+import yadic.models.basic.InterfaceBasic;
+
+public class ClassElementsMap
+{
+    private final Map<String, InterfaceBasic> map;
+
+    @Dependency
+    public ClassElementsMap(Map<String, InterfaceBasic> map)
+    {
+        this.map = map;
+    }
+
+    public Map<String, InterfaceBasic> getMap()
+    {
+        return map;
+    }
+}
@@ -0,0 +1,21 @@
+package yadic.models.lifecycle;
+
+import yadic.annotation.Dependency;
+
+public class ClassLifecycleDatabase
+        implements AutoCloseable
+{
+    private final CloseLog log;
+
+    @Dependency
+    public ClassLifecycleDatabase(CloseLog log)
+    {
+        this.log = log;
+    }
+
+    @Override
+    public void close()
+    {
+        log.add("database");
+    }
+}
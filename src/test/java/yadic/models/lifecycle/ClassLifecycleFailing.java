@@ -0,0 +1,14 @@
+package yadic.models.lifecycle;
+
+import java.io.IOException;
+
+public class ClassLifecycleFailing
+        implements AutoCloseable
+{
+    @Override
+    public void close()
+            throws IOException
+    {
+        throw new IOException("close failed");
+    }
+}
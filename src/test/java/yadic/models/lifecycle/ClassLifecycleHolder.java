@@ -0,0 +1,33 @@
+package yadic.models.lifecycle;
+
+import yadic.annotation.Dependency;
+
+public class ClassLifecycleHolder
+        implements AutoCloseable
+{
+    private final CloseLog log;
+    private ClassLifecycleDatabase database;
+
+    @Dependency
+    public ClassLifecycleHolder(CloseLog log)
+    {
+        this.log = log;
+    }
+
+    public ClassLifecycleDatabase getDatabase()
+    {
+        return database;
+    }
+
+    @Dependency
+    public void setDatabase(ClassLifecycleDatabase database)
+    {
+        this.database = database;
+    }
+
+    @Override
+    public void close()
+    {
+        log.add("holder");
+    }
+}
@@ -0,0 +1,28 @@
+package yadic.models.lifecycle;
+
+import yadic.annotation.Dependency;
+
+public class ClassLifecycleLeft
+        implements AutoCloseable
+{
+    private final CloseLog log;
+    private final ClassLifecycleDatabase database;
+
+    @Dependency
+    public ClassLifecycleLeft(CloseLog log, ClassLifecycleDatabase database)
+    {
+        this.log = log;
+        this.database = database;
+    }
+
+    public ClassLifecycleDatabase getDatabase()
+    {
+        return database;
+    }
+
+    @Override
+    public void close()
+    {
+        log.add("left");
+    }
+}
@@ -0,0 +1,28 @@
+package yadic.models.lifecycle;
+
+import yadic.annotation.Dependency;
+
+public class ClassLifecycleRight
+        implements AutoCloseable
+{
+    private final CloseLog log;
+    private final ClassLifecycleDatabase database;
+
+    @Dependency
+    public ClassLifecycleRight(CloseLog log, ClassLifecycleDatabase database)
+    {
+        this.log = log;
+        this.database = database;
+    }
+
+    public ClassLifecycleDatabase getDatabase()
+    {
+        return database;
+    }
+
+    @Override
+    public void close()
+    {
+        log.add("right");
+    }
+}
@@ -0,0 +1,35 @@
+package yadic.models.lifecycle;
+
+import yadic.annotation.Dependency;
+
+public class ClassLifecycleService
+        implements AutoCloseable
+{
+    private final CloseLog log;
+    private final ClassLifecycleLeft left;
+    private final ClassLifecycleRight right;
+
+    @Dependency
+    public ClassLifecycleService(CloseLog log, ClassLifecycleLeft left, ClassLifecycleRight right)
+    {
+        this.log = log;
+        this.left = left;
+        this.right = right;
+    }
+
+    public ClassLifecycleLeft getLeft()
+    {
+        return left;
+    }
+
+    public ClassLifecycleRight getRight()
+    {
+        return right;
+    }
+
+    @Override
+    public void close()
+    {
+        log.add("service");
+    }
+}
@@ -0,0 +1,19 @@
+package yadic.models.lifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CloseLog
+{
+    private final List<String> entries = new ArrayList<>();
+
+    public synchronized void add(String entry)
+    {
+        entries.add(entry);
+    }
+
+    public synchronized List<String> getEntries()
+    {
+        return List.copyOf(entries);
+    }
+}
@@ -0,0 +1,35 @@
+package yadic.models.postconstruct;
+
+import yadic.annotation.Dependency;
+import yadic.annotation.PostConstruct;
+import yadic.models.basic.InterfaceBasic;
+
+public class ClassPostConstruct
+{
+    private InterfaceBasic basic;
+    private int initializations = 0;
+    private boolean injectedBeforeInitialization = false;
+
+    @Dependency
+    public void setBasic(InterfaceBasic basic)
+    {
+        this.basic = basic;
+    }
+
+    @PostConstruct
+    public void initialize()
+    {
+        ++initializations;
+        injectedBeforeInitialization = basic != null;
+    }
+
+    public int getInitializations()
+    {
+        return initializations;
+    }
+
+    public boolean isInjectedBeforeInitialization()
+    {
+        return injectedBeforeInitialization;
+    }
+}
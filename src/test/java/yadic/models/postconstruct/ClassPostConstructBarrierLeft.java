@@ -0,0 +1,27 @@
+package yadic.models.postconstruct;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import yadic.annotation.Dependency;
+import yadic.annotation.PostConstruct;
+
+public class ClassPostConstructBarrierLeft
+{
+    private final CyclicBarrier barrier;
+
+    @Dependency
+    public ClassPostConstructBarrierLeft(CyclicBarrier barrier)
+    {
+        this.barrier = barrier;
+    }
+
+    @PostConstruct
+    public void initialize()
+            throws BrokenBarrierException, InterruptedException, TimeoutException
+    {
+        barrier.await(5, TimeUnit.SECONDS);
+    }
+}
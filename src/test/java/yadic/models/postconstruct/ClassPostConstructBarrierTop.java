@@ -0,0 +1,27 @@
+package yadic.models.postconstruct;
+
+import yadic.annotation.Dependency;
+
+public class ClassPostConstructBarrierTop
+{
+    private final ClassPostConstructBarrierLeft left;
+    private final ClassPostConstructBarrierRight right;
+
+    @Dependency
+    public ClassPostConstructBarrierTop(
+            ClassPostConstructBarrierLeft left, ClassPostConstructBarrierRight right)
+    {
+        this.left = left;
+        this.right = right;
+    }
+
+    public ClassPostConstructBarrierLeft getLeft()
+    {
+        return left;
+    }
+
+    public ClassPostConstructBarrierRight getRight()
+    {
+        return right;
+    }
+}
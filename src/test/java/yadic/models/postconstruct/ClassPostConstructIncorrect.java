@@ -0,0 +1,11 @@
+package yadic.models.postconstruct;
+
+import yadic.annotation.PostConstruct;
+
+public class ClassPostConstructIncorrect
+{
+    @PostConstruct
+    public void initialize(String text)
+    {
+    }
+}
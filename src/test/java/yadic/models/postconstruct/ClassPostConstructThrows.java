@@ -0,0 +1,12 @@
+package yadic.models.postconstruct;
+
+import yadic.annotation.PostConstruct;
+
+public class ClassPostConstructThrows
+{
+    @PostConstruct
+    public void initialize()
+    {
+        throw new IllegalStateException("initialization failed");
+    }
+}
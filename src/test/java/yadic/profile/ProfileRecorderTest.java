@@ -0,0 +1,233 @@
+package yadic.profile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import yadic.ConstructionPolicy;
+import yadic.DiConfiguration;
+import yadic.DiContainer;
+import yadic.listener.ResolutionListener;
+import yadic.models.constructor.ClassConstructorDefault;
+import yadic.models.constructor.ClassConstructorSlow;
+import yadic.models.constructor.ClassConstructorSlowDependency;
+import yadic.models.diamond.*;
+import yadic.models.postconstruct.ClassPostConstructBarrierLeft;
+import yadic.models.postconstruct.ClassPostConstructBarrierRight;
+
+public class ProfileRecorderTest
+{
+    @TempDir
+    private Path directory;
+    private ProfileRecorder testObject;
+    private DiContainer container;
+
+    @BeforeEach
+    public void setUp()
+    {
+        testObject = new ProfileRecorder(Duration.ofMinutes(1));
+        container = new DiContainer(new DiConfiguration().addListener(testObject));
+        container.registerType(InterfaceDiamondLeft.class, ClassDiamondLeft.class,
+                               ConstructionPolicy.CONSTRUCTION);
+        container.registerType(InterfaceDiamondTop.class, ClassDiamondTop.class,
+                               ConstructionPolicy.SINGLETON);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        testObject = null;
+        container = null;
+    }
+
+    @Test
+    public void profile_WhenResolved_ThenTypesInOrderOfFirstConstruction()
+    {
+        // when
+        container.resolve(InterfaceDiamondLeft.class);
+        container.resolve(InterfaceDiamondLeft.class);
+
+        ResolutionProfile result = testObject.profile();
+
+        // then
+        Assertions.assertThat(result.entries())
+                  .containsExactly(
+                          new ResolutionProfile.Entry(InterfaceDiamondTop.class.getName(), 1L),
+                          new ResolutionProfile.Entry(InterfaceDiamondLeft.class.getName(), 2L));
+    }
+
+    @Test
+    public void profile_WhenWindowElapsed_ThenNothingRecorded()
+    {
+        // given
+        testObject = new ProfileRecorder(Duration.ZERO);
+        container = new DiContainer(new DiConfiguration().addListener(testObject));
+        container.registerType(InterfaceDiamondTop.class, ClassDiamondTop.class,
+                               ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        container.resolve(InterfaceDiamondTop.class);
+
+        ResolutionProfile result = testObject.profile();
+
+        // then
+        Assertions.assertThat(result.entries()).isEmpty();
+    }
+
+    @Test
+    public void read_WhenWritten_ThenSameProfile()
+            throws IOException
+    {
+        // given
+        Path file = directory.resolve("yadic.profile");
+
+        container.resolve(InterfaceDiamondLeft.class);
+        testObject.write(file);
+
+        // when
+        ResolutionProfile result = ResolutionProfile.read(file);
+
+        // then
+        Assertions.assertThat(result.entries()).isEqualTo(testObject.profile().entries());
+    }
+
+    @Test
+    public void read_WhenNotProfile_ThenIOException()
+            throws IOException
+    {
+        // given
+        Path file = Files.writeString(directory.resolve("other.txt"), "not a profile");
+
+        // then
+        Assertions.assertThatThrownBy(() -> ResolutionProfile.read(file))
+                  .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void warmUp_WhenProfileLoaded_ThenSingletonsBuiltAndMissingTypesSkipped()
+    {
+        // given
+        ResolutionProfile profile = new ResolutionProfile(
+                List.of(new ResolutionProfile.Entry("yadic.models.NoSuchType", 1L),
+                        new ResolutionProfile.Entry(InterfaceDiamondTop.class.getName(), 1L),
+                        new ResolutionProfile.Entry(InterfaceDiamondLeft.class.getName(), 4L)));
+        DiContainer warmContainer = new DiContainer(new DiConfiguration().collectMetrics(true));
+
+        warmContainer.registerType(InterfaceDiamondLeft.class, ClassDiamondLeft.class,
+                                   ConstructionPolicy.CONSTRUCTION);
+        warmContainer.registerType(InterfaceDiamondTop.class, ClassDiamondTop.class,
+                                   ConstructionPolicy.SINGLETON);
+
+        // when
+        warmContainer.warmUp(profile).join();
+
+        // then
+        Assertions.assertThat(warmContainer.metrics())
+                  .containsOnlyKeys(InterfaceDiamondTop.class);
+        Assertions.assertThat(warmContainer.metrics().get(InterfaceDiamondTop.class)
+                                           .constructionCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void warmUp_WhenProfileLoaded_ThenDependenciesBeforeDependentsAndOthersConcurrently()
+    {
+        // given
+        ResolutionProfile profile = new ResolutionProfile(
+                List.of(new ResolutionProfile.Entry(ClassConstructorSlow.class.getName(), 1L),
+                        new ResolutionProfile.Entry(
+                                ClassConstructorSlowDependency.class.getName(), 1L),
+                        new ResolutionProfile.Entry(InterfaceDiamondTop.class.getName(), 3L)));
+        List<Class<?>> created = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try
+        {
+            DiContainer warmContainer = new DiContainer(
+                    new DiConfiguration().executor(executor).addListener(recorder(created)));
+
+            warmContainer.registerType(ClassConstructorSlow.class, ConstructionPolicy.SINGLETON)
+                         .registerType(ClassConstructorSlowDependency.class,
+                                       ConstructionPolicy.SINGLETON)
+                         .registerType(ClassConstructorDefault.class,
+                                       ConstructionPolicy.CONSTRUCTION)
+                         .registerType(InterfaceDiamondTop.class, ClassDiamondTop.class,
+                                       ConstructionPolicy.SINGLETON);
+
+            // when
+            warmContainer.warmUp(profile).join();
+
+            // then
+            Assertions.assertThat(created).containsExactly(InterfaceDiamondTop.class,
+                                                           ClassConstructorSlow.class,
+                                                           ClassConstructorSlowDependency.class);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void warmUp_WhenIndependentSingletonsWithPostConstruct_ThenHooksRunConcurrently()
+    {
+        // given
+        ResolutionProfile profile = new ResolutionProfile(
+                List.of(new ResolutionProfile.Entry(
+                                ClassPostConstructBarrierLeft.class.getName(), 1L),
+                        new ResolutionProfile.Entry(
+                                ClassPostConstructBarrierRight.class.getName(), 1L)));
+        List<Class<?>> created = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try
+        {
+            DiContainer warmContainer = new DiContainer(
+                    new DiConfiguration().executor(executor).addListener(recorder(created)));
+
+            warmContainer.registerInstance(CyclicBarrier.class, new CyclicBarrier(2))
+                         .registerType(ClassPostConstructBarrierLeft.class,
+                                       ConstructionPolicy.SINGLETON)
+                         .registerType(ClassPostConstructBarrierRight.class,
+                                       ConstructionPolicy.SINGLETON);
+
+            // when
+            warmContainer.warmUp(profile).join();
+
+            // then
+            Assertions.assertThat(created)
+                      .containsExactlyInAnyOrder(ClassPostConstructBarrierLeft.class,
+                                                 ClassPostConstructBarrierRight.class);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ResolutionListener recorder(List<Class<?>> created)
+    {
+        return new ResolutionListener()
+        {
+            @Override
+            public void singletonCreated(
+                    Class<?> type, ConstructionPolicy policy, Object instance, int depth,
+                    long elapsedNanos)
+            {
+                created.add(type);
+            }
+        };
+    }
+}
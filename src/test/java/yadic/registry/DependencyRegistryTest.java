@@ -469,6 +469,25 @@ public class DependencyRegistryTest
         Assertions.assertThat(result.extract()).isSameAs(singleton);
     }
 
+    @Test
+    public void addSingleton_WhenSingletonAlreadyPresent_ThenPreviousSingleton()
+    {
+        // given
+        ClassBasicInheritsFromAbstract singleton = new ClassBasicInheritsFromAbstract();
+
+        testObject.addType(ClassBasicAbstract.class, ClassBasicInheritsFromAbstract.class,
+                           ConstructionPolicy.SINGLETON);
+        testObject.addSingleton(ClassBasicAbstract.class, singleton);
+
+        // when
+        ClassBasicAbstract result = testObject.addSingleton(ClassBasicAbstract.class,
+                                                            new ClassBasicInheritsFromAbstract());
+
+        // then
+        Assertions.assertThat(result).isSameAs(singleton);
+        Assertions.assertThat(testObject.getInstance(ClassBasicAbstract.class)).isSameAs(singleton);
+    }
+
     @Test
     public void addSingleton_findInstance_WhenRegisteredTypeAsNotSingleton_ThenNoInstance()
     {
@@ -502,5 +521,54 @@ public class DependencyRegistryTest
         Assertions.assertThat(result.exists()).isFalse();
     }
 
+    // endregion
+    // region replaceSingleton
+
+    @Test
+    public void replaceSingleton_WhenTypeRegisteredAgainDuringRebuild_ThenRebuiltDiscarded()
+    {
+        // given
+        ClassBasicInheritsFromAbstract expired = new ClassBasicInheritsFromAbstract();
+
+        testObject.addType(ClassBasicAbstract.class, ClassBasicInheritsFromAbstract.class,
+                           ConstructionPolicy.SINGLETON);
+        testObject.addSingleton(ClassBasicAbstract.class, expired);
+
+        long version = testObject.version();
+
+        testObject.addType(ClassBasicAbstract.class, ClassBasicInheritsFromAbstract.class,
+                           ConstructionPolicy.SINGLETON);
+
+        // when
+        boolean result = testObject.replaceSingleton(ClassBasicAbstract.class, expired,
+                                                     new ClassBasicInheritsFromAbstract(),
+                                                     version);
+
+        // then
+        Assertions.assertThat(result).isFalse();
+        Assertions.assertThat(testObject.getInstance(ClassBasicAbstract.class)).isNull();
+    }
+
+    @Test
+    public void replaceSingleton_WhenExpiredNoLongerStored_ThenRebuiltDiscarded()
+    {
+        // given
+        ClassBasicInheritsFromAbstract current = new ClassBasicInheritsFromAbstract();
+
+        testObject.addType(ClassBasicAbstract.class, ClassBasicInheritsFromAbstract.class,
+                           ConstructionPolicy.SINGLETON);
+        testObject.addSingleton(ClassBasicAbstract.class, current);
+
+        // when
+        boolean result = testObject.replaceSingleton(ClassBasicAbstract.class,
+                                                     new ClassBasicInheritsFromAbstract(),
+                                                     new ClassBasicInheritsFromAbstract(),
+                                                     testObject.version());
+
+        // then
+        Assertions.assertThat(result).isFalse();
+        Assertions.assertThat(testObject.getInstance(ClassBasicAbstract.class)).isSameAs(current);
+    }
+
     // endregion
 }
@@ -0,0 +1,92 @@
+package yadic.registry;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import yadic.models.basic.ClassBasicInheritsFromAbstract;
+import yadic.models.basic.ClassBasicStringGetter;
+import yadic.models.basic.InterfaceBasic;
+
+public class TypeSlotsTest
+{
+    private TypeSlots testObject;
+
+    @BeforeEach
+    public void setUp()
+    {
+        testObject = new TypeSlots();
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        testObject = null;
+    }
+
+    // region evict/remove
+
+    @Test
+    public void evict_WhenTypesRegisteredAgainRepeatedly_ThenCapacityBounded()
+    {
+        // given
+        List<Class<?>> types = List.of(InterfaceBasic.class, ClassBasicStringGetter.class,
+                                       ClassBasicInheritsFromAbstract.class);
+        int capacity = testObject.capacity();
+
+        // when
+        for(int i = 0; i < 100; ++i)
+        {
+            types.forEach(type -> testObject.set(type, new Object()));
+            testObject.evict(types::contains);
+        }
+
+        // then
+        Assertions.assertThat(testObject.capacity()).isEqualTo(capacity);
+    }
+
+    @Test
+    public void remove_WhenTypesRegisteredAgainRepeatedly_ThenCapacityBounded()
+    {
+        // given
+        List<Class<?>> types = List.of(InterfaceBasic.class, ClassBasicStringGetter.class,
+                                       ClassBasicInheritsFromAbstract.class);
+        int capacity = testObject.capacity();
+
+        // when
+        for(int i = 0; i < 100; ++i)
+        {
+            testObject.setAll(types.stream()
+                                   .collect(Collectors.toMap(Function.identity(),
+                                                             type -> new Object())));
+            types.forEach(testObject::remove);
+        }
+
+        // then
+        Assertions.assertThat(testObject.capacity()).isEqualTo(capacity);
+    }
+
+    @Test
+    public void get_WhenIdentifierOfRemovedTypeReused_ThenOnlyNewTypeHasValue()
+    {
+        // given
+        Object value = new Object();
+
+        testObject.set(InterfaceBasic.class, new Object());
+        testObject.remove(InterfaceBasic.class);
+
+        // when
+        testObject.set(ClassBasicStringGetter.class, value);
+
+        // then
+        Assertions.assertThat(testObject.get(ClassBasicStringGetter.class)).isSameAs(value);
+        Assertions.assertThat(testObject.get(InterfaceBasic.class)).isNull();
+    }
+
+    // endregion
+}
@@ -1,11 +1,19 @@
 package yadic.resolver;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.IntStream;
+
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import yadic.ConstructionPolicy;
+import yadic.explain.RejectedConstructor;
+import yadic.explain.ResolutionPlan;
 import yadic.models.basic.*;
 import yadic.models.circular.*;
 import yadic.models.constructor.*;
@@ -701,5 +709,327 @@ public class TypesResolverTest
         Assertions.assertThat(result2).isNotNull().isSameAs(result1);
     }
 
+    // endregion
+    // region resolveAsync
+
+    @Test
+    public void resolveAsync_WhenDiamondDependenciesWithSingleton_ThenInstanceIsResolved()
+    {
+        // given
+        dictionary.addType(InterfaceDiamondLeft.class, ClassDiamondLeft.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceDiamondRight.class, ClassDiamondRight.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceDiamondBottom.class, ClassDiamondBottom.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceDiamondTop.class, ClassDiamondTop.class,
+                           ConstructionPolicy.SINGLETON);
+
+        // when
+        InterfaceDiamondBottom result =
+                testObject.resolveAsync(InterfaceDiamondBottom.class).join();
+
+        // then
+        Assertions.assertThat(result).isNotNull().isInstanceOf(ClassDiamondBottom.class);
+        Assertions.assertThat(result.getDiamond1().getObject()).isNotNull();
+        Assertions.assertThat(result.getDiamond2().getObject())
+                  .isSameAs(result.getDiamond1().getObject());
+    }
+
+    @Test
+    public void resolveAsync_WhenManyConcurrentSingletonResolutions_ThenSameInstance()
+    {
+        // given
+        dictionary.addType(InterfaceDiamondTop.class, ClassDiamondTop.class,
+                           ConstructionPolicy.SINGLETON);
+
+        // when
+        List<CompletableFuture<InterfaceDiamondTop>> futures =
+                IntStream.range(0, 32)
+                         .mapToObj(i -> testObject.resolveAsync(InterfaceDiamondTop.class))
+                         .toList();
+
+        // then
+        InterfaceDiamondTop expected = futures.get(0).join();
+
+        Assertions.assertThat(futures).allSatisfy(f -> Assertions.assertThat(f.join())
+                                                                 .isSameAs(expected));
+    }
+
+    @Test
+    public void resolveAsync_WhenCircularDependencies_ThenCircularDependenciesException()
+    {
+        // given
+        dictionary.addType(InterfaceCircularLeft.class, ClassCircularLeft.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceCircularRight.class, ClassCircularRight.class,
+                           ConstructionPolicy.CONSTRUCTION);
+
+        // then
+        Assertions.assertThat(testObject.resolveAsync(InterfaceCircularRight.class))
+                  .failsWithin(Duration.ofSeconds(5))
+                  .withThrowableOfType(ExecutionException.class)
+                  .withCauseInstanceOf(CircularDependenciesException.class);
+    }
+
+    // endregion
+    // region resolveOrNull
+
+    @Test
+    public void resolveOrNull_WhenInterfaceNotRegistered_ThenNull()
+    {
+        // when
+        InterfaceBasic result = testObject.resolveOrNull(InterfaceBasic.class);
+
+        // then
+        Assertions.assertThat(result).isNull();
+        Assertions.assertThat(dictionary.isUnresolvable(InterfaceBasic.class)).isTrue();
+    }
+
+    @Test
+    public void resolveOrNull_WhenMissingDependency_ThenNull()
+    {
+        // when
+        ClassConstructorParameterized result =
+                testObject.resolveOrNull(ClassConstructorParameterized.class);
+
+        // then
+        Assertions.assertThat(result).isNull();
+        Assertions.assertThat(dictionary.isUnresolvable(ClassConstructorParameterized.class))
+                  .isTrue();
+    }
+
+    @Test
+    public void resolveOrNull_WhenRegisteredAfterFailure_ThenInstanceIsResolved()
+    {
+        // given
+        testObject.resolveOrNull(InterfaceBasic.class);
+        dictionary.addType(InterfaceBasic.class, ClassConstructorDefault.class,
+                           ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        InterfaceBasic result = testObject.resolveOrNull(InterfaceBasic.class);
+
+        // then
+        Assertions.assertThat(result).isNotNull().isInstanceOf(ClassConstructorDefault.class);
+    }
+
+    @Test
+    public void resolveOrNull_WhenConstructorThrowsBeforeFallbackMissesDependency_ThenNotCached()
+    {
+        // given
+        dictionary.addType(ClassConstructorExceptionThrown.class, ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(ClassConstructorDefault.class, ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        ClassConstructorThrowingThenMissing result =
+                testObject.resolveOrNull(ClassConstructorThrowingThenMissing.class);
+
+        // then
+        Assertions.assertThat(result).isNull();
+        Assertions.assertThat(dictionary.isUnresolvable(ClassConstructorThrowingThenMissing.class))
+                  .isFalse();
+    }
+
+    // endregion
+    // region findCycles
+
+    @Test
+    public void findCycles_WhenCircularTypesRegistered_ThenCycleWithAllMembers()
+    {
+        // given
+        dictionary.addType(InterfaceCircularLeft.class, ClassCircularLeft.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceCircularRight.class, ClassCircularRight.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceBasic.class, ClassConstructorDefault.class,
+                           ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        List<List<Class<?>>> result = testObject.findCycles();
+
+        // then
+        Assertions.assertThat(result).hasSize(1);
+        Assertions.assertThat(result.get(0))
+                  .containsExactlyInAnyOrder(InterfaceCircularLeft.class,
+                                             InterfaceCircularRight.class);
+    }
+
+    @Test
+    public void findCycles_WhenDependenciesAcyclic_ThenEmpty()
+    {
+        // given
+        dictionary.addType(InterfaceDiamondTop.class, ClassDiamondTop.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceDiamondLeft.class, ClassDiamondLeft.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceDiamondRight.class, ClassDiamondRight.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceDiamondBottom.class, ClassDiamondBottom.class,
+                           ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        List<List<Class<?>>> result = testObject.findCycles();
+
+        // then
+        Assertions.assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void findCycles_WhenSelfDependentTypeRegisteredAsInstance_ThenEmpty()
+    {
+        // given
+        ClassCircularSelf self = new ClassCircularSelf(null);
+
+        dictionary.addInstance(ClassCircularSelf.class, self);
+        dictionary.addType(ClassCircularSelfHolder.class, ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        List<List<Class<?>>> result = testObject.findCycles();
+
+        // then
+        Assertions.assertThat(result).isEmpty();
+        Assertions.assertThat(testObject.resolve(ClassCircularSelfHolder.class).getSelf())
+                  .isSameAs(self);
+    }
+
+    @Test
+    public void resolve_WhenCycleRegisteredAfterAcyclicResolve_ThenCircularDependenciesException()
+    {
+        // given
+        dictionary.addType(InterfaceCircularLeft.class, ClassCircularLeft.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        Assertions.assertThatThrownBy(() -> testObject.resolve(InterfaceCircularLeft.class))
+                  .isInstanceOf(MissingDependenciesException.class);
+
+        // when
+        dictionary.addType(InterfaceCircularRight.class, ClassCircularRight.class,
+                           ConstructionPolicy.CONSTRUCTION);
+
+        // then
+        Assertions.assertThatThrownBy(() -> testObject.resolve(InterfaceCircularLeft.class))
+                  .isInstanceOf(CircularDependenciesException.class);
+    }
+
+    // endregion
+    // region explain
+
+    @Test
+    public void explain_WhenRegisterAnnotationsChain_ThenChainFollowed()
+    {
+        // when
+        ResolutionPlan result = testObject.explain(ClassRegisterAbstract.class);
+
+        // then
+        Assertions.assertThat(result.chain())
+                  .containsExactly(ClassRegisterAbstract.class, ClassRegisterConcrete.class,
+                                   ClassRegisterDerivedFromRegister.class);
+        Assertions.assertThat(result.source()).isEqualTo(ResolutionPlan.Source.CONSTRUCTION);
+        Assertions.assertThat(result.estimatedAllocations()).isEqualTo(1L);
+    }
+
+    @Test
+    public void explain_WhenSingletonSharedInDiamond_ThenSingletonConstructedOnce()
+    {
+        // given
+        dictionary.addType(InterfaceDiamondBottom.class, ClassDiamondBottom.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceDiamondLeft.class, ClassDiamondLeft.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceDiamondRight.class, ClassDiamondRight.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceDiamondTop.class, ClassDiamondTop.class,
+                           ConstructionPolicy.SINGLETON);
+
+        // when
+        ResolutionPlan result = testObject.explain(InterfaceDiamondBottom.class);
+
+        // then
+        Assertions.assertThat(result.constructor().getParameterCount()).isEqualTo(2);
+        Assertions.assertThat(result.arguments().get(0).arguments().get(0).source())
+                  .isEqualTo(ResolutionPlan.Source.NEW_SINGLETON);
+        Assertions.assertThat(result.arguments().get(1).arguments().get(0).source())
+                  .isEqualTo(ResolutionPlan.Source.SINGLETON);
+        Assertions.assertThat(result.estimatedAllocations()).isEqualTo(4L);
+    }
+
+    @Test
+    public void explain_WhenFirstConstructorCircular_ThenNextConstructorChosen()
+    {
+        // given
+        dictionary.addType(InterfaceCircularLeft.class, ClassCircularLeft.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceCircularRight.class, ClassCircularRight.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceCircularDependency.class, ClassCircularDependency.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addType(InterfaceBasicStringGetter.class, ClassBasicStringGetter.class,
+                           ConstructionPolicy.CONSTRUCTION);
+
+        // when
+        ResolutionPlan result = testObject.explain(InterfaceCircularDependency.class);
+
+        // then
+        Assertions.assertThat(result.constructor().getParameterTypes())
+                  .containsExactly(InterfaceBasicStringGetter.class);
+        Assertions.assertThat(result.arguments())
+                  .extracting(ResolutionPlan::concreteType)
+                  .containsExactly(ClassBasicStringGetter.class);
+        Assertions.assertThat(result.rejected()).hasSize(1);
+        Assertions.assertThat(result.rejected().get(0).constructor().getParameterTypes())
+                  .containsExactly(InterfaceCircularLeft.class, InterfaceBasicStringGetter.class);
+        Assertions.assertThat(result.rejected().get(0).reason()).isNotNull();
+        Assertions.assertThat(result.fallbacks()).isEmpty();
+    }
+
+    @Test
+    public void explain_WhenSetterDependencyIsInstance_ThenSetterPlanWithInstance()
+    {
+        // given
+        dictionary.addType(InterfaceSetter.class, ClassSetterSingle.class,
+                           ConstructionPolicy.CONSTRUCTION);
+        dictionary.addInstance(InterfaceBasic.class, new ClassConstructorDefault());
+
+        // when
+        ResolutionPlan result = testObject.explain(InterfaceSetter.class);
+
+        // then
+        Assertions.assertThat(result.setters()).hasSize(1);
+        Assertions.assertThat(result.setters().get(0).setter().getName())
+                  .isEqualTo("setBasicObject");
+        Assertions.assertThat(result.setters().get(0).argument().source())
+                  .isEqualTo(ResolutionPlan.Source.INSTANCE);
+        Assertions.assertThat(result.estimatedAllocations()).isEqualTo(1L);
+    }
+
+    @Test
+    public void explain_WhenMissingDependency_ThenUnresolvableWithFailure()
+    {
+        // when
+        ResolutionPlan result = testObject.explain(InterfaceBasic.class);
+
+        // then
+        Assertions.assertThat(result.source()).isEqualTo(ResolutionPlan.Source.UNRESOLVABLE);
+        Assertions.assertThat(result.failure()).isNotNull();
+        Assertions.assertThat(result.estimatedAllocations()).isZero();
+    }
+
+    @Test
+    public void explain_WhenAllConstructorsMissDependencies_ThenAllRejectedWithReasons()
+    {
+        // when
+        ResolutionPlan result = testObject.explain(ClassConstructorThrowingThenMissing.class);
+
+        // then
+        Assertions.assertThat(result.source()).isEqualTo(ResolutionPlan.Source.UNRESOLVABLE);
+        Assertions.assertThat(result.rejected())
+                  .extracting(RejectedConstructor::reason)
+                  .containsExactly("No dependency for type "
+                                           + ClassConstructorExceptionThrown.class.getName()
+                                           + " found",
+                                   "No dependency for type " + InterfaceBasic.class.getName()
+                                           + " found");
+    }
+
     // endregion
 }
@@ -0,0 +1,115 @@
+package yadic.trace;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import yadic.ConstructionPolicy;
+import yadic.DiConfiguration;
+import yadic.DiContainer;
+import yadic.models.diamond.*;
+
+public class TraceRecorderTest
+{
+    private TraceRecorder testObject;
+    private DiContainer container;
+
+    @BeforeEach
+    public void setUp()
+    {
+        testObject = new TraceRecorder(3);
+        container = new DiContainer(new DiConfiguration().addListener(testObject));
+        container.registerType(InterfaceDiamondLeft.class, ClassDiamondLeft.class,
+                               ConstructionPolicy.CONSTRUCTION);
+        container.registerType(InterfaceDiamondRight.class, ClassDiamondRight.class,
+                               ConstructionPolicy.CONSTRUCTION);
+        container.registerType(InterfaceDiamondBottom.class, ClassDiamondBottom.class,
+                               ConstructionPolicy.CONSTRUCTION);
+        container.registerType(InterfaceDiamondTop.class, ClassDiamondTop.class,
+                               ConstructionPolicy.CONSTRUCTION);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        testObject = null;
+        container = null;
+    }
+
+    @Test
+    public void writeChromeTrace_WhenResolved_ThenSpansWritten()
+            throws IOException
+    {
+        // given
+        container.resolve(InterfaceDiamondLeft.class);
+
+        StringWriter writer = new StringWriter();
+
+        // when
+        testObject.writeChromeTrace(writer);
+
+        // then
+        Assertions.assertThat(testObject.size()).isEqualTo(2);
+        Assertions.assertThat(writer.toString())
+                  .startsWith("{\"displayTimeUnit\":\"ns\",\"traceEvents\":[{")
+                  .endsWith("}]}")
+                  .contains("\"name\":\"" + InterfaceDiamondTop.class.getName() + "\"")
+                  .contains("\"name\":\"" + InterfaceDiamondLeft.class.getName() + "\"")
+                  .contains("\"args\":{\"id\":2,\"parent\":1,\"depth\":2,"
+                                    + "\"policy\":\"CONSTRUCTION\"}")
+                  .contains("\"args\":{\"id\":1,\"parent\":0,\"depth\":1,"
+                                    + "\"policy\":\"CONSTRUCTION\"}");
+    }
+
+    @Test
+    public void writeChromeTrace_WhenBufferFull_ThenOldestSpansOverwritten()
+            throws IOException
+    {
+        // given
+        container.resolve(InterfaceDiamondBottom.class);
+
+        StringWriter writer = new StringWriter();
+
+        // when
+        testObject.writeChromeTrace(writer);
+
+        // then
+        Assertions.assertThat(testObject.size()).isEqualTo(3);
+        Assertions.assertThat(writer.toString())
+                  .contains("\"name\":\"" + InterfaceDiamondBottom.class.getName() + "\"")
+                  .doesNotContain("\"name\":\"" + InterfaceDiamondLeft.class.getName() + "\"");
+    }
+
+    @Test
+    public void writeChromeTrace_WhenExpiringSingletonCreated_ThenExpiringPolicyWritten()
+            throws IOException
+    {
+        // given
+        container.registerType(InterfaceDiamondTop.class, ClassDiamondTop.class,
+                               Duration.ofMinutes(1));
+        container.resolve(InterfaceDiamondTop.class);
+
+        StringWriter writer = new StringWriter();
+
+        // when
+        testObject.writeChromeTrace(writer);
+
+        // then
+        Assertions.assertThat(writer.toString())
+                  .contains("\"cat\":\"singleton\"")
+                  .contains("\"depth\":1,\"policy\":\"EXPIRING\"}")
+                  .doesNotContain("\"policy\":\"SINGLETON\"");
+    }
+
+    @Test
+    public void constructor_WhenCapacityNotPositive_ThenIllegalArgumentException()
+    {
+        Assertions.assertThatThrownBy(() -> new TraceRecorder(0))
+                  .isInstanceOf(IllegalArgumentException.class);
+    }
+}